@@ -0,0 +1,72 @@
+package com.example.daniel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+// Cost of one paint into an offscreen image: a highlighted square, an animation frame (a square
+// plus the few pixels the piece moved) and the whole board after a resize or a new game
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class BoardPaintBenchmark {
+    private static final int TILE = 75;
+
+    private BoardPanel board;
+    private BufferedImage screen;
+    private Graphics2D g;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        board = new BoardPanel(TILE);
+        board.setSize(8 * TILE, 8 * TILE);
+        board.setPosition(Fen.parse("r1bqkb1r/pppp1ppp/2n2n2/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R w KQkq - 4 4"));
+        board.setSelected(6, 4);
+        board.highlight(5, 4);
+        board.highlight(4, 4);
+        screen = new BufferedImage(8 * TILE, 8 * TILE, BufferedImage.TYPE_INT_RGB);
+        g = screen.createGraphics();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        g.dispose();
+    }
+
+    @Benchmark
+    public BufferedImage square() {
+        g.setClip(4 * TILE, 5 * TILE, TILE, TILE);
+        board.paintComponent(g);
+        return screen;
+    }
+
+    @Benchmark
+    public BufferedImage animationFrame() {
+        g.setClip(4 * TILE, 4 * TILE + 60, TILE, TILE + 12);
+        board.paintComponent(g);
+        return screen;
+    }
+
+    @Benchmark
+    public BufferedImage fullBoard() {
+        g.setClip(0, 0, 8 * TILE, 8 * TILE);
+        board.paintComponent(g);
+        return screen;
+    }
+}
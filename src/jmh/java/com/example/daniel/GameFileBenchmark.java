@@ -0,0 +1,81 @@
+package com.example.daniel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Save and load cost of an 80-ply game, in memory and through a file
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class GameFileBenchmark {
+    private SavedGame game;
+    private ByteBuffer encoded;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Position pos = Position.startPosition();
+        Random random = new Random(1);
+        int[] buffer = new int[MoveGen.MAX_MOVES];
+        int[] moves = new int[80];
+        int played = 0;
+        while (played < moves.length) {
+            int count = MoveGen.generate(pos, buffer, 0);
+            if (count == 0) {
+                break;
+            }
+            moves[played] = buffer[random.nextInt(count)];
+            pos.makeMove(moves[played++]);
+        }
+        game = new SavedGame(Position.startPosition(), Arrays.copyOf(moves, played), 432_000, 517_000);
+        encoded = GameFile.encode(game);
+        file = Files.createTempFile("bench", ".chs");
+        GameFile.write(file, game);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public ByteBuffer encode() {
+        return GameFile.encode(game);
+    }
+
+    @Benchmark
+    public SavedGame decode() throws IOException {
+        return GameFile.decode(encoded.duplicate());
+    }
+
+    @Benchmark
+    public void writeFile() throws IOException {
+        GameFile.write(file, game);
+    }
+
+    @Benchmark
+    public SavedGame readFile() throws IOException {
+        return GameFile.read(file);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.daniel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Throughput is reported per node or per position, so ops/s reads as nodes per second
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MoveGenBenchmark {
+    private static final String[] POSITIONS = {
+            Fen.START,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+            "4k3/8/8/8/8/8/4q3/4K3 w - - 0 1",
+            "r1bqkbnr/pppp1Qpp/2n5/4p3/2B1P3/8/PPPP1PPP/RNB1K1NR b KQkq - 0 4"
+    };
+
+    private Position start;
+    private Position kiwipete;
+    private Position[] positions;
+    private int[] buffer;
+    private int[] kiwipeteMoves;
+    private int kiwipeteMoveCount;
+
+    @Setup
+    public void setup() {
+        start = Fen.parse(Fen.START);
+        kiwipete = Fen.parse(POSITIONS[1]);
+        positions = new Position[POSITIONS.length];
+        for (int i = 0; i < POSITIONS.length; i++) {
+            positions[i] = Fen.parse(POSITIONS[i]);
+        }
+        buffer = new int[MoveGen.MAX_MOVES];
+        kiwipeteMoves = new int[MoveGen.MAX_MOVES];
+        kiwipeteMoveCount = MoveGen.generate(kiwipete, kiwipeteMoves, 0);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(197281)
+    public long perftStartDepth4() {
+        return MoveGen.perft(start, 4);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(97862)
+    public long perftKiwipeteDepth3() {
+        return MoveGen.perft(kiwipete, 3);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(8)
+    public int generateMoves() {
+        int total = 0;
+        for (Position pos : positions) {
+            total += MoveGen.generate(pos, buffer, 0);
+        }
+        return total;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(48)
+    public int makeUnmake() {
+        int touched = 0;
+        for (int i = 0; i < kiwipeteMoveCount; i++) {
+            kiwipete.makeMove(kiwipeteMoves[i]);
+            touched += kiwipete.sideToMove();
+            kiwipete.unmakeMove(kiwipeteMoves[i]);
+        }
+        return touched;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(8)
+    public int checkDetection() {
+        int inCheck = 0;
+        for (Position pos : positions) {
+            if (pos.isInCheck(pos.sideToMove())) {
+                inCheck++;
+            }
+        }
+        return inCheck;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.daniel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Probe and open cost of a book with about a million entries
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class OpeningBookBenchmark {
+    private static final int GAMES = 25_000;
+    private static final int PLIES = 40;
+
+    private Path file;
+    private OpeningBook book;
+    private Position[] positions;
+    private int next;
+    private final Random random = new Random(3);
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Random r = new Random(1);
+        int[] buffer = new int[MoveGen.MAX_MOVES];
+        BookBuilder builder = new BookBuilder(PLIES, 1);
+        positions = new Position[1024];
+        for (int g = 0; g < GAMES; g++) {
+            Position pos = Position.startPosition();
+            int[] moves = new int[PLIES];
+            int played = 0;
+            while (played < PLIES) {
+                int count = MoveGen.generate(pos, buffer, 0);
+                if (count == 0) {
+                    break;
+                }
+                moves[played] = buffer[r.nextInt(count)];
+                pos.makeMove(moves[played++]);
+                // Positions at varied depths of the book, all of them with book moves
+                if (g < positions.length && played == 1 + g % 30) {
+                    positions[g] = new Position();
+                    positions[g].copyFrom(pos);
+                }
+            }
+            if (g < positions.length && positions[g] == null) {
+                positions[g] = Position.startPosition();
+            }
+            builder.add(new PgnGame(Map.of(), Position.startPosition(),
+                    Arrays.copyOf(moves, played), "1/2-1/2"));
+        }
+        file = Files.createTempFile("bench", ".bin");
+        builder.write(file);
+        book = OpeningBook.open(file);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        book.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public int probe() {
+        return book.probe(positions[next++ & (positions.length - 1)], random);
+    }
+
+    @Benchmark
+    public long open() throws IOException {
+        try (OpeningBook b = OpeningBook.open(file)) {
+            return b.size();
+        }
+    }
+}
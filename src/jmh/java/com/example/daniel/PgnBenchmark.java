@@ -0,0 +1,79 @@
+package com.example.daniel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Import throughput; scores read directly as games per second
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PgnBenchmark {
+    private static final int GAMES = 2000;
+
+    @Param({"1", "2", "4"})
+    public int threads;
+
+    private String text;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        Random random = new Random(1);
+        int[] buffer = new int[MoveGen.MAX_MOVES];
+        StringWriter out = new StringWriter();
+        try (PgnWriter writer = new PgnWriter(out)) {
+            for (int g = 0; g < GAMES; g++) {
+                Position pos = Position.startPosition();
+                int[] moves = new int[40 + random.nextInt(80)];
+                int played = 0;
+                while (played < moves.length) {
+                    int count = MoveGen.generate(pos, buffer, 0);
+                    if (count == 0) {
+                        break;
+                    }
+                    moves[played] = buffer[random.nextInt(count)];
+                    pos.makeMove(moves[played++]);
+                }
+                Map<String, String> tags = new LinkedHashMap<>();
+                tags.put("Event", "Benchmark");
+                tags.put("Round", String.valueOf(g + 1));
+                writer.write(new PgnGame(tags, Position.startPosition(), Arrays.copyOf(moves, played), "*"));
+            }
+        }
+        text = out.toString();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GAMES)
+    public long read() {
+        long plies = 0;
+        try (PgnReader reader = new PgnReader(new StringReader(text), threads)) {
+            while (reader.hasNext()) {
+                plies += reader.next().moveCount();
+            }
+        }
+        return plies;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.daniel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Time-to-depth and nodes per second for each search thread count.
+// mvn -Pbench test-compile exec:java -Dexec.mainClass=com.example.daniel.SmpBenchmark
+//     -Dexec.classpathScope=test -Dexec.args="<depth> <threads,...>"
+public class SmpBenchmark {
+    private static final String[] POSITIONS = {
+            Fen.START,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "r1bq1rk1/pp2bppp/2n1pn2/3p4/2PP4/2N1PN2/PP3PPP/R2QKB1R w KQ - 0 8",
+            "r2q1rk1/1b2bppp/p2p1n2/1p1Pp3/4P3/P1N2N2/1PB2PPP/R1BQR1K1 b - - 0 14",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "2r3k1/pp3ppp/4p3/3pP3/3P1P2/P1R5/1P4PP/6K1 w - - 0 1"
+    };
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 12;
+        List<Integer> counts = new ArrayList<>();
+        if (args.length > 1) {
+            for (String s : args[1].split(",")) {
+                counts.add(Integer.parseInt(s.trim()));
+            }
+        } else {
+            for (int n = 1; n <= Runtime.getRuntime().availableProcessors(); n *= 2) {
+                counts.add(n);
+            }
+        }
+
+        TranspositionTable tt = new TranspositionTable(Integer.getInteger("chess.hash", 64));
+        // Warm up the JIT so the first thread count is not penalised
+        new SearchPool(tt, 1).search(Fen.parse(POSITIONS[1]), SearchLimits.depth(Math.min(depth, 8)), null);
+        long baseline = 0;
+        System.out.printf("depth %d, %d positions%n", depth, POSITIONS.length);
+        System.out.printf("%7s %12s %14s %12s %8s%n", "threads", "time (ms)", "nodes", "nps", "speedup");
+        for (int threads : counts) {
+            SearchPool pool = new SearchPool(tt, threads);
+            long millis = 0;
+            long nodes = 0;
+            for (String fen : POSITIONS) {
+                tt.clear();
+                long start = System.nanoTime();
+                SearchResult result = pool.search(Fen.parse(fen), SearchLimits.depth(depth), null);
+                millis += (System.nanoTime() - start) / 1_000_000L;
+                nodes += result.nodes;
+            }
+            pool.shutdown();
+            if (baseline == 0) {
+                baseline = millis;
+            }
+            System.out.printf("%7d %12d %14d %12d %8.2f%n", threads, millis, nodes,
+                    millis == 0 ? 0 : nodes * 1000 / millis, (double) baseline / Math.max(1, millis));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.daniel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Probe cost inside search, over the positions of a KPK game
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TablebaseBenchmark {
+    private Path dir;
+    private Tablebases tablebases;
+    private Position[] positions;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dir = Files.createTempDirectory("tablas");
+        new TablebaseGenerator(dir, Runtime.getRuntime().availableProcessors()).generate("KPvK");
+        tablebases = Tablebases.open(dir);
+        String[] fens = {
+                "8/8/8/8/8/3k4/3P4/3K4 w - - 0 1",
+                "8/8/8/4k3/8/8/3P4/3K4 b - - 0 1",
+                "8/8/3k4/8/8/3K4/3P4/8 w - - 0 1",
+                "8/3P4/8/8/2k5/8/8/3K4 b - - 0 1"
+        };
+        positions = new Position[fens.length];
+        for (int i = 0; i < fens.length; i++) {
+            positions[i] = Fen.parse(fens[i]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        tablebases.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(p);
+            }
+        }
+    }
+
+    @Benchmark
+    public int probe() {
+        return tablebases.probe(positions[next++ & 3], 5);
+    }
+}
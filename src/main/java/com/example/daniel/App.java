@@ -1,10 +1,34 @@
 package com.example.daniel;
 
+import java.util.Arrays;
+
 public class App {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        // "analyze", "uci", "tournament", "server" and "loadtest" run headless and never touch AWT
+        if (args.length > 0 && args[0].equals("analyze")) {
+            BatchAnalysis.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("uci")) {
+            UciEngine.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("tournament")) {
+            Tournament.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("server")) {
+            GameServer.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        if (args.length > 0 && args[0].equals("loadtest")) {
+            LoadClient.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        TimedEventQueue.install();
         javax.swing.SwingUtilities.invokeLater(() -> {
             ChessBoard board = new ChessBoard();
             board.setVisible(true);
         });
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,298 @@
+package com.example.daniel;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Headless analysis of FEN/EPD files: java -jar chess.jar analyze [opciones] archivo.epd
+// Each worker searches one position at a time with its own single-threaded engine. Results are
+// written as JSON lines in input order as soon as they are ready; only a bounded window of
+// positions is read ahead, so files of any size run in constant memory.
+public final class BatchAnalysis {
+    private static final int POSITIONS_PER_THREAD = 4;
+    private static final String USAGE = "Uso: analyze [--depth N | --movetime MS | --nodes N] [--threads N]"
+            + " [--hash MB] [--tb directorio] [--out archivo] archivo.epd|-";
+
+    private final SearchLimits limits;
+    private final int threads;
+    private final int hashMegabytes;
+    private Tablebases tablebases;
+
+    BatchAnalysis(SearchLimits limits, int threads, int hashMegabytes) {
+        this.limits = limits;
+        this.threads = Math.max(1, threads);
+        this.hashMegabytes = hashMegabytes;
+    }
+
+    void setTablebases(Tablebases tablebases) {
+        this.tablebases = tablebases;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int depth = 0;
+        long movetime = 0;
+        long nodes = 0;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int hash = 16;
+        String input = null;
+        String output = null;
+        String tb = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--depth" -> depth = Integer.parseInt(args[++i]);
+                    case "--movetime" -> movetime = Long.parseLong(args[++i]);
+                    case "--nodes" -> nodes = Long.parseLong(args[++i]);
+                    case "--threads" -> threads = Integer.parseInt(args[++i]);
+                    case "--hash" -> hash = Integer.parseInt(args[++i]);
+                    case "--out" -> output = args[++i];
+                    case "--tb" -> tb = args[++i];
+                    default -> input = args[i];
+                }
+            }
+        } catch (RuntimeException e) {
+            input = null;
+        }
+        if (input == null) {
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+        if (depth == 0 && movetime == 0 && nodes == 0) {
+            movetime = 1000;
+        }
+        SearchLimits limits = new SearchLimits(depth == 0 ? Search.MAX_PLY : depth, nodes, movetime);
+
+        BufferedReader in = input.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Path.of(input), StandardCharsets.UTF_8);
+        Writer out = output == null
+                ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                : Files.newBufferedWriter(Path.of(output), StandardCharsets.UTF_8);
+        long start = System.nanoTime();
+        long count;
+        BatchAnalysis analysis = new BatchAnalysis(limits, threads, hash);
+        try (in; out; Tablebases tables = tb == null ? null : Tablebases.open(Path.of(tb))) {
+            analysis.setTablebases(tables);
+            count = analysis.run(in, out);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("%d posiciones en %.1f s (%.1f/s, %d hilos)%n", count, seconds, count / seconds, threads);
+    }
+
+    // Returns the number of positions analysed
+    long run(BufferedReader in, Writer out) throws IOException {
+        ThreadLocal<SearchPool> engines = ThreadLocal.withInitial(() -> {
+            SearchPool engine = new SearchPool(new TranspositionTable(hashMegabytes), 1);
+            engine.setTablebases(tablebases);
+            return engine;
+        });
+        ExecutorService workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "chess-analysis");
+            t.setDaemon(true);
+            return t;
+        });
+        ArrayDeque<Future<String>> pending = new ArrayDeque<>();
+        int window = threads * POSITIONS_PER_THREAD;
+        long count = 0;
+        long lineNumber = 0;
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                String text = line.strip();
+                if (text.isEmpty() || text.startsWith("#")) {
+                    continue;
+                }
+                if (pending.size() == window) {
+                    writeResult(out, pending.poll());
+                }
+                long number = lineNumber;
+                pending.add(workers.submit(() -> analyse(engines.get(), text, number)));
+                count++;
+            }
+            while (!pending.isEmpty()) {
+                writeResult(out, pending.poll());
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+        return count;
+    }
+
+    private static void writeResult(Writer out, Future<String> result) throws IOException {
+        try {
+            out.write(result.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Análisis interrumpido", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        out.write('\n');
+        // Flushed per position so partial results survive an interrupted nightly run
+        out.flush();
+    }
+
+    private String analyse(SearchPool engine, String line, long number) {
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"line\":").append(number);
+        Epd epd;
+        try {
+            epd = Epd.parse(line);
+        } catch (RuntimeException e) {
+            appendString(json.append(",\"error\":"), e.getMessage());
+            return json.append('}').toString();
+        }
+        if (epd.id != null) {
+            appendString(json.append(",\"id\":"), epd.id);
+        }
+        appendString(json.append(",\"fen\":"), Fen.toFen(epd.position));
+
+        SearchResult result = engine.search(epd.position, limits, null);
+        if (result.bestMove == Moves.NONE) {
+            json.append(",\"bestmove\":null");
+        } else {
+            appendString(json.append(",\"bestmove\":"), Moves.toUci(result.bestMove));
+            appendString(json.append(",\"san\":"), San.toSan(epd.position, result.bestMove));
+        }
+        if (Math.abs(result.score) >= Search.MATE_BOUND) {
+            int plies = Search.MATE - Math.abs(result.score);
+            json.append(",\"mate\":").append(result.score > 0 ? (plies + 1) / 2 : -(plies / 2));
+        } else {
+            json.append(",\"cp\":").append(result.score);
+        }
+        json.append(",\"depth\":").append(result.depth)
+                .append(",\"nodes\":").append(result.nodes)
+                .append(",\"time_ms\":").append(result.timeMillis);
+        if (!epd.bestMoves.isEmpty()) {
+            json.append(",\"bm\":[");
+            for (int i = 0; i < epd.bestMoves.size(); i++) {
+                appendString(json.append(i > 0 ? "," : ""), epd.bestMoves.get(i));
+            }
+            json.append("],\"solved\":").append(epd.matches(result.bestMove));
+        }
+        return json.append('}').toString();
+    }
+
+    private static void appendString(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    // A FEN line, or an EPD record: four position fields followed by "opcode operands;" operations
+    static final class Epd {
+        final Position position;
+        final String id;
+        final List<String> bestMoves;
+        private final List<Integer> bestMoveCodes;
+
+        private Epd(Position position, String id, List<String> bestMoves, List<Integer> bestMoveCodes) {
+            this.position = position;
+            this.id = id;
+            this.bestMoves = bestMoves;
+            this.bestMoveCodes = bestMoveCodes;
+        }
+
+        static Epd parse(String line) {
+            String[] fields = line.split("\\s+", 5);
+            if (fields.length < 4) {
+                throw new IllegalArgumentException("FEN incompleto: " + line);
+            }
+            String rest = fields.length == 5 ? fields[4] : "";
+            String fen = String.join(" ", fields[0], fields[1], fields[2], fields[3]);
+            // Full FEN: the move counters follow directly
+            String[] counters = rest.split("\\s+", 3);
+            if (counters.length >= 2 && counters[0].matches("\\d+") && counters[1].matches("\\d+")) {
+                fen += " " + counters[0] + " " + counters[1];
+                rest = counters.length == 3 ? counters[2] : "";
+            }
+            Position position = Fen.parse(fen);
+
+            String id = null;
+            List<String> bestMoves = new ArrayList<>();
+            List<Integer> codes = new ArrayList<>();
+            for (String op : splitOperations(rest)) {
+                String[] parts = op.split("\\s+", 2);
+                if (parts.length < 2) {
+                    continue;
+                }
+                if (parts[0].equals("id")) {
+                    id = unquote(parts[1]);
+                } else if (parts[0].equals("bm")) {
+                    for (String san : parts[1].split("\\s+")) {
+                        int move = San.parse(position, san);
+                        if (move == Moves.NONE) {
+                            throw new IllegalArgumentException("Movimiento inválido en bm: " + san);
+                        }
+                        bestMoves.add(san);
+                        codes.add(move);
+                    }
+                }
+            }
+            return new Epd(position, id, bestMoves, codes);
+        }
+
+        boolean matches(int move) {
+            return bestMoveCodes.contains(move);
+        }
+
+        // Semicolons inside quoted operands do not end an operation
+        private static List<String> splitOperations(String s) {
+            List<String> ops = new ArrayList<>();
+            StringBuilder current = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if (c == '"') {
+                    quoted = !quoted;
+                }
+                if (c == ';' && !quoted) {
+                    ops.add(current.toString().strip());
+                    current.setLength(0);
+                } else {
+                    current.append(c);
+                }
+            }
+            if (!current.toString().isBlank()) {
+                ops.add(current.toString().strip());
+            }
+            return ops;
+        }
+
+        private static String unquote(String s) {
+            s = s.strip();
+            return s.length() >= 2 && s.startsWith("\"") && s.endsWith("\"") ? s.substring(1, s.length() - 1) : s;
+        }
+    }
+}
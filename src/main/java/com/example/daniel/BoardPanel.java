@@ -0,0 +1,281 @@
+package com.example.daniel;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+// The board as one painted component. Square tiles (plain, selected and highlighted) and the twelve
+// piece glyphs are rendered into images once per square size, so painting is a few drawImage calls,
+// and only the squares that changed are repainted. Rows and columns are screen coordinates, row 0
+// being rank 8 as in ChessBoard.
+public class BoardPanel extends JComponent {
+    private static final long serialVersionUID = 1L;
+
+    public interface SquareListener {
+        void squareClicked(int row, int col);
+    }
+
+    private static final int BOARD_SIZE = 8;
+    private static final Color LIGHT_COLOR = new Color(240, 217, 181);
+    private static final Color DARK_COLOR = new Color(181, 136, 99);
+    private static final Color HIGHLIGHT_COLOR = new Color(119, 185, 125, 128);
+    private static final Color SELECTED_COLOR = new Color(255, 255, 0, 128);
+    private static final String FONT_NAME = "Segoe UI Symbol";
+    private static final int ANIMATION_MILLIS = 150;
+    private static final int FRAME_MILLIS = 15;
+
+    private static final int PLAIN = 0;
+    private static final int SELECTED = 1;
+    private static final int HIGHLIGHTED = 2;
+
+    // Position piece codes indexed by row * 8 + col
+    private final int[] pieces = new int[BOARD_SIZE * BOARD_SIZE];
+    private long highlighted;
+    private int selected = -1;
+    private SquareListener listener;
+
+    // Rendered for tileSize; [state * 2 + dark]
+    private final BufferedImage[] tiles = new BufferedImage[6];
+    private final BufferedImage[] glyphs = new BufferedImage[Piece.values().length];
+    private int tileSize;
+    private int originX;
+    private int originY;
+
+    private final Timer animation;
+    private int animatedPiece = Position.NO_PIECE;
+    private int animatedFrom;
+    private int animatedTo;
+    private long animationStart;
+    private final Rectangle animatedBounds = new Rectangle();
+
+    public BoardPanel(int preferredTileSize) {
+        Arrays.fill(pieces, Position.NO_PIECE);
+        setPreferredSize(new Dimension(BOARD_SIZE * preferredTileSize, BOARD_SIZE * preferredTileSize));
+        setOpaque(true);
+        animation = new Timer(FRAME_MILLIS, e -> stepAnimation());
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                layoutBoard();
+                if (listener == null || tileSize == 0) {
+                    return;
+                }
+                int col = Math.floorDiv(e.getX() - originX, tileSize);
+                int row = Math.floorDiv(e.getY() - originY, tileSize);
+                if (row >= 0 && row < BOARD_SIZE && col >= 0 && col < BOARD_SIZE) {
+                    listener.squareClicked(row, col);
+                }
+            }
+        });
+    }
+
+    public void setSquareListener(SquareListener listener) {
+        this.listener = listener;
+    }
+
+    // Copies the pieces of pos and repaints the squares whose piece changed
+    public void setPosition(Position pos) {
+        finishAnimation();
+        for (int sq = 0; sq < 64; sq++) {
+            int index = (7 - Bitboards.rank(sq)) * BOARD_SIZE + Bitboards.file(sq);
+            int piece = pos.pieceAt(sq);
+            if (pieces[index] != piece) {
+                pieces[index] = piece;
+                repaintSquare(index);
+            }
+        }
+    }
+
+    // As setPosition for pos after move was made, sliding the moved piece to its new square
+    public void showMove(Position pos, int move) {
+        setPosition(pos);
+        int to = Moves.to(move);
+        animatedTo = (7 - Bitboards.rank(to)) * BOARD_SIZE + Bitboards.file(to);
+        animatedFrom = (7 - Bitboards.rank(Moves.from(move))) * BOARD_SIZE + Bitboards.file(Moves.from(move));
+        animatedPiece = pieces[animatedTo];
+        if (animatedPiece == Position.NO_PIECE || !isShowing()) {
+            animatedPiece = Position.NO_PIECE;
+            return;
+        }
+        animationStart = System.nanoTime();
+        layoutBoard();
+        animatedBounds.setBounds(squareX(animatedFrom), squareY(animatedFrom), tileSize, tileSize);
+        repaint(animatedBounds);
+        repaintSquare(animatedTo);
+        animation.start();
+    }
+
+    public void setSelected(int row, int col) {
+        int index = row * BOARD_SIZE + col;
+        if (selected != index) {
+            repaintSquare(selected);
+            selected = index;
+            repaintSquare(index);
+        }
+    }
+
+    public void highlight(int row, int col) {
+        int index = row * BOARD_SIZE + col;
+        highlighted |= 1L << index;
+        repaintSquare(index);
+    }
+
+    // Clears the selection and every highlighted square
+    public void clearHighlights() {
+        for (long bb = highlighted; bb != 0; bb &= bb - 1) {
+            repaintSquare(Long.numberOfTrailingZeros(bb));
+        }
+        highlighted = 0;
+        repaintSquare(selected);
+        selected = -1;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        long start = System.nanoTime();
+        paintBoard(g);
+        Metrics.REPAINT_NANOS.record(System.nanoTime() - start);
+    }
+
+    private void paintBoard(Graphics g) {
+        layoutBoard();
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        Rectangle board = new Rectangle(originX, originY, tileSize * BOARD_SIZE, tileSize * BOARD_SIZE);
+        if (!board.contains(clip)) {
+            g.setColor(getBackground() != null ? getBackground() : DARK_COLOR);
+            g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        }
+        if (tileSize == 0) {
+            return;
+        }
+        // Only the squares under the clip, which for a highlight or an animation frame is one or two
+        int firstCol = Math.max(0, (clip.x - originX) / tileSize);
+        int lastCol = Math.min(BOARD_SIZE - 1, (clip.x + clip.width - 1 - originX) / tileSize);
+        int firstRow = Math.max(0, (clip.y - originY) / tileSize);
+        int lastRow = Math.min(BOARD_SIZE - 1, (clip.y + clip.height - 1 - originY) / tileSize);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                int index = row * BOARD_SIZE + col;
+                int x = originX + col * tileSize;
+                int y = originY + row * tileSize;
+                g.drawImage(tiles[tileState(index) * 2 + ((row + col) & 1)], x, y, null);
+                int piece = pieces[index];
+                if (piece != Position.NO_PIECE && !(animatedPiece != Position.NO_PIECE && index == animatedTo)) {
+                    g.drawImage(glyphs[piece], x, y, null);
+                }
+            }
+        }
+        if (animatedPiece != Position.NO_PIECE) {
+            g.drawImage(glyphs[animatedPiece], animatedBounds.x, animatedBounds.y, null);
+        }
+    }
+
+    private int tileState(int index) {
+        if (index == selected) {
+            return SELECTED;
+        }
+        return (highlighted >>> index & 1) != 0 ? HIGHLIGHTED : PLAIN;
+    }
+
+    private void stepAnimation() {
+        double t = Math.min(1.0, (System.nanoTime() - animationStart) / (ANIMATION_MILLIS * 1e6));
+        if (t >= 1.0) {
+            finishAnimation();
+            return;
+        }
+        // Ease out so the piece settles on its square
+        double eased = 1 - (1 - t) * (1 - t);
+        int x = (int) Math.round(squareX(animatedFrom) + (squareX(animatedTo) - squareX(animatedFrom)) * eased);
+        int y = (int) Math.round(squareY(animatedFrom) + (squareY(animatedTo) - squareY(animatedFrom)) * eased);
+        Rectangle dirty = new Rectangle(animatedBounds);
+        animatedBounds.setLocation(x, y);
+        dirty.add(animatedBounds);
+        repaint(dirty);
+    }
+
+    private void finishAnimation() {
+        if (animatedPiece == Position.NO_PIECE) {
+            return;
+        }
+        animation.stop();
+        animatedPiece = Position.NO_PIECE;
+        repaint(animatedBounds);
+        repaintSquare(animatedTo);
+    }
+
+    private void repaintSquare(int index) {
+        if (index < 0) {
+            return;
+        }
+        layoutBoard();
+        repaint(squareX(index), squareY(index), tileSize, tileSize);
+    }
+
+    private int squareX(int index) {
+        return originX + (index % BOARD_SIZE) * tileSize;
+    }
+
+    private int squareY(int index) {
+        return originY + (index / BOARD_SIZE) * tileSize;
+    }
+
+    // Centres the largest whole-pixel board that fits and re-renders the images when the size changes
+    private void layoutBoard() {
+        int size = Math.min(getWidth(), getHeight()) / BOARD_SIZE;
+        originX = (getWidth() - size * BOARD_SIZE) / 2;
+        originY = (getHeight() - size * BOARD_SIZE) / 2;
+        if (size == tileSize) {
+            return;
+        }
+        tileSize = size;
+        if (size == 0) {
+            return;
+        }
+        Color[] overlays = {null, SELECTED_COLOR, HIGHLIGHT_COLOR};
+        for (int state = 0; state < overlays.length; state++) {
+            for (int dark = 0; dark < 2; dark++) {
+                BufferedImage tile = renderTarget(size, Transparency.OPAQUE);
+                Graphics2D g = tile.createGraphics();
+                g.setColor(dark == 0 ? LIGHT_COLOR : DARK_COLOR);
+                g.fillRect(0, 0, size, size);
+                if (overlays[state] != null) {
+                    g.setColor(overlays[state]);
+                    g.fillRect(0, 0, size, size);
+                }
+                g.dispose();
+                tiles[state * 2 + dark] = tile;
+            }
+        }
+        // Same proportion as the 48 point font on the original 75 pixel squares
+        Font font = new Font(FONT_NAME, Font.PLAIN, Math.max(1, size * 48 / 75));
+        for (Piece piece : Piece.values()) {
+            BufferedImage glyph = renderTarget(size, Transparency.TRANSLUCENT);
+            Graphics2D g = glyph.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setFont(font);
+            g.setColor(Color.BLACK);
+            FontMetrics metrics = g.getFontMetrics();
+            String symbol = piece.symbol();
+            g.drawString(symbol, (size - metrics.stringWidth(symbol)) / 2,
+                    (size - metrics.getHeight()) / 2 + metrics.getAscent());
+            g.dispose();
+            glyphs[piece.code()] = glyph;
+        }
+    }
+
+    // Images in the screen's format blit without conversion
+    private BufferedImage renderTarget(int size, int transparency) {
+        GraphicsConfiguration config = getGraphicsConfiguration();
+        if (config != null) {
+            return config.createCompatibleImage(size, size, transparency);
+        }
+        return new BufferedImage(size, size, transparency == Transparency.OPAQUE
+                ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+    }
+}
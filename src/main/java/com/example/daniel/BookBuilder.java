@@ -0,0 +1,186 @@
+package com.example.daniel;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+
+// Builds an OpeningBook from PGN games:
+// java -cp chess.jar com.example.daniel.BookBuilder [--plies N] [--min-games N] [--threads N] partidas.pgn libro.bin
+// Every move in the first plies of each game is counted, weighted 2 for a win, 1 for a draw and 0
+// for a loss of the side that played it, as Polyglot does.
+public final class BookBuilder {
+    private final int maxPlies;
+    private final int minGames;
+
+    // Open addressing over (key, move) pairs; the PGN is streamed, only these counters are kept
+    private long[] keys = new long[1 << 16];
+    private int[] moves = new int[1 << 16];
+    private int[] weights = new int[1 << 16];
+    private int[] games = new int[1 << 16];
+    private int size;
+
+    public BookBuilder(int maxPlies, int minGames) {
+        this.maxPlies = maxPlies;
+        this.minGames = minGames;
+        Arrays.fill(moves, -1);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int plies = 24;
+        int minGames = 1;
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path pgn = null;
+        Path book = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--plies" -> plies = Integer.parseInt(args[++i]);
+                    case "--min-games" -> minGames = Integer.parseInt(args[++i]);
+                    case "--threads" -> threads = Integer.parseInt(args[++i]);
+                    default -> {
+                        if (pgn == null) {
+                            pgn = Path.of(args[i]);
+                        } else {
+                            book = Path.of(args[i]);
+                        }
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            book = null;
+        }
+        if (book == null) {
+            System.err.println("Uso: BookBuilder [--plies N] [--min-games N] [--threads N] partidas.pgn libro.bin");
+            System.exit(2);
+            return;
+        }
+
+        long start = System.nanoTime();
+        BookBuilder builder = new BookBuilder(plies, minGames);
+        long count = 0;
+        long skipped;
+        try (PgnReader reader = PgnReader.open(pgn, threads)) {
+            reader.onError(e -> System.err.println("Partida omitida: " + e.getMessage()));
+            for (Iterator<PgnGame> it = reader; it.hasNext(); count++) {
+                builder.add(it.next());
+            }
+            skipped = reader.errors();
+        }
+        long entries = builder.write(book);
+        System.err.printf("%d partidas (%d omitidas), %d entradas en %.1f s%n", count, skipped, entries,
+                (System.nanoTime() - start) / 1e9);
+    }
+
+    public void add(PgnGame game) {
+        int whiteWeight = switch (game.result()) {
+            case "1-0" -> 2;
+            case "0-1" -> 0;
+            case "1/2-1/2" -> 1;
+            default -> -1;
+        };
+        // Unfinished games say nothing about the moves played
+        if (whiteWeight < 0) {
+            return;
+        }
+        Position pos = game.start();
+        int[] played = game.moves();
+        for (int i = 0; i < played.length && i < maxPlies; i++) {
+            int weight = pos.sideToMove() == Position.WHITE ? whiteWeight : 2 - whiteWeight;
+            add(OpeningBook.key(pos), OpeningBook.encode(played[i]), weight);
+            pos.makeMove(played[i]);
+        }
+    }
+
+    // Writes the book sorted by unsigned key, heaviest move first; returns the number of entries
+    public long write(Path path) throws IOException {
+        int[] order = new int[size];
+        int n = 0;
+        for (int i = 0; i < moves.length; i++) {
+            if (moves[i] >= 0 && games[i] >= minGames && weights[i] > 0) {
+                order[n++] = i;
+            }
+        }
+        Integer[] sorted = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            sorted[i] = order[i];
+        }
+        Arrays.sort(sorted, (a, b) -> {
+            int c = Long.compareUnsigned(keys[a], keys[b]);
+            return c != 0 ? c : Integer.compare(weights[b], weights[a]);
+        });
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16))) {
+            int first = 0;
+            while (first < n) {
+                int last = first;
+                while (last < n && keys[sorted[last]] == keys[sorted[first]]) {
+                    last++;
+                }
+                // Weights are 16 bits on disk; scale a position's moves together to keep their ratios
+                int max = weights[sorted[first]];
+                for (int i = first; i < last; i++) {
+                    int e = sorted[i];
+                    int weight = max > 0xFFFF ? (int) Math.max(1, (long) weights[e] * 0xFFFF / max) : weights[e];
+                    out.writeLong(keys[e]);
+                    out.writeShort(moves[e]);
+                    out.writeShort(weight);
+                    out.writeInt(0);
+                }
+                first = last;
+            }
+        }
+        return n;
+    }
+
+    private void add(long key, int move, int weight) {
+        if (size * 2 >= keys.length) {
+            grow();
+        }
+        int i = slot(key, move, keys.length);
+        while (moves[i] >= 0 && (keys[i] != key || moves[i] != move)) {
+            i = (i + 1) & (keys.length - 1);
+        }
+        if (moves[i] < 0) {
+            keys[i] = key;
+            moves[i] = move;
+            size++;
+        }
+        weights[i] += weight;
+        games[i]++;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldMoves = moves;
+        int[] oldWeights = weights;
+        int[] oldGames = games;
+        int capacity = oldKeys.length * 2;
+        keys = new long[capacity];
+        moves = new int[capacity];
+        weights = new int[capacity];
+        games = new int[capacity];
+        Arrays.fill(moves, -1);
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldMoves[j] < 0) {
+                continue;
+            }
+            int i = slot(oldKeys[j], oldMoves[j], capacity);
+            while (moves[i] >= 0) {
+                i = (i + 1) & (capacity - 1);
+            }
+            keys[i] = oldKeys[j];
+            moves[i] = oldMoves[j];
+            weights[i] = oldWeights[j];
+            games[i] = oldGames[j];
+        }
+    }
+
+    private static int slot(long key, int move, int capacity) {
+        long h = (key ^ move * 0x9E3779B97F4A7C15L) * 0xBF58476D1CE4E5B9L;
+        return (int) (h >>> 32) & (capacity - 1);
+    }
+}
@@ -0,0 +1,354 @@
+package com.example.daniel;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Live game feed for spectators over TCP, one line per event:
+//   position <seq> <fen>        a new game, or a jump to another point of the game
+//   move <seq> <uci> <san>
+//   clock <seq> <whiteMillis> <blackMillis> <white|black|->
+//   eval <seq> <depth> cp <n> | mate <n> <nodes>    from white's side
+//   end <seq> <result> <motivo>
+// A spectator who joins late first receives "snapshot <seq> <fen>" with the latest clock, eval
+// and end lines, then every event after seq. One selector thread does all the networking:
+// publishers only queue the line, so a slow spectator can never hold up the game. Each
+// spectator's unsent output is capped, and one who falls that far behind is disconnected.
+final class Broadcast implements Closeable {
+    static final int DEFAULT_BUFFER_BYTES = 16 * 1024;
+
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final SelectionKey serverKey;
+    private final int bufferBytes;
+    private final Queue<Event> events = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean wakeupPending = new AtomicBoolean();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread thread;
+    private volatile int subscribers;
+    // Set once the selector thread has stopped; guarded by events
+    private boolean stopped;
+
+    // Catch-up state, only touched by the selector thread
+    private final List<Subscriber> connected = new ArrayList<>();
+    private long lastSeq;
+    private String fen = Fen.START;
+    private String lastClock;
+    private String lastEval;
+    private String lastEnd;
+    private boolean acceptPaused;
+
+    // Port 0 picks a free port
+    Broadcast(int port, int bufferBytes) throws IOException {
+        this.bufferBytes = bufferBytes;
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        try {
+            server.bind(new InetSocketAddress(port), 1024);
+            server.configureBlocking(false);
+            serverKey = server.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            server.close();
+            selector.close();
+            throw e;
+        }
+        thread = new Thread(this::loop, "chess-broadcast");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    int port() {
+        return server.socket().getLocalPort();
+    }
+
+    int subscribers() {
+        return subscribers;
+    }
+
+    // Spectators disconnected for falling behind
+    long dropped() {
+        return dropped.get();
+    }
+
+    // Events waiting for the selector thread
+    int queued() {
+        return events.size();
+    }
+
+    void position(Position pos) {
+        String fen = Fen.toFen(pos);
+        publish("position", fen, fen);
+    }
+
+    // fen is the position after the move
+    void move(int move, String san, String fen) {
+        publish("move", Moves.toUci(move) + " " + san, fen);
+    }
+
+    void clock(long whiteMillis, long blackMillis, int running) {
+        publish("clock", whiteMillis + " " + blackMillis + " "
+                + (running == Position.WHITE ? "white" : running == Position.BLACK ? "black" : "-"), null);
+    }
+
+    // whiteScore is from white's side
+    void eval(int depth, int whiteScore, long nodes) {
+        String score;
+        if (Math.abs(whiteScore) >= Search.MATE_BOUND) {
+            int plies = Search.MATE - Math.abs(whiteScore);
+            score = "mate " + (whiteScore > 0 ? (plies + 1) / 2 : -(plies / 2));
+        } else {
+            score = "cp " + whiteScore;
+        }
+        publish("eval", depth + " " + score + " " + nodes, null);
+    }
+
+    void end(String result, String reason) {
+        publish("end", result + " " + reason, null);
+    }
+
+    // Safe from any thread. Sequence numbers follow the order events are queued in.
+    private void publish(String type, String text, String fen) {
+        synchronized (events) {
+            // Nobody would ever drain the queue
+            if (stopped) {
+                return;
+            }
+            events.add(new Event(type, published.incrementAndGet(), text, fen));
+        }
+        // One wakeup covers every event queued before the selector thread drains the queue
+        if (wakeupPending.compareAndSet(false, true)) {
+            selector.wakeup();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        selector.close();
+        server.close();
+        try {
+            thread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void loop() {
+        ByteBuffer discard = ByteBuffer.allocate(256);
+        try {
+            while (selector.isOpen()) {
+                selector.select();
+                wakeupPending.set(false);
+                // Events first, so a spectator accepted now gets them in its snapshot
+                deliverQueued();
+                if (acceptPaused) {
+                    acceptPaused = false;
+                    serverKey.interestOps(SelectionKey.OP_ACCEPT);
+                }
+                for (SelectionKey key : selector.selectedKeys()) {
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        Subscriber subscriber = (Subscriber) key.attachment();
+                        if (key.isReadable()) {
+                            // Spectators only listen; reading just notices when they leave
+                            discard.clear();
+                            if (read(subscriber, discard) < 0) {
+                                drop(subscriber, false);
+                                continue;
+                            }
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            flush(subscriber);
+                        }
+                    }
+                }
+                selector.selectedKeys().clear();
+            }
+        } catch (ClosedSelectorException e) {
+            // close()
+        } catch (IOException e) {
+            System.err.println("Error en la retransmisión: " + e.getMessage());
+        } finally {
+            synchronized (events) {
+                stopped = true;
+                events.clear();
+            }
+            for (Subscriber subscriber : connected) {
+                closeQuietly(subscriber.channel);
+            }
+            connected.clear();
+            subscribers = 0;
+        }
+    }
+
+    // A failure only costs the spectator being accepted, never the feed
+    private void accept() {
+        while (true) {
+            SocketChannel channel;
+            try {
+                channel = server.accept();
+            } catch (IOException e) {
+                // Out of file descriptors, say: stop accepting until the next events arrive,
+                // rather than spinning on a connection that cannot be taken yet
+                System.err.println("Error al aceptar un espectador: " + e.getMessage());
+                serverKey.interestOps(0);
+                acceptPaused = true;
+                return;
+            }
+            if (channel == null) {
+                return;
+            }
+            Subscriber subscriber = new Subscriber(channel, ByteBuffer.allocateDirect(bufferBytes));
+            try {
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                subscriber.key = channel.register(selector, SelectionKey.OP_READ, subscriber);
+            } catch (IOException e) {
+                closeQuietly(channel);
+                continue;
+            }
+            connected.add(subscriber);
+            subscribers = connected.size();
+            // Everything a late joiner needs fits in a few lines, however long the game has been
+            enqueue(subscriber, line("snapshot", lastSeq, fen));
+            for (String state : new String[]{lastClock, lastEval, lastEnd}) {
+                if (state != null) {
+                    enqueue(subscriber, state.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            flush(subscriber);
+        }
+    }
+
+    private void deliverQueued() {
+        Event event;
+        while ((event = events.poll()) != null) {
+            String text = event.type + " " + event.seq + " " + event.text + "\n";
+            lastSeq = event.seq;
+            switch (event.type) {
+                case "position", "move" -> {
+                    fen = event.fen;
+                    lastEval = null;
+                    lastEnd = null;
+                }
+                case "clock" -> lastClock = text;
+                case "eval" -> lastEval = text;
+                case "end" -> lastEnd = text;
+                default -> {
+                }
+            }
+            // Encoded once; each spectator gets a copy in its own buffer
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            for (int i = connected.size() - 1; i >= 0; i--) {
+                Subscriber subscriber = connected.get(i);
+                if (enqueue(subscriber, bytes)) {
+                    flush(subscriber);
+                }
+            }
+        }
+    }
+
+    // False when the spectator was dropped for having no room left
+    private boolean enqueue(Subscriber subscriber, byte[] bytes) {
+        if (subscriber.out.remaining() < bytes.length) {
+            drop(subscriber, true);
+            return false;
+        }
+        subscriber.out.put(bytes);
+        return true;
+    }
+
+    private static byte[] line(String type, long seq, String text) {
+        return (type + " " + seq + " " + text + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Writes as much as the socket takes; the rest waits for OP_WRITE
+    private void flush(Subscriber subscriber) {
+        ByteBuffer out = subscriber.out;
+        out.flip();
+        try {
+            subscriber.channel.write(out);
+        } catch (IOException e) {
+            out.compact();
+            drop(subscriber, false);
+            return;
+        }
+        out.compact();
+        if (subscriber.key.isValid()) {
+            subscriber.key.interestOps(out.position() > 0
+                    ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+    }
+
+    private int read(Subscriber subscriber, ByteBuffer buffer) {
+        try {
+            return subscriber.channel.read(buffer);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private void drop(Subscriber subscriber, boolean slow) {
+        if (!connected.remove(subscriber)) {
+            return;
+        }
+        subscribers = connected.size();
+        if (slow) {
+            dropped.incrementAndGet();
+        }
+        subscriber.key.cancel();
+        closeQuietly(subscriber.channel);
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Already gone
+        }
+    }
+
+    private static final class Event {
+        final String type;
+        final long seq;
+        final String text;
+        // Position after a position or move event
+        final String fen;
+
+        Event(String type, long seq, String text, String fen) {
+            this.type = type;
+            this.seq = seq;
+            this.text = text;
+            this.fen = fen;
+        }
+    }
+
+    private static final class Subscriber {
+        final SocketChannel channel;
+        // Bytes not yet taken by the socket, in write mode between flushes
+        final ByteBuffer out;
+        SelectionKey key;
+
+        Subscriber(SocketChannel channel, ByteBuffer out) {
+            this.channel = channel;
+            this.out = out;
+        }
+    }
+}
@@ -4,30 +4,31 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
 import java.io.*;
-import java.util.Stack;
-import java.util.List;
-import java.util.ArrayList;
-import javax.sound.sampled.*;
+import java.util.Arrays;
 
 public class ChessBoard extends JFrame {
     private final int BOARD_SIZE = 8;
     private final int TILE_SIZE = 75;
-    private JLabel[][] boardSquares = new JLabel[BOARD_SIZE][BOARD_SIZE];
-    private ChessPiece[][] pieces = new ChessPiece[BOARD_SIZE][BOARD_SIZE];
+    private BoardPanel boardPanel;
+    private Position position = new Position();
+    // The game from its start position, including moves after the current one while browsing
+    private GameRecord record = new GameRecord(Position.startPosition());
     private Point selectedPiece = null;
     private GameStatus gameStatus;
-    private Stack<Move> moveHistory = new Stack<>();
     private JPanel capturedPiecesPanel;
     private MoveHistory moveHistoryPanel;
     private ChessTimer timer;
     private ScoreBoard scoreBoard;
     private boolean soundEnabled = true;
+    private SoundPlayer sounds;
     private ComputerPlayer computerPlayer;
     private boolean vsComputer = false;
     private Timer computerMoveTimer;
-    private List<Point> possibleMoves = new ArrayList<>();
-    private final Color HIGHLIGHT_COLOR = new Color(119, 185, 125, 128);
-    private final Color SELECTED_COLOR = new Color(255, 255, 0, 128);
+    private EngineWorker engine;
+    // Spectator feed, e.g. -Dchess.broadcast=7780; null when not enabled
+    private Broadcast broadcast;
+    private final int[] legalMoves = new int[MoveGen.MAX_MOVES];
+    private int legalMoveCount;
 
 
     public ChessBoard() {
@@ -41,17 +42,56 @@ public class ChessBoard extends JFrame {
         setupSidePanels();
         setupComputerMoveTimer();
 
-        JPanel mainPanel = new JPanel(new GridLayout(BOARD_SIZE, BOARD_SIZE));
-        setupBoard(mainPanel);
+        boardPanel = new BoardPanel(TILE_SIZE);
+        boardPanel.setSquareListener(this::handleSquareClick);
 
         gameStatus = new GameStatus();
-        add(mainPanel, BorderLayout.CENTER);
+        add(boardPanel, BorderLayout.CENTER);
         add(gameStatus, BorderLayout.SOUTH);
 
         computerPlayer = new ComputerPlayer(1);
+        computerPlayer.setClock(timer.getClock());
+        engine = new EngineWorker(computerPlayer, SwingUtilities::invokeLater);
+        sounds = new SoundPlayer();
+        openBroadcast();
+        // Runs before EXIT_ON_CLOSE exits, so audio lines and engine threads are released
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                engine.shutdown();
+                sounds.close();
+                closeBroadcast();
+            }
+        });
         initializePieces();
     }
 
+    private void openBroadcast() {
+        Integer port = Integer.getInteger("chess.broadcast");
+        if (port == null) {
+            return;
+        }
+        try {
+            broadcast = new Broadcast(port, Broadcast.DEFAULT_BUFFER_BYTES);
+        } catch (IOException e) {
+            System.err.println("Error al abrir la retransmisión: " + e.getMessage());
+            return;
+        }
+        ChessClock clock = timer.getClock();
+        timer.setClockListener(() -> broadcast.clock(clock.remainingMillis(Position.WHITE),
+                clock.remainingMillis(Position.BLACK), clock.runningColor()));
+    }
+
+    private void closeBroadcast() {
+        if (broadcast != null) {
+            try {
+                broadcast.close();
+            } catch (IOException e) {
+                System.err.println("Error al cerrar la retransmisión: " + e.getMessage());
+            }
+        }
+    }
+
     private void setupMenuBar() {
         JMenuBar menuBar = new JMenuBar();
 
@@ -62,12 +102,25 @@ public class ChessBoard extends JFrame {
         gameMenu.addSeparator();
         addMenuItem(gameMenu, "Guardar Partida", e -> saveGame());
         addMenuItem(gameMenu, "Cargar Partida", e -> loadGame());
+        addMenuItem(gameMenu, "Posición FEN...", e -> editFen());
 
         // Menú Opciones
         JMenu optionsMenu = new JMenu("Opciones");
         JCheckBoxMenuItem soundItem = new JCheckBoxMenuItem("Sonidos", true);
         soundItem.addActionListener(e -> soundEnabled = soundItem.isSelected());
         optionsMenu.add(soundItem);
+        addMenuItem(optionsMenu, "Libro de Aperturas...", e -> loadOpeningBook());
+        JMenu timeMenu = new JMenu("Control de Tiempo");
+        ButtonGroup timeGroup = new ButtonGroup();
+        for (ChessClock.TimeControl control : ChessClock.PRESETS) {
+            JRadioButtonMenuItem item = new JRadioButtonMenuItem(control.name, control == ChessClock.DEFAULT);
+            item.addActionListener(e -> setTimeControl(control));
+            timeGroup.add(item);
+            timeMenu.add(item);
+        }
+        optionsMenu.add(timeMenu);
+        optionsMenu.addSeparator();
+        addMenuItem(optionsMenu, "Métricas...", e -> showMetrics());
 
         // Menú Modo de Juego
         JMenu modeMenu = new JMenu("Modo de Juego");
@@ -117,6 +170,7 @@ public class ChessBoard extends JFrame {
 
         // Historial de movimientos
         moveHistoryPanel = new MoveHistory();
+        moveHistoryPanel.setPlyListener(this::jumpToPly);
         rightPanel.add(moveHistoryPanel);
 
         add(rightPanel, BorderLayout.EAST);
@@ -131,6 +185,19 @@ public class ChessBoard extends JFrame {
         menu.add(item);
     }
 
+    // Takes effect from a new game
+    private void setTimeControl(ChessClock.TimeControl control) {
+        timer.setTimeControl(control);
+        resetGame();
+    }
+
+    private void showMetrics() {
+        JTextArea text = new JTextArea(Metrics.text());
+        text.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        text.setEditable(false);
+        JOptionPane.showMessageDialog(this, new JScrollPane(text), "Métricas", JOptionPane.PLAIN_MESSAGE);
+    }
+
     private void setComputerMode(boolean enabled) {
         vsComputer = enabled;
         resetGame();
@@ -141,32 +208,14 @@ public class ChessBoard extends JFrame {
 
     private void playSound(String soundType) {
         if (!soundEnabled) return;
-        try {
-            String soundFile = switch (soundType) {
-                case "move" -> "/sounds/move.wav";
-                case "capture" -> "/sounds/capture.wav";
-                case "check" -> "/sounds/check.wav";
-                default -> "/sounds/move.wav";
-            };
-
-            AudioInputStream audioStream = AudioSystem.getAudioInputStream(
-                    getClass().getResource(soundFile));
-            Clip clip = AudioSystem.getClip();
-            clip.open(audioStream);
-            clip.start();
-        } catch (Exception e) {
-            System.err.println("Error al reproducir sonido: " + e.getMessage());
-        }
+        sounds.play(soundType);
     }
 
     private void saveGame() {
         JFileChooser fileChooser = new JFileChooser();
         if (fileChooser.showSaveDialog(this) == JFileChooser.APPROVE_OPTION) {
-            try (ObjectOutputStream out = new ObjectOutputStream(
-                    new FileOutputStream(fileChooser.getSelectedFile()))) {
-                GameState state = new GameState(pieces, moveHistory,
-                        gameStatus.isWhiteTurn(), timer.getWhiteTime(), timer.getBlackTime());
-                out.writeObject(state);
+            try {
+                GameFile.write(fileChooser.getSelectedFile().toPath(), toSavedGame());
                 JOptionPane.showMessageDialog(this, "Partida guardada correctamente");
             } catch (IOException e) {
                 JOptionPane.showMessageDialog(this, "Error al guardar la partida: " + e.getMessage());
@@ -177,13 +226,10 @@ public class ChessBoard extends JFrame {
     private void loadGame() {
         JFileChooser fileChooser = new JFileChooser();
         if (fileChooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
-            try (ObjectInputStream in = new ObjectInputStream(
-                    new FileInputStream(fileChooser.getSelectedFile()))) {
-                GameState state = (GameState) in.readObject();
-                pieces = state.getPieces();
-                moveHistory = state.getMoveHistory();
-                gameStatus.setTurn(state.isWhiteTurn());
-                timer.setTimes(state.getWhiteTime(), state.getBlackTime());
+            try {
+                SavedGame game = GameFile.read(fileChooser.getSelectedFile().toPath());
+                cancelComputerMove();
+                restoreGame(game);
                 updateAllSquares();
                 JOptionPane.showMessageDialog(this, "Partida cargada correctamente");
             } catch (Exception e) {
@@ -192,15 +238,48 @@ public class ChessBoard extends JFrame {
         }
     }
 
-    private void updateAllSquares() {
-        for (int row = 0; row < BOARD_SIZE; row++) {
-            for (int col = 0; col < BOARD_SIZE; col++) {
-                updateSquare(row, col);
-                resetSquareColor(row, col);
+    // Shows the current FEN; accepting a different one starts a new game from that position
+    private void editFen() {
+        String current = Fen.toFen(position);
+        Object input = JOptionPane.showInputDialog(this, "FEN de la posición:", "Posición FEN",
+                JOptionPane.PLAIN_MESSAGE, null, null, current);
+        if (input == null || input.toString().isBlank() || input.toString().strip().equals(current)) {
+            return;
+        }
+        try {
+            Position start = Fen.parse(input.toString());
+            cancelComputerMove();
+            gameStatus.reset();
+            timer.reset();
+            computerPlayer.newGame();
+            restoreGame(new SavedGame(start, new int[0], timer.getWhiteMillis(), timer.getBlackMillis()));
+            updateAllSquares();
+            if (vsComputer && !gameStatus.isWhiteTurn()) {
+                computerMoveTimer.start();
             }
+        } catch (Exception e) {
+            JOptionPane.showMessageDialog(this, "Error al cargar la posición: " + e.getMessage());
         }
     }
 
+    private void loadOpeningBook() {
+        JFileChooser fileChooser = new JFileChooser();
+        if (fileChooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
+            try {
+                OpeningBook book = OpeningBook.open(fileChooser.getSelectedFile().toPath());
+                computerPlayer.setBook(book);
+                JOptionPane.showMessageDialog(this, String.format("Libro cargado: %,d entradas", book.size()));
+            } catch (IOException e) {
+                JOptionPane.showMessageDialog(this, "Error al cargar el libro: " + e.getMessage());
+            }
+        }
+    }
+
+    private void updateAllSquares() {
+        boardPanel.clearHighlights();
+        boardPanel.setPosition(position);
+    }
+
     private void setupCapturedPiecesPanel() {
         capturedPiecesPanel = new JPanel();
         capturedPiecesPanel.setLayout(new FlowLayout());
@@ -208,34 +287,6 @@ public class ChessBoard extends JFrame {
         add(capturedPiecesPanel, BorderLayout.NORTH);
     }
 
-    private void setupBoard(JPanel mainPanel) {
-        for (int row = 0; row < BOARD_SIZE; row++) {
-            for (int col = 0; col < BOARD_SIZE; col++) {
-                boardSquares[row][col] = new JLabel();
-                boardSquares[row][col].setOpaque(true);
-                boardSquares[row][col].setHorizontalAlignment(JLabel.CENTER);
-                boardSquares[row][col].setFont(new Font("Segoe UI Symbol", Font.PLAIN, 48));
-
-                if ((row + col) % 2 == 0) {
-                    boardSquares[row][col].setBackground(new Color(240, 217, 181));
-                } else {
-                    boardSquares[row][col].setBackground(new Color(181, 136, 99));
-                }
-
-                final int r = row;
-                final int c = col;
-                boardSquares[row][col].addMouseListener(new MouseAdapter() {
-                    @Override
-                    public void mouseClicked(MouseEvent e) {
-                        handleSquareClick(r, c);
-                    }
-                });
-
-                mainPanel.add(boardSquares[row][col]);
-            }
-        }
-    }
-
     private void setupComputerMoveTimer() {
         computerMoveTimer = new Timer(500, e -> {
             if (vsComputer && !gameStatus.isWhiteTurn()) {
@@ -246,76 +297,57 @@ public class ChessBoard extends JFrame {
     }
 
     private void makeComputerMove() {
-        List<Point[]> possibleMoves = new ArrayList<>();
-
-        // Recopilar todos los movimientos posibles
-        for (int fromRow = 0; fromRow < BOARD_SIZE; fromRow++) {
-            for (int fromCol = 0; fromCol < BOARD_SIZE; fromCol++) {
-                if (pieces[fromRow][fromCol] != null && !pieces[fromRow][fromCol].isWhite()) {
-                    for (int toRow = 0; toRow < BOARD_SIZE; toRow++) {
-                        for (int toCol = 0; toCol < BOARD_SIZE; toCol++) {
-                            if (isValidMove(fromRow, fromCol, toRow, toCol) &&
-                                    isPathClear(fromRow, fromCol, toRow, toCol)) {
-                                Point[] move = new Point[] {
-                                    new Point(fromRow, fromCol),
-                                    new Point(toRow, toCol)
-                                };
-                                possibleMoves.add(move);
-                            }
-                        }
-                    }
-                }
-            }
-        }
-
-        if (!possibleMoves.isEmpty()) {
-            Point[] move = computerPlayer.selectMove(possibleMoves);
-            if (move != null) {
-                Point from = move[0];
-                Point to = move[1];
+        gameStatus.setThinking("Pensando...");
+        engine.think(position, this::showEngineProgress, this::playComputerMove);
+    }
 
-                ChessPiece capturedPiece = pieces[to.x][to.y];
-                ChessPiece movedPiece = pieces[from.x][from.y];
+    private void showEngineProgress(SearchResult progress) {
+        // The engine plays black; show the score from white's side
+        gameStatus.setThinking(String.format("Pensando: prof. %d, eval %s, %,d nodos",
+                progress.depth, formatScore(-progress.score), progress.nodes));
+        if (broadcast != null) {
+            broadcast.eval(progress.depth, -progress.score, progress.nodes);
+        }
+    }
 
-                moveHistory.push(new Move(from, to, movedPiece, capturedPiece));
-                movePiece(from.x, from.y, to.x, to.y);
+    private void playComputerMove(SearchResult result) {
+        gameStatus.setThinking(null);
+        if (vsComputer && !gameStatus.isWhiteTurn() && isLegal(result.bestMove)) {
+            makeMove(result.bestMove);
+        }
+    }
 
-                if (capturedPiece != null) {
-                    addCapturedPiece(capturedPiece);
-                    playSound("capture");
-                } else {
-                    playSound("move");
-                }
+    private void cancelComputerMove() {
+        computerMoveTimer.stop();
+        engine.cancel();
+        gameStatus.setThinking(null);
+    }
 
-                if (isInCheck(true)) {
-                    gameStatus.setCheck(true);
-                    playSound("check");
-                } else {
-                    gameStatus.setCheck(false);
-                }
+    private static String formatScore(int score) {
+        if (Math.abs(score) >= Search.MATE_BOUND) {
+            int plies = Search.MATE - Math.abs(score);
+            return (score > 0 ? "M" : "-M") + (plies + 1) / 2;
+        }
+        return String.format("%+.2f", score / 100.0);
+    }
 
-                gameStatus.toggleTurn();
+    private boolean isLegal(int move) {
+        for (int i = 0; i < legalMoveCount; i++) {
+            if (legalMoves[i] == move) {
+                return true;
             }
         }
+        return false;
     }
 
     private void initializePieces() {
-        // Initialize pawns
-        for (int col = 0; col < BOARD_SIZE; col++) {
-            pieces[1][col] = new ChessPiece("pawn", false);
-            pieces[6][col] = new ChessPiece("pawn", true);
-            updateSquare(1, col);
-            updateSquare(6, col);
-        }
-
-        // Initialize other pieces
-        String[] backRow = {"rook", "knight", "bishop", "queen", "king", "bishop", "knight", "rook"};
-        for (int col = 0; col < BOARD_SIZE; col++) {
-            pieces[0][col] = new ChessPiece(backRow[col], false);
-            pieces[7][col] = new ChessPiece(backRow[col], true);
-            updateSquare(0, col);
-            updateSquare(7, col);
+        record = new GameRecord(Position.startPosition());
+        position = Position.startPosition();
+        boardPanel.setPosition(position);
+        if (broadcast != null) {
+            broadcast.position(position);
         }
+        refreshLegalMoves();
     }
 
     private void handleSquareClick(int row, int col) {
@@ -324,236 +356,195 @@ public class ChessBoard extends JFrame {
         }
 
         if (selectedPiece == null) {
-            if (pieces[row][col] != null && pieces[row][col].isWhite() == gameStatus.isWhiteTurn()) {
+            ChessPiece piece = pieceAt(row, col);
+            if (piece != null && piece.isWhite() == gameStatus.isWhiteTurn()) {
                 selectedPiece = new Point(row, col);
-                boardSquares[row][col].setBackground(SELECTED_COLOR);
+                boardPanel.setSelected(row, col);
                 showPossibleMoves(row, col);
             }
         } else {
             int oldRow = (int) selectedPiece.getX();
             int oldCol = (int) selectedPiece.getY();
 
-            if (isValidMove(oldRow, oldCol, row, col) && isPathClear(oldRow, oldCol, row, col)) {
-                makeMove(oldRow, oldCol, row, col);
+            int move = findLegalMove(squareOf(oldRow, oldCol), squareOf(row, col));
+            if (move != Moves.NONE) {
+                makeMove(move);
                 if (vsComputer && !gameStatus.isWhiteTurn()) {
                     computerMoveTimer.start();
                 }
             }
 
-            clearHighlights();
+            boardPanel.clearHighlights();
             selectedPiece = null;
         }
     }
 
     private void showPossibleMoves(int fromRow, int fromCol) {
-        possibleMoves.clear();
-
-        for (int toRow = 0; toRow < BOARD_SIZE; toRow++) {
-            for (int toCol = 0; toCol < BOARD_SIZE; toCol++) {
-                if (isValidMove(fromRow, fromCol, toRow, toCol) &&
-                        isPathClear(fromRow, fromCol, toRow, toCol)) {
-                    possibleMoves.add(new Point(toRow, toCol));
-                    highlightSquare(toRow, toCol);
-                }
+        int from = squareOf(fromRow, fromCol);
+        for (int i = 0; i < legalMoveCount; i++) {
+            int move = legalMoves[i];
+            // Promotions share a target square, highlight it once
+            if (Moves.from(move) != from || Moves.isPromotion(move) && Moves.promotionType(move) != Position.QUEEN) {
+                continue;
             }
+            int to = Moves.to(move);
+            boardPanel.highlight(rowOf(to), colOf(to));
         }
     }
 
-    private void makeMove(int fromRow, int fromCol, int toRow, int toCol) {
-        ChessPiece capturedPiece = pieces[toRow][toCol];
-        ChessPiece movedPiece = pieces[fromRow][fromCol];
+    private void makeMove(int move) {
+        playMove(move, true);
+    }
 
-        moveHistory.push(new Move(
-                new Point(fromRow, fromCol),
-                new Point(toRow, toCol),
-                movedPiece,
-                capturedPiece
-        ));
+    // A move played over the board, or a quiet replay of a recorded one when jumping through the
+    // history: no sound, animation, clock or game-over message
+    private void playMove(int move, boolean live) {
+        ChessPiece capturedPiece = toChessPiece(GameRecord.capturedPiece(position, move));
+        String san = San.toSan(position, move);
+        moveHistoryPanel.addMove(move, san);
+        record.play(move);
 
-        movePiece(fromRow, fromCol, toRow, toCol);
+        position.makeMove(move);
+        if (broadcast != null) {
+            broadcast.move(move, san, Fen.toFen(position));
+        }
+        if (live) {
+            boardPanel.showMove(position, move);
+        }
 
         if (capturedPiece != null) {
             addCapturedPiece(capturedPiece);
-            playSound("capture");
-        } else {
-            playSound("move");
         }
-
-        if (isInCheck(!gameStatus.isWhiteTurn())) {
-            gameStatus.setCheck(true);
-            playSound("check");
-        } else {
-            gameStatus.setCheck(false);
+        boolean check = isInCheck(position.sideToMove() == Position.WHITE);
+        gameStatus.setCheck(check);
+        if (live) {
+            playSound(capturedPiece != null ? "capture" : "move");
+            if (check) {
+                playSound("check");
+            }
         }
 
         gameStatus.toggleTurn();
-    }
-
-    private void highlightSquare(int row, int col) {
-        JLabel square = boardSquares[row][col];
-        square.setOpaque(true);
-        square.setBackground(HIGHLIGHT_COLOR);
-    }
-
-    private void clearHighlights() {
-        for (Point move : possibleMoves) {
-            resetSquareColor((int)move.getX(), (int)move.getY());
-        }
-        if (selectedPiece != null) {
-            resetSquareColor((int)selectedPiece.getX(), (int)selectedPiece.getY());
+        refreshLegalMoves();
+        if (live) {
+            timer.moveMade(position.sideToMove());
+            if (legalMoveCount == 0) {
+                announceGameOver();
+            }
         }
-        possibleMoves.clear();
     }
 
-
-    private boolean isValidMove(int fromRow, int fromCol, int toRow, int toCol) {
-        ChessPiece piece = pieces[fromRow][fromCol];
-        ChessPiece targetPiece = pieces[toRow][toCol];
-
-        if (targetPiece != null && targetPiece.isWhite() == piece.isWhite()) {
-            return false;
+    // Steps back or forward through the recorded moves; any ply is reached by replaying a bounded
+    // number of moves from the record's nearest snapshot. The clock pauses while browsing and
+    // starts again with the next move played.
+    private void jumpToPly(int ply) {
+        cancelComputerMove();
+        boardPanel.clearHighlights();
+        selectedPiece = null;
+        timer.stopTimers();
+        record.seek(ply);
+        showRecordPosition();
+        if (vsComputer && !gameStatus.isWhiteTurn() && legalMoveCount > 0) {
+            computerMoveTimer.start();
         }
-
-        return switch (piece.getType().toLowerCase()) {
-            case "pawn" -> isValidPawnMove(fromRow, fromCol, toRow, toCol);
-            case "rook" -> isValidRookMove(fromRow, fromCol, toRow, toCol);
-            case "knight" -> isValidKnightMove(fromRow, fromCol, toRow, toCol);
-            case "bishop" -> isValidBishopMove(fromRow, fromCol, toRow, toCol);
-            case "queen" -> isValidQueenMove(fromRow, fromCol, toRow, toCol);
-            case "king" -> isValidKingMove(fromRow, fromCol, toRow, toCol);
-            default -> false;
-        };
     }
 
-    private boolean isValidPawnMove(int fromRow, int fromCol, int toRow, int toCol) {
-        boolean isWhite = pieces[fromRow][fromCol].isWhite();
-        int direction = isWhite ? -1 : 1;
-        int startRow = isWhite ? 6 : 1;
-
-        if (fromCol == toCol && toRow == fromRow + direction && pieces[toRow][toCol] == null) {
-            return true;
-        }
-
-        if (fromRow == startRow && fromCol == toCol &&
-                toRow == fromRow + (2 * direction) &&
-                pieces[toRow][toCol] == null &&
-                pieces[fromRow + direction][toCol] == null) {
-            return true;
+    // Board, captured pieces, score and status for the record's current ply, all derived from the
+    // record rather than adjusted move by move
+    private void showRecordPosition() {
+        int ply = record.cursor();
+        position.copyFrom(record.position());
+        boardPanel.setPosition(position);
+        if (broadcast != null) {
+            broadcast.position(position);
         }
+        moveHistoryPanel.setCurrentPly(ply);
 
-        if (Math.abs(fromCol - toCol) == 1 && toRow == fromRow + direction &&
-                pieces[toRow][toCol] != null &&
-                pieces[toRow][toCol].isWhite() != isWhite) {
-            return true;
+        capturedPiecesPanel.removeAll();
+        for (int piece : record.capturedBefore(ply)) {
+            addCapturedLabel(toChessPiece(piece));
         }
+        capturedPiecesPanel.revalidate();
+        capturedPiecesPanel.repaint();
+        scoreBoard.setScores(record.pointsBefore(Position.WHITE, ply), record.pointsBefore(Position.BLACK, ply));
 
-        return false;
-    }
-
-    private boolean isValidRookMove(int fromRow, int fromCol, int toRow, int toCol) {
-        return fromRow == toRow || fromCol == toCol;
-    }
-
-    private boolean isValidKnightMove(int fromRow, int fromCol, int toRow, int toCol) {
-        return (Math.abs(fromRow - toRow) == 2 && Math.abs(fromCol - toCol) == 1) ||
-                (Math.abs(fromRow - toRow) == 1 && Math.abs(fromCol - toCol) == 2);
+        gameStatus.setTurn(position.sideToMove() == Position.WHITE);
+        gameStatus.setCheck(isInCheck(position.sideToMove() == Position.WHITE));
+        refreshLegalMoves();
     }
 
-    private boolean isValidBishopMove(int fromRow, int fromCol, int toRow, int toCol) {
-        return Math.abs(fromRow - toRow) == Math.abs(fromCol - toCol);
+    private void refreshLegalMoves() {
+        legalMoveCount = MoveGen.generate(position, legalMoves, 0);
     }
 
-    private boolean isValidQueenMove(int fromRow, int fromCol, int toRow, int toCol) {
-        return isValidRookMove(fromRow, fromCol, toRow, toCol) ||
-                isValidBishopMove(fromRow, fromCol, toRow, toCol);
+    private int findLegalMove(int from, int to) {
+        int promotionType = -1;
+        for (int i = 0; i < legalMoveCount; i++) {
+            int move = legalMoves[i];
+            if (Moves.from(move) != from || Moves.to(move) != to) {
+                continue;
+            }
+            if (!Moves.isPromotion(move)) {
+                return move;
+            }
+            if (promotionType < 0) {
+                promotionType = choosePromotion();
+            }
+            if (Moves.promotionType(move) == promotionType) {
+                return move;
+            }
+        }
+        return Moves.NONE;
     }
 
-    private boolean isValidKingMove(int fromRow, int fromCol, int toRow, int toCol) {
-        return Math.abs(fromRow - toRow) <= 1 && Math.abs(fromCol - toCol) <= 1;
+    private int choosePromotion() {
+        String[] options = {"Dama", "Torre", "Alfil", "Caballo"};
+        int[] types = {Position.QUEEN, Position.ROOK, Position.BISHOP, Position.KNIGHT};
+        int choice = JOptionPane.showOptionDialog(this, "Elige la pieza para la promoción", "Promoción",
+                JOptionPane.DEFAULT_OPTION, JOptionPane.QUESTION_MESSAGE, null, options, options[0]);
+        return types[Math.max(choice, 0)];
     }
 
-    private boolean isPathClear(int fromRow, int fromCol, int toRow, int toCol) {
-        if (pieces[fromRow][fromCol].getType().equalsIgnoreCase("knight")) {
-            return true;
+    private void announceGameOver() {
+        timer.stopTimers();
+        String message;
+        boolean mate = position.isInCheck(position.sideToMove());
+        if (mate) {
+            message = "¡Jaque mate! Ganan las " + (position.sideToMove() == Position.WHITE ? "Negras" : "Blancas");
+        } else {
+            message = "Tablas por ahogado";
         }
-
-        int rowStep = Integer.compare(toRow - fromRow, 0);
-        int colStep = Integer.compare(toCol - fromCol, 0);
-
-        int currentRow = fromRow + rowStep;
-        int currentCol = fromCol + colStep;
-
-        while (currentRow != toRow || currentCol != toCol) {
-            if (pieces[currentRow][currentCol] != null) {
-                return false;
-            }
-            currentRow += rowStep;
-            currentCol += colStep;
+        if (broadcast != null) {
+            broadcast.end(mate ? (position.sideToMove() == Position.WHITE ? "0-1" : "1-0") : "1/2-1/2",
+                    mate ? "jaque_mate" : "ahogado");
         }
-        return true;
+        JOptionPane.showMessageDialog(this, message, "Fin del juego", JOptionPane.INFORMATION_MESSAGE);
     }
 
     private boolean isInCheck(boolean whiteKing) {
-        Point kingPos = findKing(whiteKing);
-        if (kingPos == null) return false;
-
-        for (int row = 0; row < BOARD_SIZE; row++) {
-            for (int col = 0; col < BOARD_SIZE; col++) {
-                ChessPiece piece = pieces[row][col];
-                if (piece != null && piece.isWhite() != whiteKing) {
-                    if (isValidMove(row, col, kingPos.x, kingPos.y) &&
-                            isPathClear(row, col, kingPos.x, kingPos.y)) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
+        return position.isInCheck(whiteKing ? Position.WHITE : Position.BLACK);
     }
 
-    private Point findKing(boolean isWhite) {
-        for (int row = 0; row < BOARD_SIZE; row++) {
-            for (int col = 0; col < BOARD_SIZE; col++) {
-                ChessPiece piece = pieces[row][col];
-                if (piece != null && piece.getType().equals("king") &&
-                        piece.isWhite() == isWhite) {
-                    return new Point(row, col);
-                }
-            }
-        }
-        return null;
-    }
+    private void addCapturedPiece(ChessPiece piece) {
+        addCapturedLabel(piece);
 
-    private void movePiece(int fromRow, int fromCol, int toRow, int toCol) {
-        pieces[toRow][toCol] = pieces[fromRow][fromCol];
-        pieces[fromRow][fromCol] = null;
-        updateSquare(toRow, toCol);
-        updateSquare(fromRow, fromCol);
+        // Agregar puntos basados en el tipo de pieza capturada
+        scoreBoard.addPoints(gameStatus.isWhiteTurn(), piece.getPiece().points());
     }
 
-    private void addCapturedPiece(ChessPiece piece) {
+    private void addCapturedLabel(ChessPiece piece) {
         JLabel pieceLabel = new JLabel(piece.getSymbol());
         pieceLabel.setFont(new Font("Segoe UI Symbol", Font.PLAIN, 24));
         capturedPiecesPanel.add(pieceLabel);
         capturedPiecesPanel.revalidate();
-
-        // Agregar puntos basados en el tipo de pieza capturada
-        int points = switch (piece.getType().toLowerCase()) {
-            case "queen" -> 9;
-            case "rook" -> 5;
-            case "bishop", "knight" -> 3;
-            case "pawn" -> 1;
-            default -> 0;
-        };
-        scoreBoard.addPoints(gameStatus.isWhiteTurn(), points);
     }
 
     private void resetGame() {
+        cancelComputerMove();
+
         // Reset game state
-        pieces = new ChessPiece[BOARD_SIZE][BOARD_SIZE];
-        moveHistory.clear();
+        moveHistoryPanel.clear();
         selectedPiece = null;
-        possibleMoves.clear();
 
         // Reset UI components
         capturedPiecesPanel.removeAll();
@@ -562,14 +553,7 @@ public class ChessBoard extends JFrame {
         scoreBoard.reset();
         gameStatus.reset();
         timer.reset();
-
-        // Reset board colors and pieces
-        for (int row = 0; row < BOARD_SIZE; row++) {
-            for (int col = 0; col < BOARD_SIZE; col++) {
-                resetSquareColor(row, col);
-                boardSquares[row][col].setText("");
-            }
-        }
+        computerPlayer.newGame();
 
         // Initialize new pieces
         initializePieces();
@@ -584,41 +568,72 @@ public class ChessBoard extends JFrame {
 
 
     private void undoLastMove() {
-        if (!moveHistory.isEmpty()) {
-            Move lastMove = moveHistory.pop();
-            Point from = lastMove.getFrom();
-            Point to = lastMove.getTo();
+        cancelComputerMove();
+        if (record.back()) {
+            record.truncate(record.cursor());
+            moveHistoryPanel.removeLast();
+            boardPanel.clearHighlights();
+            selectedPiece = null;
+            showRecordPosition();
+            timer.moveUndone(position.sideToMove());
+        }
+    }
 
-            pieces[from.x][from.y] = lastMove.getMovedPiece();
-            pieces[to.x][to.y] = lastMove.getCapturedPiece();
+    // Row 0 is the black back rank on screen, rank 8 on the bitboards
+    private static int squareOf(int row, int col) {
+        return Bitboards.square(col, 7 - row);
+    }
 
-            updateSquare(from.x, from.y);
-            updateSquare(to.x, to.y);
+    private static int rowOf(int square) {
+        return 7 - Bitboards.rank(square);
+    }
 
-            if (lastMove.getCapturedPiece() != null) {
-                capturedPiecesPanel.remove(capturedPiecesPanel.getComponentCount() - 1);
-                capturedPiecesPanel.revalidate();
-                capturedPiecesPanel.repaint();
-            }
+    private static int colOf(int square) {
+        return Bitboards.file(square);
+    }
 
-            gameStatus.toggleTurn();
-            gameStatus.setCheck(false);
-        }
+    private ChessPiece pieceAt(int row, int col) {
+        return toChessPiece(position.pieceAt(squareOf(row, col)));
     }
 
-    private void updateSquare(int row, int col) {
-        if (pieces[row][col] != null) {
-            boardSquares[row][col].setText(pieces[row][col].getSymbol());
-        } else {
-            boardSquares[row][col].setText("");
-        }
+    private static ChessPiece toChessPiece(int piece) {
+        return ChessPiece.of(piece);
     }
 
-    private void resetSquareColor(int row, int col) {
-        if ((row + col) % 2 == 0) {
-            boardSquares[row][col].setBackground(new Color(240, 217, 181));
-        } else {
-            boardSquares[row][col].setBackground(new Color(181, 136, 99));
+    // The game up to the move on the board; moves after it while browsing are not saved
+    private SavedGame toSavedGame() {
+        int ply = record.cursor();
+        return new SavedGame(record.start(), Arrays.copyOf(record.moves(), ply), timer.getWhiteMillis(),
+                timer.getBlackMillis());
+    }
+
+    // Replays the saved moves through the move generator so castling, en passant and undo keep working
+    private void restoreGame(SavedGame game) throws IOException {
+        Position replay = new Position();
+        replay.copyFrom(game.start);
+        String[] sans = new String[game.moves.length];
+        int[] buffer = new int[MoveGen.MAX_MOVES];
+        for (int ply = 0; ply < game.moves.length; ply++) {
+            int move = game.moves[ply];
+            int count = MoveGen.generate(replay, buffer, 0);
+            boolean legal = false;
+            for (int i = 0; i < count && !legal; i++) {
+                legal = buffer[i] == move;
+            }
+            if (!legal) {
+                throw new IOException("Movimiento inválido en la partida guardada: " + Moves.toUci(move));
+            }
+            sans[ply] = San.toSan(replay, move);
+            replay.makeMove(move);
         }
+
+        record = GameRecord.of(game.start, game.moves);
+        moveHistoryPanel.setMoves(game.start, game.moves, sans);
+        selectedPiece = null;
+        // Captured pieces and scores are recomputed from the moves
+        showRecordPosition();
+        // The clock starts again with the next move
+        timer.stopTimers();
+        timer.setTimes(game.whiteMillis, game.blackMillis);
     }
-}
\ No newline at end of file
+}
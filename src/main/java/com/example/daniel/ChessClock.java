@@ -0,0 +1,158 @@
+package com.example.daniel;
+
+import java.util.function.LongSupplier;
+
+// Two-sided game clock kept in nanoseconds from System.nanoTime. Time is only charged when a turn
+// ends or the clock is read, as the difference between two readings, so timer delays and display
+// refreshes never lose or gain time. Thread-safe: the engine reads it while the EDT presses it.
+class ChessClock {
+    public enum Increment {
+        // Added after every move
+        FISCHER,
+        // Gives back the time used on the move, up to the increment
+        BRONSTEIN
+    }
+
+    public static final class TimeControl {
+        public final String name;
+        public final long baseMillis;
+        public final long incrementMillis;
+        public final Increment increment;
+
+        public TimeControl(String name, long baseMillis, long incrementMillis, Increment increment) {
+            if (baseMillis <= 0 || incrementMillis < 0) {
+                throw new IllegalArgumentException("Control de tiempo inválido: " + baseMillis + "+" + incrementMillis);
+            }
+            this.name = name;
+            this.baseMillis = baseMillis;
+            this.incrementMillis = incrementMillis;
+            this.increment = increment;
+        }
+
+        static TimeControl minutes(String name, int minutes, int incrementSeconds, Increment increment) {
+            return new TimeControl(name, minutes * 60_000L, incrementSeconds * 1000L, increment);
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    static final TimeControl[] PRESETS = {
+            TimeControl.minutes("Bala 1+0", 1, 0, Increment.FISCHER),
+            TimeControl.minutes("Bala 2+1", 2, 1, Increment.FISCHER),
+            TimeControl.minutes("Relámpago 3+2", 3, 2, Increment.FISCHER),
+            TimeControl.minutes("Relámpago 5+3 Bronstein", 5, 3, Increment.BRONSTEIN),
+            TimeControl.minutes("Rápida 10+0", 10, 0, Increment.FISCHER),
+            TimeControl.minutes("Rápida 15+10", 15, 10, Increment.FISCHER),
+            TimeControl.minutes("Clásica 30+0", 30, 0, Increment.FISCHER)
+    };
+    static final TimeControl DEFAULT = PRESETS[4];
+
+    private final LongSupplier nanoTime;
+    private TimeControl control;
+    private final long[] remaining = new long[2];
+    // Colour whose time is running, or -1
+    private int running = -1;
+    private long turnStart;
+
+    public ChessClock(TimeControl control) {
+        this(control, System::nanoTime);
+    }
+
+    ChessClock(TimeControl control, LongSupplier nanoTime) {
+        this.nanoTime = nanoTime;
+        reset(control);
+    }
+
+    public synchronized void reset(TimeControl control) {
+        this.control = control;
+        running = -1;
+        remaining[Position.WHITE] = control.baseMillis * 1_000_000L;
+        remaining[Position.BLACK] = control.baseMillis * 1_000_000L;
+    }
+
+    public synchronized TimeControl timeControl() {
+        return control;
+    }
+
+    // Starts color's time without charging anyone, e.g. for the first move of a game
+    public synchronized void start(int color) {
+        running = color;
+        turnStart = nanoTime.getAsLong();
+    }
+
+    // The running side completes its move: its time is charged, the increment added, and the
+    // opponent's time starts. Ignored when stopped or after the running side's flag has fallen.
+    public synchronized void press() {
+        if (running < 0) {
+            return;
+        }
+        long now = nanoTime.getAsLong();
+        long used = now - turnStart;
+        remaining[running] -= used;
+        if (remaining[running] <= 0) {
+            remaining[running] = 0;
+            running = -1;
+            return;
+        }
+        long increment = control.incrementMillis * 1_000_000L;
+        remaining[running] += control.increment == Increment.BRONSTEIN ? Math.min(increment, used) : increment;
+        running ^= 1;
+        turnStart = now;
+    }
+
+    // Hands the move to color without an increment, as after taking a move back
+    public synchronized void switchTo(int color) {
+        if (running >= 0 && running != color) {
+            charge();
+            running = color;
+        }
+    }
+
+    public synchronized void stop() {
+        if (running >= 0) {
+            charge();
+            running = -1;
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return running >= 0;
+    }
+
+    public synchronized int runningColor() {
+        return running;
+    }
+
+    // Live remaining time, never negative
+    public synchronized long remainingNanos(int color) {
+        long left = remaining[color];
+        if (color == running) {
+            left -= nanoTime.getAsLong() - turnStart;
+        }
+        return Math.max(0, left);
+    }
+
+    public long remainingMillis(int color) {
+        return remainingNanos(color) / 1_000_000L;
+    }
+
+    public synchronized void setRemainingMillis(int color, long millis) {
+        remaining[color] = Math.max(0, millis) * 1_000_000L;
+        if (color == running) {
+            turnStart = nanoTime.getAsLong();
+        }
+    }
+
+    public boolean isFlagged(int color) {
+        return remainingNanos(color) == 0;
+    }
+
+    private void charge() {
+        long now = nanoTime.getAsLong();
+        remaining[running] = Math.max(0, remaining[running] - (now - turnStart));
+        turnStart = now;
+    }
+}
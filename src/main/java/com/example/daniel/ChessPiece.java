@@ -1,14 +1,43 @@
 package com.example.daniel;
 
+import java.io.InvalidObjectException;
+import java.io.ObjectStreamException;
 import java.io.Serializable;
 
+// One shared instance per piece. The serialized form keeps the original type name and colour
+// fields so games saved by earlier versions still load.
 public class ChessPiece implements Serializable {
-    private String type;
-    private boolean isWhite;
+    private static final long serialVersionUID = 8712947872490117367L;
 
-    public ChessPiece(String type, boolean isWhite) {
-        this.type = type;
-        this.isWhite = isWhite;
+    private static final ChessPiece[] INSTANCES = new ChessPiece[Piece.values().length];
+
+    static {
+        for (Piece piece : Piece.values()) {
+            INSTANCES[piece.code()] = new ChessPiece(piece);
+        }
+    }
+
+    private final String type;
+    private final boolean isWhite;
+    private final transient Piece piece;
+
+    private ChessPiece(Piece piece) {
+        this.type = piece.pieceName();
+        this.isWhite = piece.isWhite();
+        this.piece = piece;
+    }
+
+    public static ChessPiece of(Piece piece) {
+        return piece == null ? null : INSTANCES[piece.code()];
+    }
+
+    // Position piece code, or null for Position.NO_PIECE
+    public static ChessPiece of(int code) {
+        return of(Piece.of(code));
+    }
+
+    public Piece getPiece() {
+        return piece;
     }
 
     public String getType() {
@@ -20,14 +49,15 @@ public class ChessPiece implements Serializable {
     }
 
     public String getSymbol() {
-        return switch (type.toLowerCase()) {
-            case "king" -> isWhite ? "♔" : "♚";
-            case "queen" -> isWhite ? "♕" : "♛";
-            case "rook" -> isWhite ? "♖" : "♜";
-            case "bishop" -> isWhite ? "♗" : "♝";
-            case "knight" -> isWhite ? "♘" : "♞";
-            case "pawn" -> isWhite ? "♙" : "♟";
-            default -> "";
-        };
-    }
-}
\ No newline at end of file
+        return piece.symbol();
+    }
+
+    // Swap deserialized copies for the shared instance
+    private Object readResolve() throws ObjectStreamException {
+        Piece resolved = Piece.fromName(type, isWhite);
+        if (resolved == null) {
+            throw new InvalidObjectException("Pieza desconocida: " + type);
+        }
+        return INSTANCES[resolved.code()];
+    }
+}
@@ -3,96 +3,134 @@ package com.example.daniel;
 import javax.swing.*;
 import java.awt.*;
 
+// Shows a ChessClock. The refresh timer only reads the clock, so its rate and any EDT delay have
+// no effect on the times kept.
 public class ChessTimer extends JPanel {
-    private static final int INITIAL_TIME = 600; // 10 minutos
+    private static final int REFRESH_MILLIS = 100;
+    // Tenths of a second are shown below this
+    private static final long TENTHS_BELOW_MILLIS = 20_000;
+
+    private final ChessClock clock = new ChessClock(ChessClock.DEFAULT);
     private JLabel whiteTimeLabel;
     private JLabel blackTimeLabel;
-    private Timer whiteTimer;
-    private Timer blackTimer;
-    private int whiteSeconds;
-    private int blackSeconds;
+    private Timer refreshTimer;
+    private boolean timeUpShown;
+    private Runnable clockListener;
 
     public ChessTimer() {
         setLayout(new GridLayout(2, 1));
         setBorder(BorderFactory.createTitledBorder("Tiempo"));
 
-        whiteTimeLabel = new JLabel("Blancas: 10:00");
-        blackTimeLabel = new JLabel("Negras: 10:00");
+        whiteTimeLabel = new JLabel();
+        blackTimeLabel = new JLabel();
 
         add(whiteTimeLabel);
         add(blackTimeLabel);
 
-        setupTimers();
+        refreshTimer = new Timer(REFRESH_MILLIS, e -> refresh());
         resetTime();
     }
 
-    private void setupTimers() {
-        whiteTimer = new Timer(1000, e -> updateWhiteTime());
-        blackTimer = new Timer(1000, e -> updateBlackTime());
+    public ChessClock getClock() {
+        return clock;
+    }
+
+    // Runs on the EDT whenever the displayed times change, at most once per refresh
+    public void setClockListener(Runnable listener) {
+        this.clockListener = listener;
+    }
+
+    public void setTimeControl(ChessClock.TimeControl control) {
+        refreshTimer.stop();
+        clock.reset(control);
+        resetTime();
     }
 
     private void resetTime() {
-        whiteSeconds = INITIAL_TIME;
-        blackSeconds = INITIAL_TIME;
+        clock.reset(clock.timeControl());
+        timeUpShown = false;
         updateLabels();
     }
 
-    public void startTimers() {
-        whiteTimer.start();
+    public void startTimers(int color) {
+        clock.start(color);
+        refreshTimer.start();
     }
 
     public void stopTimers() {
-        if (whiteTimer != null) whiteTimer.stop();
-        if (blackTimer != null) blackTimer.stop();
+        clock.stop();
+        refreshTimer.stop();
+        updateLabels();
     }
 
-    public void toggleTimers() {
-        if (whiteTimer.isRunning()) {
-            whiteTimer.stop();
-            blackTimer.start();
+    // Called after each move with the side now to move; the first move of a game starts the clock
+    public void moveMade(int sideToMove) {
+        if (timeUpShown) {
+            return;
+        }
+        if (clock.isRunning()) {
+            clock.press();
         } else {
-            blackTimer.stop();
-            whiteTimer.start();
+            startTimers(sideToMove);
         }
+        refresh();
     }
 
-    public void setTimes(int whiteTime, int blackTime) {
-        this.whiteSeconds = whiteTime;
-        this.blackSeconds = blackTime;
+    // After a take-back the clock runs for the side to move again, without an increment
+    public void moveUndone(int sideToMove) {
+        clock.switchTo(sideToMove);
         updateLabels();
     }
 
-    public int getWhiteTime() {
-        return whiteSeconds;
+    public void setTimes(long whiteMillis, long blackMillis) {
+        clock.setRemainingMillis(Position.WHITE, whiteMillis);
+        clock.setRemainingMillis(Position.BLACK, blackMillis);
+        timeUpShown = false;
+        updateLabels();
     }
 
-    public int getBlackTime() {
-        return blackSeconds;
+    // Saved games keep the exact remaining time, so saving and loading cannot gain or lose any
+    public int getWhiteMillis() {
+        return (int) Math.min(Integer.MAX_VALUE, clock.remainingMillis(Position.WHITE));
     }
 
-    private void updateWhiteTime() {
-        if (whiteSeconds > 0) {
-            whiteSeconds--;
-            updateLabels();
-            if (whiteSeconds == 0) {
-                timeUp(true);
-            }
-        }
+    public int getBlackMillis() {
+        return (int) Math.min(Integer.MAX_VALUE, clock.remainingMillis(Position.BLACK));
     }
 
-    private void updateBlackTime() {
-        if (blackSeconds > 0) {
-            blackSeconds--;
-            updateLabels();
-            if (blackSeconds == 0) {
-                timeUp(false);
+    private void refresh() {
+        updateLabels();
+        for (int color = Position.WHITE; color <= Position.BLACK; color++) {
+            if (clock.isFlagged(color) && !timeUpShown) {
+                timeUpShown = true;
+                timeUp(color == Position.WHITE);
             }
         }
     }
 
     private void updateLabels() {
-        whiteTimeLabel.setText(String.format("Blancas: %02d:%02d", whiteSeconds / 60, whiteSeconds % 60));
-        blackTimeLabel.setText(String.format("Negras: %02d:%02d", blackSeconds / 60, blackSeconds % 60));
+        boolean changed = setIfChanged(whiteTimeLabel, "Blancas: " + format(clock.remainingMillis(Position.WHITE)));
+        changed |= setIfChanged(blackTimeLabel, "Negras: " + format(clock.remainingMillis(Position.BLACK)));
+        if (changed && clockListener != null) {
+            clockListener.run();
+        }
+    }
+
+    // Most refreshes change nothing visible; skip the relayout they would cause
+    private static boolean setIfChanged(JLabel label, String text) {
+        if (text.equals(label.getText())) {
+            return false;
+        }
+        label.setText(text);
+        return true;
+    }
+
+    private static String format(long millis) {
+        long seconds = millis / 1000;
+        if (millis < TENTHS_BELOW_MILLIS) {
+            return String.format("%02d:%02d.%d", seconds / 60, seconds % 60, millis % 1000 / 100);
+        }
+        return String.format("%02d:%02d", seconds / 60, seconds % 60);
     }
 
     private void timeUp(boolean whiteTimerUp) {
@@ -108,4 +146,4 @@ public class ChessTimer extends JPanel {
         stopTimers();
         resetTime();
     }
-}
\ No newline at end of file
+}
@@ -1,27 +1,149 @@
 package com.example.daniel;
 
-import java.awt.Point;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Random;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
 
 class ComputerPlayer {
+    // Fácil, Medio, Difícil
+    private static final int[] MAX_DEPTH = {2, 6, Search.MAX_PLY};
+    private static final long[] TIME_MILLIS = {250, 1000, 3000};
+    // Transposition table size, e.g. -Dchess.hash=256
+    private static final int HASH_MEGABYTES = Integer.getInteger("chess.hash", 64);
+    // Search threads, e.g. -Dchess.threads=1 to keep the engine on a single core
+    private static final int THREADS = Integer.getInteger("chess.threads", Runtime.getRuntime().availableProcessors());
+    // Opening book played before searching, e.g. -Dchess.book=libro.bin
+    private static final String BOOK = System.getProperty("chess.book");
+    // Directory of endgame tables from TablebaseGenerator, e.g. -Dchess.tb=tablas
+    private static final String TABLEBASES = System.getProperty("chess.tb");
+
     private int difficulty;
-    private Random random;
+    private final TranspositionTable transpositionTable = new TranspositionTable(HASH_MEGABYTES);
+    private final SearchPool search = new SearchPool(transpositionTable, THREADS);
+    private volatile SearchResult lastResult;
+    private volatile OpeningBook book;
+    private Tablebases tablebases;
+    private volatile ChessClock clock;
 
     public ComputerPlayer(int difficulty) {
-        this.difficulty = difficulty;
-        this.random = new Random();
+        setDifficulty(difficulty);
+        if (BOOK != null) {
+            try {
+                book = OpeningBook.open(Path.of(BOOK));
+            } catch (IOException e) {
+                System.err.println("Error al abrir el libro de aperturas: " + e.getMessage());
+            }
+        }
+        if (TABLEBASES != null) {
+            try {
+                setTablebases(Tablebases.open(Path.of(TABLEBASES)));
+            } catch (IOException e) {
+                System.err.println("Error al abrir las tablas de finales: " + e.getMessage());
+            }
+        }
     }
 
     public void setDifficulty(int difficulty) {
-        this.difficulty = difficulty;
+        this.difficulty = Math.max(1, Math.min(difficulty, MAX_DEPTH.length));
+    }
+
+    public void setThreads(int threads) {
+        search.setThreads(threads);
+    }
+
+    public int getThreads() {
+        return search.threads();
+    }
+
+    public SearchLimits getLimits() {
+        return new SearchLimits(MAX_DEPTH[difficulty - 1], 0, TIME_MILLIS[difficulty - 1]);
+    }
+
+    // The difficulty's limits, shortened when color's clock cannot afford them
+    public SearchLimits getLimits(int color) {
+        SearchLimits limits = getLimits();
+        ChessClock clock = this.clock;
+        if (clock == null || clock.runningColor() != color) {
+            return limits;
+        }
+        SearchLimits budget = SearchLimits.clock(clock.remainingMillis(color),
+                clock.timeControl().incrementMillis, 0);
+        return budget.timeMillis < limits.timeMillis
+                ? new SearchLimits(limits.depth, limits.nodes, budget.timeMillis) : limits;
+    }
+
+    // Clock read for time management; null searches with the difficulty's fixed limits
+    public void setClock(ChessClock clock) {
+        this.clock = clock;
+    }
+
+    public int selectMove(Position position) {
+        return selectMove(position, null).bestMove;
+    }
+
+    public SearchResult selectMove(Position position, SearchListener listener) {
+        OpeningBook book = this.book;
+        if (book != null) {
+            int move = book.probe(position, ThreadLocalRandom.current());
+            if (move != Moves.NONE) {
+                lastResult = new SearchResult(move, 0, 0, 0, 0);
+                return lastResult;
+            }
+        }
+        lastResult = search.search(position, getLimits(position.sideToMove()), listener);
+        return lastResult;
     }
 
-    public Point[] selectMove(List<Point[]> possibleMoves) {
-        if (possibleMoves.isEmpty()) {
-            return null;
+    // Safe to call from any thread; the running search returns its best move so far
+    public void stop() {
+        search.stop();
+    }
+
+    // Replaces the current book, if any; null plays without one
+    public void setBook(OpeningBook book) {
+        OpeningBook old = this.book;
+        this.book = book;
+        closeBook(old);
+    }
+
+    public OpeningBook getBook() {
+        return book;
+    }
+
+    // Must not be called while the engine is thinking
+    public void setTablebases(Tablebases tablebases) {
+        this.tablebases = tablebases;
+        search.setTablebases(tablebases);
+    }
+
+    public void shutdown() {
+        search.shutdown();
+        closeBook(book);
+        if (tablebases != null) {
+            try {
+                tablebases.close();
+            } catch (IOException e) {
+                System.err.println("Error al cerrar las tablas de finales: " + e.getMessage());
+            }
+        }
+    }
+
+    // The mapping stays valid until collected, so a probe already running on the old book still completes
+    private static void closeBook(OpeningBook book) {
+        if (book != null) {
+            try {
+                book.close();
+            } catch (IOException e) {
+                System.err.println("Error al cerrar el libro de aperturas: " + e.getMessage());
+            }
         }
-        return possibleMoves.get(random.nextInt(possibleMoves.size()));
+    }
+
+    public void newGame() {
+        transpositionTable.clear();
+    }
+
+    public SearchResult getLastResult() {
+        return lastResult;
     }
 }
\ No newline at end of file
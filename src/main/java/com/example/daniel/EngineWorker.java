@@ -0,0 +1,99 @@
+package com.example.daniel;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Runs ComputerPlayer searches on a dedicated thread and hands results to the callback executor
+class EngineWorker {
+    private final ComputerPlayer player;
+    private final Executor callbackExecutor;
+    private final ExecutorService executor;
+    private Job current;
+
+    public EngineWorker(ComputerPlayer player, Executor callbackExecutor) {
+        this.player = player;
+        this.callbackExecutor = callbackExecutor;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "chess-engine");
+            thread.setDaemon(true);
+            // Leave headroom for the event dispatch thread
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+    }
+
+    // Must be called from the callback executor's thread, like cancel()
+    public void think(Position position, Consumer<SearchResult> onProgress, Consumer<SearchResult> onMove) {
+        cancel();
+        Position snapshot = new Position();
+        snapshot.copyFrom(position);
+        Job job = new Job();
+        current = job;
+        job.future = executor.submit(() -> {
+            try {
+                if (job.cancelled) {
+                    return;
+                }
+                SearchResult result = player.selectMove(snapshot,
+                        progress -> callbackExecutor.execute(() -> {
+                            if (!job.cancelled) {
+                                onProgress.accept(progress);
+                            }
+                        }));
+                callbackExecutor.execute(() -> {
+                    if (!job.cancelled) {
+                        current = null;
+                        onMove.accept(result);
+                    }
+                });
+            } finally {
+                job.done.countDown();
+            }
+        });
+    }
+
+    public void cancel() {
+        Job job = current;
+        if (job == null) {
+            return;
+        }
+        current = null;
+        job.cancelled = true;
+        if (!job.future.cancel(false)) {
+            stopUntilDone(job);
+        }
+    }
+
+    // A search that had not started yet (still in the book or tablebase probe) resets its stop
+    // flag, so keep signalling until the job returns; the next think must not queue behind it
+    private void stopUntilDone(Job job) {
+        try {
+            do {
+                player.stop();
+            } while (!job.done.await(1, TimeUnit.MILLISECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean isThinking() {
+        return current != null;
+    }
+
+    public void shutdown() {
+        cancel();
+        executor.shutdownNow();
+        player.shutdown();
+    }
+
+    private static class Job {
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile boolean cancelled;
+        Future<?> future;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,287 @@
+package com.example.daniel;
+
+import java.util.Arrays;
+
+import static com.example.daniel.Bitboards.*;
+import static com.example.daniel.Position.*;
+
+// Tapered evaluation: material and piece-square terms kept incrementally by Position,
+// pawn structure cached by pawn key and king safety computed per call.
+// One instance per search thread, the pawn cache is not shared.
+final class Evaluator {
+    static final int MAX_PHASE = 24;
+    static final int[] PHASE = {0, 1, 1, 2, 4, 0};
+
+    // Material and piece-square values per piece code and square, white's point of view
+    static final int[][] MG = new int[12][64];
+    static final int[][] EG = new int[12][64];
+
+    private static final int TEMPO = 10;
+
+    private static final int[] MG_VALUE = {82, 337, 365, 477, 1025, 0};
+    private static final int[] EG_VALUE = {94, 281, 297, 512, 936, 0};
+
+    // Tables list rank 8 first as seen from white, so white squares index them with sq ^ 56
+    private static final int[][] MG_TABLE = {
+            {
+                    0, 0, 0, 0, 0, 0, 0, 0,
+                    98, 134, 61, 95, 68, 126, 34, -11,
+                    -6, 7, 26, 31, 65, 56, 25, -20,
+                    -14, 13, 6, 21, 23, 12, 17, -23,
+                    -27, -2, -5, 12, 17, 6, 10, -25,
+                    -26, -4, -4, -10, 3, 3, 33, -12,
+                    -35, -1, -20, -23, -15, 24, 38, -22,
+                    0, 0, 0, 0, 0, 0, 0, 0
+            }, {
+                    -167, -89, -34, -49, 61, -97, -15, -107,
+                    -73, -41, 72, 36, 23, 62, 7, -17,
+                    -47, 60, 37, 65, 84, 129, 73, 44,
+                    -9, 17, 19, 53, 37, 69, 18, 22,
+                    -13, 4, 16, 13, 28, 19, 21, -8,
+                    -23, -9, 12, 10, 19, 17, 25, -16,
+                    -29, -53, -12, -3, -1, 18, -14, -19,
+                    -105, -21, -58, -33, -17, -28, -19, -23
+            }, {
+                    -29, 4, -82, -37, -25, -42, 7, -8,
+                    -26, 16, -18, -13, 30, 59, 18, -47,
+                    -16, 37, 43, 40, 35, 50, 37, -2,
+                    -4, 5, 19, 50, 37, 37, 7, -2,
+                    -6, 13, 13, 26, 34, 12, 10, 4,
+                    0, 15, 15, 15, 14, 27, 18, 10,
+                    4, 15, 16, 0, 7, 21, 33, 1,
+                    -33, -3, -14, -21, -13, -12, -39, -21
+            }, {
+                    32, 42, 32, 51, 63, 9, 31, 43,
+                    27, 32, 58, 62, 80, 67, 26, 44,
+                    -5, 19, 26, 36, 17, 45, 61, 16,
+                    -24, -11, 7, 26, 24, 35, -8, -20,
+                    -36, -26, -12, -1, 9, -7, 6, -23,
+                    -45, -25, -16, -17, 3, 0, -5, -33,
+                    -44, -16, -20, -9, -1, 11, -6, -71,
+                    -19, -13, 1, 17, 16, 7, -37, -26
+            }, {
+                    -28, 0, 29, 12, 59, 44, 43, 45,
+                    -24, -39, -5, 1, -16, 57, 28, 54,
+                    -13, -17, 7, 8, 29, 56, 47, 57,
+                    -27, -27, -16, -16, -1, 17, -2, 1,
+                    -9, -26, -9, -10, -2, -4, 3, -3,
+                    -14, 2, -11, -2, -5, 2, 14, 5,
+                    -35, -8, 11, 2, 8, 15, -3, 1,
+                    -1, -18, -9, 10, -15, -25, -31, -50
+            }, {
+                    -65, 23, 16, -15, -56, -34, 2, 13,
+                    29, -1, -20, -7, -8, -4, -38, -29,
+                    -9, 24, 2, -16, -20, 6, 22, -22,
+                    -17, -20, -12, -27, -30, -25, -14, -36,
+                    -49, -1, -27, -39, -46, -44, -33, -51,
+                    -14, -14, -22, -46, -44, -30, -15, -27,
+                    1, 7, -8, -64, -43, -16, 9, 8,
+                    -15, 36, 12, -54, 8, -28, 24, 14
+            }
+    };
+
+    private static final int[][] EG_TABLE = {
+            {
+                    0, 0, 0, 0, 0, 0, 0, 0,
+                    178, 173, 158, 134, 147, 132, 165, 187,
+                    94, 100, 85, 67, 56, 53, 82, 84,
+                    32, 24, 13, 5, -2, 4, 17, 17,
+                    13, 9, -3, -7, -7, -8, 3, -1,
+                    4, 7, -6, 1, 0, -5, -1, -8,
+                    13, 8, 8, 10, 13, 0, 2, -7,
+                    0, 0, 0, 0, 0, 0, 0, 0
+            }, {
+                    -58, -38, -13, -28, -31, -27, -63, -99,
+                    -25, -8, -25, -2, -9, -25, -24, -52,
+                    -24, -20, 10, 9, -1, -9, -19, -41,
+                    -17, 3, 22, 22, 22, 11, 8, -18,
+                    -18, -6, 16, 25, 16, 17, 4, -18,
+                    -23, -3, -1, 15, 10, -3, -20, -22,
+                    -42, -20, -10, -5, -2, -20, -23, -44,
+                    -29, -51, -23, -15, -22, -18, -50, -64
+            }, {
+                    -14, -21, -11, -8, -7, -9, -17, -24,
+                    -8, -4, 7, -12, -3, -13, -4, -14,
+                    2, -8, 0, -1, -2, 6, 0, 4,
+                    -3, 9, 12, 9, 14, 10, 3, 2,
+                    -6, 3, 13, 19, 7, 10, -3, -9,
+                    -12, -3, 8, 10, 13, 3, -7, -15,
+                    -14, -18, -7, -1, 4, -9, -15, -27,
+                    -23, -9, -23, -5, -9, -16, -5, -17
+            }, {
+                    13, 10, 18, 15, 12, 12, 8, 5,
+                    11, 13, 13, 11, -3, 3, 8, 3,
+                    7, 7, 7, 5, 4, -3, -5, -3,
+                    4, 3, 13, 1, 2, 1, -1, 2,
+                    3, 5, 8, 4, -5, -6, -8, -11,
+                    -4, 0, -5, -1, -7, -12, -8, -16,
+                    -6, -6, 0, 2, -9, -9, -11, -3,
+                    -9, 2, 3, -1, -5, -13, 4, -20
+            }, {
+                    -9, 22, 22, 27, 27, 19, 10, 20,
+                    -17, 20, 32, 41, 58, 25, 30, 0,
+                    -20, 6, 9, 49, 47, 35, 19, 9,
+                    3, 22, 24, 45, 57, 40, 57, 36,
+                    -18, 28, 19, 47, 31, 34, 39, 23,
+                    -16, -27, 15, 6, 9, 17, 10, 5,
+                    -22, -23, -30, -16, -16, -23, -36, -32,
+                    -33, -28, -22, -43, -5, -32, -20, -41
+            }, {
+                    -74, -35, -18, -18, -11, 15, 4, -17,
+                    -12, 17, 14, 17, 17, 38, 23, 11,
+                    10, 17, 23, 15, 20, 45, 44, 13,
+                    -8, 22, 24, 27, 26, 33, 26, 3,
+                    -18, -4, 21, 24, 27, 23, 9, -11,
+                    -19, -3, 11, 21, 23, 16, 7, -9,
+                    -27, -11, 4, 13, 14, 4, -5, -17,
+                    -53, -34, -21, -11, -28, -14, -24, -43
+            }
+    };
+
+    private static final int DOUBLED_MG = -10;
+    private static final int DOUBLED_EG = -25;
+    private static final int ISOLATED_MG = -10;
+    private static final int ISOLATED_EG = -15;
+    // By rank from the pawn's own side
+    private static final int[] PASSED_MG = {0, 0, 5, 10, 20, 35, 55, 0};
+    private static final int[] PASSED_EG = {0, 10, 15, 25, 40, 65, 100, 0};
+
+    private static final int SHELTER_MISSING = -15;
+    private static final int[] KING_ATTACK_WEIGHT = {0, 2, 2, 3, 5, 0};
+
+    private static final long[] FILES = new long[8];
+    private static final long[] ADJACENT_FILES = new long[8];
+    // Squares in front of a pawn on its own and adjacent files, per color
+    private static final long[][] PASSED_SPAN = new long[2][64];
+    private static final long[][] SHELTER = new long[2][64];
+
+    private static final int PAWN_TABLE_SIZE = 1 << 14;
+
+    static {
+        for (int type = PAWN; type <= KING; type++) {
+            for (int sq = 0; sq < 64; sq++) {
+                MG[piece(WHITE, type)][sq] = MG_VALUE[type] + MG_TABLE[type][sq ^ 56];
+                EG[piece(WHITE, type)][sq] = EG_VALUE[type] + EG_TABLE[type][sq ^ 56];
+                MG[piece(BLACK, type)][sq] = -(MG_VALUE[type] + MG_TABLE[type][sq]);
+                EG[piece(BLACK, type)][sq] = -(EG_VALUE[type] + EG_TABLE[type][sq]);
+            }
+        }
+        for (int file = 0; file < 8; file++) {
+            FILES[file] = FILE_A << file;
+        }
+        for (int file = 0; file < 8; file++) {
+            ADJACENT_FILES[file] = (file > 0 ? FILES[file - 1] : 0) | (file < 7 ? FILES[file + 1] : 0);
+        }
+        for (int sq = 0; sq < 64; sq++) {
+            long span = FILES[file(sq)] | ADJACENT_FILES[file(sq)];
+            int rank = rank(sq);
+            long above = rank == 7 ? 0 : -1L << (8 * (rank + 1));
+            long below = rank == 0 ? 0 : -1L >>> (8 * (8 - rank));
+            PASSED_SPAN[WHITE][sq] = span & above;
+            PASSED_SPAN[BLACK][sq] = span & below;
+            long nextTwo = 0xFFFFL << (8 * Math.min(rank + 1, 7));
+            long prevTwo = rank < 2 ? -1L >>> (8 * (8 - rank)) : 0xFFFFL << (8 * (rank - 2));
+            SHELTER[WHITE][sq] = span & above & nextTwo;
+            SHELTER[BLACK][sq] = span & below & prevTwo;
+        }
+    }
+
+    private final long[] pawnKeys = new long[PAWN_TABLE_SIZE];
+    private final int[] pawnMg = new int[PAWN_TABLE_SIZE];
+    private final int[] pawnEg = new int[PAWN_TABLE_SIZE];
+
+    Evaluator() {
+        // Key 0 (no pawns) must not hit an empty slot by accident
+        Arrays.fill(pawnKeys, -1L);
+    }
+
+    // Score in centipawns from the side to move's point of view
+    int evaluate(Position pos) {
+        int mg = pos.mgScore();
+        int eg = pos.egScore();
+
+        long pawnKey = pos.pawnKey();
+        int slot = (int) pawnKey & (PAWN_TABLE_SIZE - 1);
+        if (pawnKeys[slot] != pawnKey) {
+            pawnKeys[slot] = pawnKey;
+            pawnMg[slot] = pawns(pos, WHITE, true) - pawns(pos, BLACK, true);
+            pawnEg[slot] = pawns(pos, WHITE, false) - pawns(pos, BLACK, false);
+        }
+        mg += pawnMg[slot];
+        eg += pawnEg[slot];
+
+        mg += kingSafety(pos, WHITE) - kingSafety(pos, BLACK);
+
+        int phase = Math.min(pos.phase(), MAX_PHASE);
+        int score = (mg * phase + eg * (MAX_PHASE - phase)) / MAX_PHASE;
+        return (pos.sideToMove() == WHITE ? score : -score) + TEMPO;
+    }
+
+    private static int pawns(Position pos, int us, boolean midgame) {
+        long ours = pos.pieces(us, PAWN);
+        long theirs = pos.pieces(us ^ 1, PAWN);
+        int score = 0;
+        for (long b = ours; b != 0; b &= b - 1) {
+            int sq = Long.numberOfTrailingZeros(b);
+            int file = file(sq);
+            if ((ours & ADJACENT_FILES[file]) == 0) {
+                score += midgame ? ISOLATED_MG : ISOLATED_EG;
+            }
+            if ((theirs & PASSED_SPAN[us][sq]) == 0 && (ours & PASSED_SPAN[us][sq] & FILES[file]) == 0) {
+                int rank = us == WHITE ? rank(sq) : 7 - rank(sq);
+                score += midgame ? PASSED_MG[rank] : PASSED_EG[rank];
+            }
+        }
+        for (int file = 0; file < 8; file++) {
+            int count = Long.bitCount(ours & FILES[file]);
+            if (count > 1) {
+                score += (count - 1) * (midgame ? DOUBLED_MG : DOUBLED_EG);
+            }
+        }
+        return score;
+    }
+
+    // Midgame only: missing pawn shield and pieces bearing on the squares around the king
+    private static int kingSafety(Position pos, int us) {
+        int king = pos.kingSquare(us);
+        if (king == NO_SQUARE) {
+            return 0;
+        }
+        int them = us ^ 1;
+        int score = 0;
+        int relativeRank = us == WHITE ? rank(king) : 7 - rank(king);
+        if (relativeRank <= 1) {
+            long shield = pos.pieces(us, PAWN) & SHELTER[us][king];
+            for (int file = Math.max(0, file(king) - 1); file <= Math.min(7, file(king) + 1); file++) {
+                if ((shield & FILES[file]) == 0) {
+                    score += SHELTER_MISSING;
+                }
+            }
+        }
+
+        long zone = KING_ATTACKS[king] | bit(king);
+        long occ = pos.occupied();
+        int units = 0;
+        int attackers = 0;
+        for (int type = KNIGHT; type <= QUEEN; type++) {
+            for (long b = pos.pieces(them, type); b != 0; b &= b - 1) {
+                int sq = Long.numberOfTrailingZeros(b);
+                long attacks = switch (type) {
+                    case KNIGHT -> KNIGHT_ATTACKS[sq];
+                    case BISHOP -> bishopAttacks(sq, occ);
+                    case ROOK -> rookAttacks(sq, occ);
+                    default -> queenAttacks(sq, occ);
+                };
+                int hits = Long.bitCount(attacks & zone);
+                if (hits > 0) {
+                    attackers++;
+                    units += KING_ATTACK_WEIGHT[type] * hits;
+                }
+            }
+        }
+        if (attackers >= 2) {
+            score -= Math.min(units * units * 2, 400);
+        }
+        return score;
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.daniel;
+
+public final class Fen {
+    public static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    private Fen() {
+    }
+
+    public static Position parse(String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        if (fields.length < 4) {
+            throw new IllegalArgumentException("FEN incompleto: " + fen);
+        }
+        Position pos = new Position();
+
+        int rank = 7;
+        int file = 0;
+        for (int i = 0; i < fields[0].length(); i++) {
+            char c = fields[0].charAt(i);
+            if (c == '/') {
+                if (file != 8 || --rank < 0) {
+                    throw new IllegalArgumentException("FEN inválido: " + fen);
+                }
+                file = 0;
+            } else if (c >= '1' && c <= '8') {
+                file += c - '0';
+            } else {
+                Piece piece = Piece.fromFen(c);
+                if (piece == null || file > 7 || rank < 0) {
+                    throw new IllegalArgumentException("FEN inválido: " + fen);
+                }
+                pos.putPiece(piece.code(), Bitboards.square(file++, rank));
+            }
+        }
+
+        if (rank != 0 || file != 8 || !fields[1].equals("w") && !fields[1].equals("b")) {
+            throw new IllegalArgumentException("FEN inválido: " + fen);
+        }
+        pos.setSideToMove(fields[1].equals("b") ? Position.BLACK : Position.WHITE);
+
+        int rights = 0;
+        for (char c : fields[2].toCharArray()) {
+            rights |= switch (c) {
+                case 'K' -> Position.WHITE_KINGSIDE;
+                case 'Q' -> Position.WHITE_QUEENSIDE;
+                case 'k' -> Position.BLACK_KINGSIDE;
+                case 'q' -> Position.BLACK_QUEENSIDE;
+                default -> 0;
+            };
+        }
+        pos.setCastlingRights(rights);
+
+        if (!fields[3].equals("-")) {
+            if (fields[3].length() != 2 || fields[3].charAt(0) < 'a' || fields[3].charAt(0) > 'h'
+                    || fields[3].charAt(1) != '3' && fields[3].charAt(1) != '6') {
+                throw new IllegalArgumentException("FEN inválido: " + fen);
+            }
+            int ep = Bitboards.square(fields[3].charAt(0) - 'a', fields[3].charAt(1) - '1');
+            if (isEnPassantSquare(pos, ep)) {
+                pos.setEpSquare(ep);
+            }
+        }
+        // EPD lines carry operations instead of the two move counters
+        if (fields.length > 5 && isNumber(fields[4]) && isNumber(fields[5])) {
+            pos.setHalfmoveClock(Integer.parseInt(fields[4]));
+            pos.setFullmoveNumber(Math.max(1, Integer.parseInt(fields[5])));
+        }
+
+        if (!isLegal(pos)) {
+            throw new IllegalArgumentException("Posición ilegal: " + fen);
+        }
+        return pos;
+    }
+
+    // The engine relies on exactly one king each and on the side not to move being out of check
+    static boolean isLegal(Position pos) {
+        return Long.bitCount(pos.pieces(Position.WHITE, Position.KING)) == 1
+                && Long.bitCount(pos.pieces(Position.BLACK, Position.KING)) == 1
+                && !pos.isInCheck(pos.sideToMove() ^ 1);
+    }
+
+    // Keep an ep square only if the opponent's pawn just passed it and one of ours can take,
+    // as Position.makeMove does, so the key matches the same position reached by play
+    static boolean isEnPassantSquare(Position pos, int ep) {
+        if (ep < 0 || ep >= 64) {
+            return false;
+        }
+        int us = pos.sideToMove();
+        int pushed = us == Position.WHITE ? ep - 8 : ep + 8;
+        return Bitboards.rank(ep) == (us == Position.WHITE ? 5 : 2)
+                && (pos.pieces(us ^ 1, Position.PAWN) & 1L << pushed) != 0
+                && (Bitboards.PAWN_ATTACKS[us ^ 1][ep] & pos.pieces(us, Position.PAWN)) != 0;
+    }
+
+    public static String toFen(Position pos) {
+        StringBuilder sb = new StringBuilder(90);
+        for (int rank = 7; rank >= 0; rank--) {
+            int empty = 0;
+            for (int file = 0; file < 8; file++) {
+                Piece piece = Piece.of(pos.pieceAt(Bitboards.square(file, rank)));
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    sb.append(empty);
+                    empty = 0;
+                }
+                sb.append(piece.fenChar());
+            }
+            if (empty > 0) {
+                sb.append(empty);
+            }
+            if (rank > 0) {
+                sb.append('/');
+            }
+        }
+
+        sb.append(pos.sideToMove() == Position.WHITE ? " w " : " b ");
+        int rights = pos.castlingRights();
+        if (rights == 0) {
+            sb.append('-');
+        }
+        if ((rights & Position.WHITE_KINGSIDE) != 0) {
+            sb.append('K');
+        }
+        if ((rights & Position.WHITE_QUEENSIDE) != 0) {
+            sb.append('Q');
+        }
+        if ((rights & Position.BLACK_KINGSIDE) != 0) {
+            sb.append('k');
+        }
+        if ((rights & Position.BLACK_QUEENSIDE) != 0) {
+            sb.append('q');
+        }
+        sb.append(' ').append(pos.epSquare() == Position.NO_SQUARE ? "-" : Moves.squareName(pos.epSquare()));
+        sb.append(' ').append(pos.halfmoveClock()).append(' ').append(pos.fullmoveNumber());
+        return sb.toString();
+    }
+
+    private static boolean isNumber(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (!Character.isDigit(s.charAt(i))) {
+                return false;
+            }
+        }
+        return !s.isEmpty() && s.length() < 10;
+    }
+}
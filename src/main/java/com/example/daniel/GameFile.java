@@ -0,0 +1,256 @@
+package com.example.daniel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// Saved game layout, version 3 (all varints are unsigned LEB128):
+//   int    magic "CHSG"
+//   byte   version
+//   32     board, one nibble per square a1..h8 (piece code + 1, 0 = empty), low nibble first
+//   byte   side to move, byte castling rights, byte ep square + 1
+//   varint halfmove clock, fullmove number
+//   varint white time, black time, in milliseconds
+//   varint move count, then one varint per packed move
+// Versions 1 and 2 stored the clocks in whole seconds. Version 1 also stored the scores and
+// captured pieces after the clocks; they are skipped, as both follow from the moves. Files written by the old ObjectOutputStream code still load
+// through fromLegacy().
+final class GameFile {
+    static final int MAGIC = 0x43485347;
+    static final int VERSION = 3;
+
+    private static final int SERIALIZATION_MAGIC = 0xACED0005;
+
+    private GameFile() {
+    }
+
+    static void write(Path path, SavedGame game) throws IOException {
+        ByteBuffer buffer = encode(game);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    static SavedGame read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 4) {
+                throw new IOException("Archivo de partida vacío o incompleto");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt(0) == SERIALIZATION_MAGIC) {
+                return readLegacy(path);
+            }
+            return decode(buffer);
+        }
+    }
+
+    static ByteBuffer encode(SavedGame game) {
+        // 40 fixed bytes, then five counters and clocks and one varint per move, 5 bytes at most each
+        ByteBuffer buffer = ByteBuffer.allocate(40 + 5 * 5 + game.moves.length * 5);
+        Position start = game.start;
+        buffer.putInt(MAGIC);
+        buffer.put((byte) VERSION);
+        for (int sq = 0; sq < 64; sq += 2) {
+            buffer.put((byte) ((start.pieceAt(sq) + 1) | (start.pieceAt(sq + 1) + 1) << 4));
+        }
+        buffer.put((byte) start.sideToMove());
+        buffer.put((byte) start.castlingRights());
+        buffer.put((byte) (start.epSquare() + 1));
+        putVarint(buffer, start.halfmoveClock());
+        putVarint(buffer, start.fullmoveNumber());
+        putVarint(buffer, game.whiteMillis);
+        putVarint(buffer, game.blackMillis);
+        putVarint(buffer, game.moves.length);
+        for (int move : game.moves) {
+            putVarint(buffer, move);
+        }
+        return buffer.flip();
+    }
+
+    static SavedGame decode(ByteBuffer buffer) throws IOException {
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Formato de partida no reconocido");
+            }
+            int version = buffer.get();
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Versión de partida no soportada: " + version);
+            }
+            Position start = new Position();
+            for (int sq = 0; sq < 64; sq += 2) {
+                int pair = buffer.get() & 0xFF;
+                putPiece(start, (pair & 15) - 1, sq);
+                putPiece(start, (pair >>> 4) - 1, sq + 1);
+            }
+            int us = buffer.get() & 1;
+            start.setSideToMove(us);
+            start.setCastlingRights(buffer.get() & 15);
+            int ep = buffer.get() - 1;
+            if (Fen.isEnPassantSquare(start, ep)) {
+                start.setEpSquare(ep);
+            }
+            start.setHalfmoveClock(getVarint(buffer));
+            start.setFullmoveNumber(getVarint(buffer));
+            if (!Fen.isLegal(start)) {
+                throw new IOException("Posición ilegal en la partida guardada");
+            }
+            int whiteMillis = getVarint(buffer);
+            int blackMillis = getVarint(buffer);
+            if (version < 3) {
+                whiteMillis = secondsToMillis(whiteMillis);
+                blackMillis = secondsToMillis(blackMillis);
+            }
+            if (version == 1) {
+                getVarint(buffer);
+                getVarint(buffer);
+                int captured = checkCount(getVarint(buffer), buffer);
+                buffer.position(buffer.position() + captured);
+            }
+            int[] moves = new int[checkCount(getVarint(buffer), buffer)];
+            for (int i = 0; i < moves.length; i++) {
+                moves[i] = getVarint(buffer);
+            }
+            return new SavedGame(start, moves, whiteMillis, blackMillis);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Archivo de partida incompleto", e);
+        }
+    }
+
+    // Older saves hold a serialized GameState; replay its history so castling, en passant and undo work
+    static SavedGame fromLegacy(GameState state) {
+        ChessPiece[][] pieces = state.getPieces();
+        Position replay = Position.startPosition();
+        List<Integer> moves = new ArrayList<>();
+        int[] buffer = new int[MoveGen.MAX_MOVES];
+        for (Move saved : state.getMoveHistory()) {
+            int from = squareOf(saved.getFrom().x, saved.getFrom().y);
+            int to = squareOf(saved.getTo().x, saved.getTo().y);
+            int move = Moves.NONE;
+            int count = MoveGen.generate(replay, buffer, 0);
+            for (int i = 0; i < count && move == Moves.NONE; i++) {
+                // The old board had no promotions
+                if (Moves.from(buffer[i]) == from && Moves.to(buffer[i]) == to && !Moves.isPromotion(buffer[i])) {
+                    move = buffer[i];
+                }
+            }
+            if (move == Moves.NONE) {
+                break;
+            }
+            moves.add(move);
+            replay.makeMove(move);
+        }
+
+        Position start = Position.startPosition();
+        if (moves.size() != state.getMoveHistory().size() || !matches(replay, pieces)) {
+            // History unusable: start from the saved board with no moves to undo
+            start = new Position();
+            for (int row = 0; row < 8; row++) {
+                for (int col = 0; col < 8; col++) {
+                    if (pieces[row][col] != null) {
+                        start.putPiece(pieces[row][col].getPiece().code(), squareOf(row, col));
+                    }
+                }
+            }
+            start.setCastlingRights(inferCastlingRights(start));
+            start.setSideToMove(state.isWhiteTurn() ? Position.WHITE : Position.BLACK);
+            moves.clear();
+        }
+        return new SavedGame(start, moves.stream().mapToInt(Integer::intValue).toArray(),
+                secondsToMillis(state.getWhiteTime()), secondsToMillis(state.getBlackTime()));
+    }
+
+    private static SavedGame readLegacy(Path path) throws IOException {
+        try (InputStream file = Files.newInputStream(path);
+             ObjectInputStream in = new ObjectInputStream(file)) {
+            return fromLegacy((GameState) in.readObject());
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Formato de partida no reconocido", e);
+        }
+    }
+
+    private static void putPiece(Position pos, int piece, int square) throws IOException {
+        if (piece > Position.piece(Position.BLACK, Position.KING)) {
+            throw new IOException("Pieza inválida en la partida guardada");
+        }
+        if (piece != Position.NO_PIECE) {
+            pos.putPiece(piece, square);
+        }
+    }
+
+    // Rejects counts larger than the bytes left, so a corrupt header cannot allocate huge arrays
+    private static int checkCount(int count, ByteBuffer buffer) throws IOException {
+        if (count < 0 || count > buffer.remaining()) {
+            throw new IOException("Archivo de partida corrupto");
+        }
+        return count;
+    }
+
+    private static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static int getVarint(ByteBuffer buffer) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Archivo de partida corrupto");
+    }
+
+    private static int secondsToMillis(int seconds) {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(0, seconds) * 1000L);
+    }
+
+    // Legacy files address squares as (row, col) with row 0 the black back rank
+    private static int squareOf(int row, int col) {
+        return Bitboards.square(col, 7 - row);
+    }
+
+    private static boolean matches(Position pos, ChessPiece[][] pieces) {
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                int expected = pieces[row][col] == null ? Position.NO_PIECE : pieces[row][col].getPiece().code();
+                if (pos.pieceAt(squareOf(row, col)) != expected) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static int inferCastlingRights(Position pos) {
+        int rights = 0;
+        int whiteRook = Position.piece(Position.WHITE, Position.ROOK);
+        int blackRook = Position.piece(Position.BLACK, Position.ROOK);
+        if (pos.kingSquare(Position.WHITE) == Bitboards.square(4, 0)) {
+            if (pos.pieceAt(Bitboards.square(7, 0)) == whiteRook) rights |= Position.WHITE_KINGSIDE;
+            if (pos.pieceAt(Bitboards.square(0, 0)) == whiteRook) rights |= Position.WHITE_QUEENSIDE;
+        }
+        if (pos.kingSquare(Position.BLACK) == Bitboards.square(4, 7)) {
+            if (pos.pieceAt(Bitboards.square(7, 7)) == blackRook) rights |= Position.BLACK_KINGSIDE;
+            if (pos.pieceAt(Bitboards.square(0, 7)) == blackRook) rights |= Position.BLACK_QUEENSIDE;
+        }
+        return rights;
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.daniel;
+
+import java.util.Arrays;
+
+// A game as its start position and moves, with a cursor for replay. Every KEYFRAME_INTERVAL plies
+// a 32-byte snapshot of the board is kept, so seeking to any ply restores the nearest snapshot
+// below it and replays fewer than KEYFRAME_INTERVAL moves, however long the game. Captures are
+// listed separately (at most 30 per game), which makes captured pieces and material points at
+// any ply cheap to recompute instead of being tracked move by move.
+// Repetition history of a position returned after a seek reaches back to its snapshot only.
+final class GameRecord {
+    static final int KEYFRAME_INTERVAL = 32;
+
+    private final Position start;
+    private final int interval;
+    private int[] moves = new int[64];
+    private int size;
+
+    // Snapshot k, packed at k * PackedPosition.LONGS, is the position after k * interval plies
+    private long[] keyframes = new long[4 * PackedPosition.LONGS];
+
+    // Plies at which a piece was captured, in order, and the captured piece codes
+    private int[] capturePlies = new int[32];
+    private int[] capturedPieces = new int[32];
+    private int captureCount;
+
+    private int cursor;
+    private final Position current = new Position();
+    // Ply of the snapshot current was last restored from; it can unmake moves back to there
+    private int restoredAt;
+
+    GameRecord(Position start) {
+        this(start, KEYFRAME_INTERVAL);
+    }
+
+    GameRecord(Position start, int interval) {
+        this.start = new Position();
+        this.start.copyFrom(start);
+        this.interval = Math.max(1, interval);
+        // Snapshot 0 is start itself
+        current.copyFrom(start);
+    }
+
+    // Moves must be legal in sequence from start
+    static GameRecord of(Position start, int[] moves) {
+        GameRecord record = new GameRecord(start);
+        for (int move : moves) {
+            record.play(move);
+        }
+        return record;
+    }
+
+    Position start() {
+        Position copy = new Position();
+        copy.copyFrom(start);
+        return copy;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int moveAt(int ply) {
+        return moves[ply];
+    }
+
+    int[] moves() {
+        return Arrays.copyOf(moves, size);
+    }
+
+    int cursor() {
+        return cursor;
+    }
+
+    // The position at the cursor; owned by the record and changed by navigation
+    Position position() {
+        return current;
+    }
+
+    // Plays move at the cursor. A move equal to the recorded next one just steps forward; any
+    // other move replaces the rest of the game.
+    void play(int move) {
+        if (cursor < size && moves[cursor] == move) {
+            forward();
+            return;
+        }
+        truncate(cursor);
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        int captured = capturedPiece(current, move);
+        if (captured != Position.NO_PIECE) {
+            if (captureCount == capturePlies.length) {
+                capturePlies = Arrays.copyOf(capturePlies, captureCount * 2);
+                capturedPieces = Arrays.copyOf(capturedPieces, captureCount * 2);
+            }
+            capturePlies[captureCount] = size;
+            capturedPieces[captureCount++] = captured;
+        }
+        moves[size++] = move;
+        current.makeMove(move);
+        cursor = size;
+        if (size % interval == 0) {
+            saveKeyframe(size / interval, current);
+        }
+    }
+
+    // Forgets the moves from ply on; the cursor moves back to ply if it was beyond it
+    void truncate(int ply) {
+        if (ply >= size) {
+            return;
+        }
+        if (cursor > ply) {
+            seek(ply);
+        }
+        size = ply;
+        while (captureCount > 0 && capturePlies[captureCount - 1] >= ply) {
+            captureCount--;
+        }
+    }
+
+    boolean forward() {
+        if (cursor >= size) {
+            return false;
+        }
+        current.makeMove(moves[cursor++]);
+        return true;
+    }
+
+    boolean back() {
+        if (cursor == 0) {
+            return false;
+        }
+        if (cursor > restoredAt) {
+            current.unmakeMove(moves[--cursor]);
+        } else {
+            seek(cursor - 1);
+        }
+        return true;
+    }
+
+    // Moves the cursor to ply, clamped to the recorded game. Short steps make or unmake moves from
+    // the current position; longer ones restore the nearest snapshot below ply and replay from it.
+    // Either way fewer than interval moves are played.
+    Position seek(int ply) {
+        ply = Math.max(0, Math.min(ply, size));
+        if (ply < cursor && ply >= restoredAt && cursor - ply < interval) {
+            while (cursor > ply) {
+                current.unmakeMove(moves[--cursor]);
+            }
+            return current;
+        }
+        if (ply < cursor || ply - cursor >= interval) {
+            int keyframe = ply / interval;
+            restoreKeyframe(keyframe, current);
+            cursor = keyframe * interval;
+            restoredAt = cursor;
+        }
+        while (cursor < ply) {
+            current.makeMove(moves[cursor++]);
+        }
+        return current;
+    }
+
+    // Codes of the pieces captured in the first ply moves, in the order they were taken
+    int[] capturedBefore(int ply) {
+        int n = 0;
+        while (n < captureCount && capturePlies[n] < ply) {
+            n++;
+        }
+        return Arrays.copyOf(capturedPieces, n);
+    }
+
+    // Material points color has captured in the first ply moves
+    int pointsBefore(int color, int ply) {
+        int points = 0;
+        for (int i = 0; i < captureCount && capturePlies[i] < ply; i++) {
+            if (Position.colorOf(capturedPieces[i]) != color) {
+                points += Piece.of(capturedPieces[i]).points();
+            }
+        }
+        return points;
+    }
+
+    static int capturedPiece(Position pos, int move) {
+        if (!Moves.isCapture(move)) {
+            return Position.NO_PIECE;
+        }
+        int to = Moves.to(move);
+        if (Moves.flags(move) == Moves.EP_CAPTURE) {
+            to = Bitboards.square(Bitboards.file(to), Bitboards.rank(Moves.from(move)));
+        }
+        return pos.pieceAt(to);
+    }
+
+    private void saveKeyframe(int index, Position pos) {
+        if ((index + 1) * PackedPosition.LONGS > keyframes.length) {
+            keyframes = Arrays.copyOf(keyframes, Math.max((index + 1) * PackedPosition.LONGS, keyframes.length * 2));
+        }
+        PackedPosition.pack(pos, keyframes, index * PackedPosition.LONGS);
+    }
+
+    private void restoreKeyframe(int index, Position pos) {
+        if (index == 0) {
+            pos.copyFrom(start);
+            return;
+        }
+        PackedPosition.unpack(keyframes, index * PackedPosition.LONGS, pos);
+    }
+}
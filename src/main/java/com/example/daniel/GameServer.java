@@ -0,0 +1,414 @@
+package com.example.daniel;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Headless game server: java -jar chess.jar server [--port N] [--engines N] ...
+// Every TCP connection is one game against the computer, spoken in lines of text:
+//   new white|black [depth N] [nodes N]   new game, the client playing the given colour
+//   move e2e4                              the client's move, answered with the computer's
+//   fen | moves                            the current position, or the game's moves in UCI
+//   metrics                                engine metrics as one line of JSON
+//   quit
+// The server answers "game <id> <fen>", "move <uci>", "end <result> <motivo>", "fen <fen>",
+// "moves ...", "metrics {...}" and "error <mensaje>". Each connection has its own thread, a
+// virtual one when the JDK has them, and between commands a game is only its moves and a packed
+// board, so idle games cost little. Computer moves come from one shared pool of single-threaded
+// engines.
+public final class GameServer implements Closeable {
+    static final int DEFAULT_PORT = 7777;
+    private static final String USAGE = "Uso: server [--port N] [--engines N] [--hash MB] [--nodes N] [--depth N]";
+
+    private final int port;
+    private final SearchLimits maxLimits;
+    private final ExecutorService engines;
+    private final ExecutorService connections = connectionExecutor();
+    private final ThreadLocal<SearchPool> searchers;
+    private final Set<Socket> clients = ConcurrentHashMap.newKeySet();
+    private final AtomicLong nextGameId = new AtomicLong(1);
+    private ServerSocket server;
+    private Thread acceptor;
+
+    // maxLimits caps what a client may ask for; port 0 picks a free port
+    GameServer(int port, int engineThreads, int hashMegabytes, SearchLimits maxLimits) {
+        this.port = port;
+        this.maxLimits = maxLimits;
+        this.engines = Executors.newFixedThreadPool(Math.max(1, engineThreads), r -> {
+            Thread t = new Thread(r, "chess-server-engine");
+            t.setDaemon(true);
+            return t;
+        });
+        // Tables are shared between the games an engine thread plays; entries are keyed by position
+        this.searchers = ThreadLocal.withInitial(() -> new SearchPool(new TranspositionTable(hashMegabytes), 1));
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        int engineThreads = Runtime.getRuntime().availableProcessors();
+        int hash = 16;
+        long nodes = 100_000;
+        int depth = Search.MAX_PLY;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--port" -> port = Integer.parseInt(args[++i]);
+                    case "--engines" -> engineThreads = Integer.parseInt(args[++i]);
+                    case "--hash" -> hash = Integer.parseInt(args[++i]);
+                    case "--nodes" -> nodes = Long.parseLong(args[++i]);
+                    case "--depth" -> depth = Integer.parseInt(args[++i]);
+                    default -> throw new IllegalArgumentException(args[i]);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+        GameServer server = new GameServer(port, engineThreads, hash, new SearchLimits(depth, nodes, 0));
+        server.start();
+        System.err.printf("Servidor en el puerto %d (%d motores, %s)%n", server.port(), engineThreads,
+                virtualThreads() ? "hilos virtuales" : "un hilo por conexión");
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        // All server threads are daemons; run until the listening socket is closed
+        try {
+            server.acceptor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    void start() throws IOException {
+        server = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress());
+        acceptor = new Thread(this::acceptLoop, "chess-server-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    int port() {
+        return server.getLocalPort();
+    }
+
+    int connectedClients() {
+        return clients.size();
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (server != null) {
+                server.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Error al cerrar el servidor: " + e.getMessage());
+        }
+        for (Socket client : clients) {
+            closeQuietly(client);
+        }
+        connections.shutdownNow();
+        engines.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (!server.isClosed()) {
+            Socket socket;
+            try {
+                socket = server.accept();
+            } catch (IOException e) {
+                if (!server.isClosed()) {
+                    System.err.println("Error al aceptar una conexión: " + e.getMessage());
+                }
+                continue;
+            }
+            clients.add(socket);
+            connections.execute(() -> serve(socket));
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            socket.setTcpNoDelay(true);
+            send(out, "hello " + UciEngine.NAME);
+            Session session = null;
+            String line;
+            while ((line = in.readLine()) != null) {
+                String[] tokens = line.strip().split("\\s+");
+                if (tokens[0].equals("quit")) {
+                    break;
+                }
+                session = execute(session, tokens, out);
+            }
+        } catch (SocketException e) {
+            // Closed by the client or by close()
+        } catch (IOException e) {
+            System.err.println("Error en la conexión: " + e.getMessage());
+        } finally {
+            clients.remove(socket);
+        }
+    }
+
+    private Session execute(Session session, String[] tokens, Writer out) throws IOException {
+        switch (tokens[0]) {
+            case "new" -> {
+                Session created = newSession(tokens);
+                if (created == null) {
+                    send(out, "error Uso: new white|black [depth N] [nodes N]");
+                    return session;
+                }
+                Position pos = Position.startPosition();
+                send(out, "game " + created.id + " " + Fen.toFen(pos));
+                if (created.computerColor == Position.WHITE) {
+                    replyWithComputerMove(created, pos, out);
+                }
+                return created;
+            }
+            case "move" -> {
+                if (session == null) {
+                    send(out, "error No hay partida");
+                } else if (tokens.length < 2) {
+                    send(out, "error Uso: move <uci>");
+                } else {
+                    clientMove(session, tokens[1], out);
+                }
+            }
+            case "fen" -> {
+                if (session == null) {
+                    send(out, "error No hay partida");
+                } else {
+                    send(out, "fen " + Fen.toFen(session.position()));
+                }
+            }
+            case "moves" -> {
+                StringBuilder sb = new StringBuilder("moves");
+                for (int i = 0; session != null && i < session.size; i++) {
+                    sb.append(' ').append(Moves.toUci(session.moves[i]));
+                }
+                send(out, sb.toString());
+            }
+            case "metrics" -> send(out, "metrics " + Metrics.json());
+            case "" -> {
+            }
+            default -> send(out, "error Comando desconocido: " + tokens[0]);
+        }
+        return session;
+    }
+
+    private Session newSession(String[] tokens) {
+        if (tokens.length < 2 || !tokens[1].equals("white") && !tokens[1].equals("black")) {
+            return null;
+        }
+        int depth = maxLimits.depth;
+        long nodes = maxLimits.nodes;
+        try {
+            for (int i = 2; i < tokens.length; i++) {
+                switch (tokens[i]) {
+                    case "depth" -> depth = Math.min(depth, Math.max(1, Integer.parseInt(tokens[++i])));
+                    case "nodes" -> {
+                        // Zero or less would mean no node limit at all
+                        long asked = Long.parseLong(tokens[++i]);
+                        if (asked <= 0) {
+                            return null;
+                        }
+                        nodes = nodes == 0 ? asked : Math.min(nodes, asked);
+                    }
+                    default -> {
+                        return null;
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            return null;
+        }
+        int computer = tokens[1].equals("white") ? Position.BLACK : Position.WHITE;
+        return new Session(nextGameId.getAndIncrement(), computer, new SearchLimits(Math.max(1, depth), nodes, 0));
+    }
+
+    private void clientMove(Session session, String uci, Writer out) throws IOException {
+        if (session.result != null) {
+            send(out, "error La partida ha terminado: " + session.result);
+            return;
+        }
+        Position pos = session.position();
+        if (pos.sideToMove() == session.computerColor) {
+            send(out, "error No es tu turno");
+            return;
+        }
+        int[] buffer = new int[MoveGen.MAX_MOVES];
+        int count = MoveGen.generate(pos, buffer, 0);
+        int move = Moves.NONE;
+        for (int i = 0; i < count; i++) {
+            if (Moves.toUci(buffer[i]).equals(uci)) {
+                move = buffer[i];
+            }
+        }
+        if (move == Moves.NONE) {
+            send(out, "error Movimiento ilegal: " + uci);
+            return;
+        }
+        session.play(pos, move);
+        if (!announceEnd(session, pos, out)) {
+            replyWithComputerMove(session, pos, out);
+        }
+    }
+
+    // Searches on the shared engine pool; the connection's thread just waits for the answer
+    private void replyWithComputerMove(Session session, Position pos, Writer out) throws IOException {
+        Position root = new Position();
+        root.copyFrom(pos);
+        SearchLimits limits = session.limits;
+        Future<SearchResult> answer = engines.submit(() -> searchers.get().search(root, limits, null));
+        int move;
+        try {
+            move = answer.get().bestMove;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Búsqueda interrumpida", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        session.play(pos, move);
+        send(out, "move " + Moves.toUci(move));
+        announceEnd(session, pos, out);
+    }
+
+    private static boolean announceEnd(Session session, Position pos, Writer out) throws IOException {
+        String end = session.outcome(pos);
+        if (end == null) {
+            return false;
+        }
+        send(out, "end " + end);
+        return true;
+    }
+
+    private static void send(Writer out, String line) throws IOException {
+        out.write(line);
+        out.write('\n');
+        out.flush();
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already gone
+        }
+    }
+
+    // One thread per connection. Virtual threads (JDK 21+) make thousands of mostly idle
+    // connections cheap; on older JDKs a cached pool of platform threads does the same job.
+    static ExecutorService connectionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "chess-session");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    static boolean virtualThreads() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    // A game between commands: the moves, the board packed into four longs and the keys of the
+    // positions since the last capture or pawn move, for repetitions. A Position is only built
+    // while a command is being handled.
+    static final class Session {
+        final long id;
+        final int computerColor;
+        final SearchLimits limits;
+        private final long[] board = new long[PackedPosition.LONGS];
+        private int[] moves = new int[16];
+        private int size;
+        private long[] keys = new long[16];
+        private int keyCount;
+        private String result;
+
+        Session(long id, int computerColor, SearchLimits limits) {
+            this.id = id;
+            this.computerColor = computerColor;
+            this.limits = limits;
+            Position start = Position.startPosition();
+            PackedPosition.pack(start, board, 0);
+            keys[keyCount++] = start.key();
+        }
+
+        Position position() {
+            Position pos = new Position();
+            PackedPosition.unpack(board, 0, pos);
+            return pos;
+        }
+
+        // Plays move on pos, which must be this game's current position
+        void play(Position pos, int move) {
+            pos.makeMove(move);
+            if (size == moves.length) {
+                moves = Arrays.copyOf(moves, size * 2);
+            }
+            moves[size++] = move;
+            if (pos.halfmoveClock() == 0) {
+                keyCount = 0;
+            }
+            if (keyCount == keys.length) {
+                keys = Arrays.copyOf(keys, keyCount * 2);
+            }
+            keys[keyCount++] = pos.key();
+            PackedPosition.pack(pos, board, 0);
+        }
+
+        // "<result> <motivo>" once the game is over, or null
+        String outcome(Position pos) {
+            if (result != null) {
+                return result;
+            }
+            int us = pos.sideToMove();
+            if (MoveGen.generate(pos, new int[MoveGen.MAX_MOVES], 0) == 0) {
+                result = pos.isInCheck(us) ? (us == Position.WHITE ? "0-1 jaque_mate" : "1-0 jaque_mate")
+                        : "1/2-1/2 ahogado";
+            } else if (pos.halfmoveClock() >= 100) {
+                result = "1/2-1/2 cincuenta_movimientos";
+            } else if (Tournament.insufficientMaterial(pos)) {
+                result = "1/2-1/2 material_insuficiente";
+            } else if (occurrences(pos.key()) >= 3) {
+                result = "1/2-1/2 repeticion";
+            }
+            return result;
+        }
+
+        private int occurrences(long key) {
+            int n = 0;
+            for (int i = 0; i < keyCount; i++) {
+                if (keys[i] == key) {
+                    n++;
+                }
+            }
+            return n;
+        }
+    }
+}
@@ -3,7 +3,10 @@ package com.example.daniel;
 import java.io.Serializable;
 import java.util.Stack;
 
+// Format of games saved before GameFile; only read now, to load those files
 public class GameState implements Serializable {
+    private static final long serialVersionUID = 6771974203367920544L;
+
     private ChessPiece[][] pieces;
     private Stack<Move> moveHistory;
     private boolean whiteTurn;
@@ -6,6 +6,7 @@ import java.awt.*;
 public class GameStatus extends JPanel {
     private boolean whiteTurn = true;
     private boolean check = false;
+    private String thinking;
     private JLabel statusLabel;
 
     public GameStatus() {
@@ -35,9 +36,16 @@ public class GameStatus extends JPanel {
         updateStatus();
     }
 
+    // Engine progress shown next to the turn, or null to hide it
+    public void setThinking(String thinking) {
+        this.thinking = thinking;
+        updateStatus();
+    }
+
     public void reset() {
         whiteTurn = true;
         check = false;
+        thinking = null;
         updateStatus();
     }
 
@@ -46,6 +54,9 @@ public class GameStatus extends JPanel {
         if (check) {
             status += " - ¡JAQUE!";
         }
+        if (thinking != null) {
+            status += " - " + thinking;
+        }
         statusLabel.setText(status);
     }
 }
\ No newline at end of file
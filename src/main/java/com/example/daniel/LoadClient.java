@@ -0,0 +1,205 @@
+package com.example.daniel;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+// Load test for GameServer: java -jar chess.jar loadtest [--sessions 1,10,100] [--moves N] ...
+// For each session count, that many clients connect at once and each plays random legal moves
+// against the computer. The time from sending a move to reading the computer's reply is
+// recorded, and its percentiles are printed per session count.
+public final class LoadClient {
+    private static final String USAGE = "Uso: loadtest [--host nombre] [--port N] [--sessions N,N,...]"
+            + " [--moves N] [--nodes N] [--seed N]";
+
+    private final String host;
+    private final int port;
+    private final int moves;
+    private final long nodes;
+
+    LoadClient(String host, int port, int moves, long nodes) {
+        this.host = host;
+        this.port = port;
+        this.moves = moves;
+        this.nodes = nodes;
+    }
+
+    public static void main(String[] args) throws IOException {
+        String host = "localhost";
+        int port = GameServer.DEFAULT_PORT;
+        int[] levels = {1, 10, 100, 1000};
+        int moves = 20;
+        long nodes = 1000;
+        long seed = System.nanoTime();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--host" -> host = args[++i];
+                    case "--port" -> port = Integer.parseInt(args[++i]);
+                    case "--sessions" -> levels = Arrays.stream(args[++i].split(",")).mapToInt(Integer::parseInt).toArray();
+                    case "--moves" -> moves = Integer.parseInt(args[++i]);
+                    case "--nodes" -> nodes = Long.parseLong(args[++i]);
+                    case "--seed" -> seed = Long.parseLong(args[++i]);
+                    default -> throw new IllegalArgumentException(args[i]);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+        LoadClient client = new LoadClient(host, port, moves, nodes);
+        System.out.println("sesiones  jugadas  jugadas/s   p50 ms   p90 ms   p99 ms  p99.9 ms   máx ms");
+        for (int sessions : levels) {
+            long start = System.nanoTime();
+            Latencies latencies = client.run(sessions, seed);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%8d %8d %10.1f %8.2f %8.2f %8.2f %9.2f %8.2f%n", sessions, latencies.count(),
+                    latencies.count() / seconds, latencies.millis(0.50), latencies.millis(0.90),
+                    latencies.millis(0.99), latencies.millis(0.999), latencies.millis(1.0));
+        }
+    }
+
+    // Runs sessions concurrent games, released together once all are connected
+    Latencies run(int sessions, long seed) throws IOException {
+        ExecutorService threads = GameServer.connectionExecutor();
+        CountDownLatch ready = new CountDownLatch(sessions);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<long[]>> results = new ArrayList<>(sessions);
+        try {
+            for (int i = 0; i < sessions; i++) {
+                Random random = new Random(seed + i);
+                results.add(threads.submit(() -> play(random, ready, go)));
+            }
+            ready.await();
+            go.countDown();
+            long[] all = new long[0];
+            for (Future<long[]> result : results) {
+                long[] times = result.get();
+                int old = all.length;
+                all = Arrays.copyOf(all, old + times.length);
+                System.arraycopy(times, 0, all, old, times.length);
+            }
+            return new Latencies(all);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Prueba de carga interrumpida", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    // One game; returns the round trip of each answered move in nanoseconds
+    private long[] play(Random random, CountDownLatch ready, CountDownLatch go) throws IOException, InterruptedException {
+        long[] times = new long[moves];
+        int answered = 0;
+        boolean connected = false;
+        try (Socket socket = new Socket(host, port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            socket.setTcpNoDelay(true);
+            in.readLine();
+            connected = true;
+            ready.countDown();
+            go.await();
+            send(out, "new white nodes " + nodes);
+            expect(in, "game");
+            Position pos = Position.startPosition();
+            int[] buffer = new int[MoveGen.MAX_MOVES];
+            while (answered < moves) {
+                int count = MoveGen.generate(pos, buffer, 0);
+                if (count == 0) {
+                    break;
+                }
+                int move = buffer[random.nextInt(count)];
+                long sent = System.nanoTime();
+                send(out, "move " + Moves.toUci(move));
+                String reply = in.readLine();
+                // A game ended by the previous reply, or by this move, has its "end" line first
+                if (reply == null || reply.startsWith("end")) {
+                    break;
+                }
+                if (!reply.startsWith("move ")) {
+                    throw new IOException("Respuesta inesperada: " + reply);
+                }
+                times[answered++] = System.nanoTime() - sent;
+                pos.makeMove(move);
+                pos.makeMove(parse(pos, reply.substring(5), buffer));
+            }
+            send(out, "quit");
+        } finally {
+            // A client that failed to connect must not hold the others back
+            if (!connected) {
+                ready.countDown();
+            }
+        }
+        return Arrays.copyOf(times, answered);
+    }
+
+    private static void expect(BufferedReader in, String prefix) throws IOException {
+        String line = in.readLine();
+        if (line == null || !line.startsWith(prefix)) {
+            throw new IOException("Respuesta inesperada: " + line);
+        }
+    }
+
+    private static int parse(Position pos, String uci, int[] buffer) throws IOException {
+        int count = MoveGen.generate(pos, buffer, 0);
+        for (int i = 0; i < count; i++) {
+            if (Moves.toUci(buffer[i]).equals(uci)) {
+                return buffer[i];
+            }
+        }
+        throw new IOException("Movimiento ilegal del servidor: " + uci);
+    }
+
+    private static void send(Writer out, String line) throws IOException {
+        out.write(line);
+        out.write('\n');
+        out.flush();
+    }
+
+    static final class Latencies {
+        private final long[] sorted;
+
+        Latencies(long[] nanos) {
+            sorted = nanos.clone();
+            Arrays.sort(sorted);
+        }
+
+        int count() {
+            return sorted.length;
+        }
+
+        // Nearest-rank percentile, q in (0, 1]
+        long percentile(double q) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(q * sorted.length);
+            return sorted[Math.max(0, Math.min(rank, sorted.length) - 1)];
+        }
+
+        double millis(double q) {
+            return percentile(q) / 1e6;
+        }
+    }
+}
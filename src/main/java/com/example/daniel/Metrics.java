@@ -0,0 +1,199 @@
+package com.example.daniel;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Process-wide counters and histograms, on unless -Dchess.metrics=false. Recording is one
+// LongAdder or bucket increment; hot loops record per-search totals or samples instead of every
+// event, so the cost stays far below measurement noise. Read with text() or json(), from the
+// UCI and server "metrics" commands or the Opciones menu.
+final class Metrics {
+    static final boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty("chess.metrics"));
+
+    private static final Map<String, LongAdder> COUNTERS = new LinkedHashMap<>();
+    private static final Map<String, Histogram> HISTOGRAMS = new LinkedHashMap<>();
+
+    static final LongAdder SEARCHES = counter("search.count");
+    static final LongAdder SEARCH_NODES = counter("search.nodes");
+    static final LongAdder SEARCH_NANOS = counter("search.nanos");
+    static final LongAdder TT_PROBES = counter("tt.probes");
+    static final LongAdder TT_HITS = counter("tt.hits");
+    static final LongAdder SOUNDS_PLAYED = counter("sound.played");
+    static final LongAdder SOUNDS_DROPPED = counter("sound.dropped");
+
+    static final Histogram SEARCH_DEPTH = histogram("search.depth");
+    static final Histogram SEARCH_NPS = histogram("search.nps");
+    // One generate call in MOVEGEN_SAMPLE (a power of two) is timed
+    static final Histogram MOVEGEN_NANOS = histogram("movegen.nanos");
+    static final Histogram EDT_DISPATCH_NANOS = histogram("edt.dispatch.nanos");
+    static final Histogram SOUND_NANOS = histogram("sound.start.nanos");
+    static final Histogram REPAINT_NANOS = histogram("board.paint.nanos");
+
+    static final int MOVEGEN_SAMPLE = 256;
+
+    private Metrics() {
+    }
+
+    private static LongAdder counter(String name) {
+        LongAdder counter = new LongAdder();
+        COUNTERS.put(name, counter);
+        return counter;
+    }
+
+    private static Histogram histogram(String name) {
+        Histogram histogram = new Histogram();
+        HISTOGRAMS.put(name, histogram);
+        return histogram;
+    }
+
+    // Totals of one SearchPool search, all threads included
+    static void searchFinished(SearchResult result, long ttProbes, long ttHits, long nanos) {
+        if (!ENABLED) {
+            return;
+        }
+        SEARCHES.increment();
+        SEARCH_NODES.add(result.nodes);
+        SEARCH_NANOS.add(nanos);
+        TT_PROBES.add(ttProbes);
+        TT_HITS.add(ttHits);
+        SEARCH_DEPTH.record(result.depth);
+        if (nanos > 0) {
+            SEARCH_NPS.record(result.nodes * 1_000_000_000L / nanos);
+        }
+    }
+
+    static double nodesPerSecond() {
+        long nanos = SEARCH_NANOS.sum();
+        return nanos == 0 ? 0 : SEARCH_NODES.sum() * 1e9 / nanos;
+    }
+
+    static double ttHitRate() {
+        long probes = TT_PROBES.sum();
+        return probes == 0 ? 0 : (double) TT_HITS.sum() / probes;
+    }
+
+    static void reset() {
+        COUNTERS.values().forEach(LongAdder::reset);
+        HISTOGRAMS.values().forEach(Histogram::reset);
+    }
+
+    static String text() {
+        StringBuilder sb = new StringBuilder(1024);
+        for (Map.Entry<String, LongAdder> counter : COUNTERS.entrySet()) {
+            sb.append(String.format("%-20s %d%n", counter.getKey(), counter.getValue().sum()));
+        }
+        sb.append(String.format(Locale.ROOT, "%-20s %.0f%n", "search.nps.total", nodesPerSecond()));
+        sb.append(String.format(Locale.ROOT, "%-20s %.3f%n", "tt.hit_rate", ttHitRate()));
+        for (Map.Entry<String, Histogram> entry : HISTOGRAMS.entrySet()) {
+            Histogram h = entry.getValue();
+            sb.append(String.format(Locale.ROOT, "%-20s n=%d media=%.1f p50=%d p90=%d p99=%d máx=%d%n", entry.getKey(),
+                    h.count(), h.mean(), h.percentile(0.5), h.percentile(0.9), h.percentile(0.99), h.max()));
+        }
+        return sb.toString();
+    }
+
+    // One line, for line protocols
+    static String json() {
+        StringBuilder sb = new StringBuilder(1024).append("{\"enabled\":").append(ENABLED);
+        for (Map.Entry<String, LongAdder> counter : COUNTERS.entrySet()) {
+            sb.append(",\"").append(counter.getKey()).append("\":").append(counter.getValue().sum());
+        }
+        sb.append(String.format(Locale.ROOT, ",\"search.nps.total\":%.0f,\"tt.hit_rate\":%.4f",
+                nodesPerSecond(), ttHitRate()));
+        for (Map.Entry<String, Histogram> entry : HISTOGRAMS.entrySet()) {
+            Histogram h = entry.getValue();
+            sb.append(String.format(Locale.ROOT,
+                    ",\"%s\":{\"count\":%d,\"mean\":%.1f,\"p50\":%d,\"p90\":%d,\"p99\":%d,\"max\":%d}", entry.getKey(),
+                    h.count(), h.mean(), h.percentile(0.5), h.percentile(0.9), h.percentile(0.99), h.max()));
+        }
+        return sb.append('}').toString();
+    }
+
+    // Log-linear buckets as in HdrHistogram: values below 16 exactly, larger ones in 8 buckets per
+    // power of two, so percentiles are within 12.5% of the true value. Fixed size, lock-free.
+    static final class Histogram {
+        private static final int SUB_BUCKETS = 8;
+        private static final int LINEAR = 16;
+        private static final int BUCKETS = LINEAR + (63 - 4) * SUB_BUCKETS;
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder sum = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        void record(long value) {
+            if (!ENABLED) {
+                return;
+            }
+            value = Math.max(0, value);
+            buckets.incrementAndGet(index(value));
+            count.increment();
+            sum.add(value);
+            if (value > max.get()) {
+                max.accumulateAndGet(value, Math::max);
+            }
+        }
+
+        long count() {
+            return count.sum();
+        }
+
+        long max() {
+            return max.get();
+        }
+
+        double mean() {
+            long n = count.sum();
+            return n == 0 ? 0 : (double) sum.sum() / n;
+        }
+
+        // Upper end of the bucket holding the q-th value, capped at the largest value seen
+        long percentile(double q) {
+            long n = count.sum();
+            if (n == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(q * n));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    return Math.min(upperBound(i), max.get());
+                }
+            }
+            return max.get();
+        }
+
+        void reset() {
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets.set(i, 0);
+            }
+            count.reset();
+            sum.reset();
+            max.set(0);
+        }
+
+        static int index(long value) {
+            if (value < LINEAR) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            int sub = (int) (value >>> (exponent - 3)) & (SUB_BUCKETS - 1);
+            return LINEAR + (exponent - 4) * SUB_BUCKETS + sub;
+        }
+
+        static long upperBound(int index) {
+            if (index < LINEAR) {
+                return index;
+            }
+            int exponent = (index - LINEAR) / SUB_BUCKETS + 4;
+            int sub = (index - LINEAR) % SUB_BUCKETS;
+            long low = (long) (SUB_BUCKETS + sub) << (exponent - 3);
+            return low + (1L << (exponent - 3)) - 1;
+        }
+    }
+}
@@ -4,6 +4,9 @@ import java.awt.Point;
 import java.io.Serializable;
 
 public class Move implements Serializable {
+    // Matches the computed UID of the original class so older save files still load
+    private static final long serialVersionUID = 3088220376644691455L;
+
     private Point from;
     private Point to;
     private ChessPiece movedPiece;
@@ -0,0 +1,230 @@
+package com.example.daniel;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static com.example.daniel.Bitboards.*;
+import static com.example.daniel.Position.*;
+
+// Legal move generation into caller-owned buffers; nothing here allocates
+public final class MoveGen {
+    public static final int MAX_MOVES = 256;
+
+    private MoveGen() {
+    }
+
+    public static int generate(Position pos, int[] moves, int offset) {
+        return generate(pos, moves, offset, false);
+    }
+
+    // Captures, en passant and promotions only, or every evasion when in check
+    public static int generateNoisy(Position pos, int[] moves, int offset) {
+        return generate(pos, moves, offset, true);
+    }
+
+    public static boolean hasLegalMove(Position pos, int[] scratch, int offset) {
+        return generate(pos, scratch, offset, false) > 0;
+    }
+
+    public static long perft(Position pos, int depth) {
+        if (depth <= 0) {
+            return 1;
+        }
+        return perft(pos, depth, new int[MAX_MOVES * depth], 0);
+    }
+
+    // Leaf count below each root move, keyed by its UCI string
+    public static Map<String, Long> divide(Position pos, int depth) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        int[] buffer = new int[MAX_MOVES * Math.max(depth, 1)];
+        int count = generate(pos, buffer, 0);
+        for (int i = 0; i < count; i++) {
+            int move = buffer[i];
+            pos.makeMove(move);
+            counts.put(Moves.toUci(move), depth <= 1 ? 1 : perft(pos, depth - 1, buffer, count));
+            pos.unmakeMove(move);
+        }
+        return counts;
+    }
+
+    private static long perft(Position pos, int depth, int[] buffer, int offset) {
+        int count = generate(pos, buffer, offset);
+        if (depth == 1) {
+            return count;
+        }
+        long nodes = 0;
+        for (int i = offset; i < offset + count; i++) {
+            pos.makeMove(buffer[i]);
+            nodes += perft(pos, depth - 1, buffer, offset + count);
+            pos.unmakeMove(buffer[i]);
+        }
+        return nodes;
+    }
+
+    private static int generate(Position pos, int[] moves, int offset, boolean noisyOnly) {
+        int us = pos.sideToMove();
+        int them = us ^ 1;
+        long own = pos.colorPieces(us);
+        long enemy = pos.colorPieces(them);
+        long occ = pos.occupied();
+        int ksq = pos.kingSquare(us);
+        int n = offset;
+
+        long checkers = pos.checkers();
+        boolean evading = checkers != 0;
+        boolean quiets = !noisyOnly || evading;
+
+        long kingTargets = KING_ATTACKS[ksq] & ~own;
+        if (!quiets) {
+            kingTargets &= enemy;
+        }
+        long occWithoutKing = occ ^ bit(ksq);
+        for (; kingTargets != 0; kingTargets &= kingTargets - 1) {
+            int to = Long.numberOfTrailingZeros(kingTargets);
+            if (!pos.isSquareAttacked(to, them, occWithoutKing)) {
+                moves[n++] = Moves.of(ksq, to, (enemy & bit(to)) != 0 ? Moves.CAPTURE : Moves.QUIET);
+            }
+        }
+        if (Long.bitCount(checkers) > 1) {
+            return n - offset;
+        }
+
+        long evasionMask = evading
+                ? BETWEEN[ksq][Long.numberOfTrailingZeros(checkers)] | checkers
+                : ~0L;
+        long targetMask = ~own & evasionMask & (quiets ? ~0L : enemy);
+        long pinned = pos.pinned(us);
+
+        for (long knights = pos.pieces(us, KNIGHT) & ~pinned; knights != 0; knights &= knights - 1) {
+            int from = Long.numberOfTrailingZeros(knights);
+            n = addTargets(moves, n, from, KNIGHT_ATTACKS[from] & targetMask, enemy);
+        }
+        for (long sliders = pos.pieces(us, BISHOP) | pos.pieces(us, QUEEN); sliders != 0; sliders &= sliders - 1) {
+            int from = Long.numberOfTrailingZeros(sliders);
+            long targets = bishopAttacks(from, occ) & targetMask;
+            if ((pinned & bit(from)) != 0) {
+                targets &= LINE[ksq][from];
+            }
+            n = addTargets(moves, n, from, targets, enemy);
+        }
+        for (long sliders = pos.pieces(us, ROOK) | pos.pieces(us, QUEEN); sliders != 0; sliders &= sliders - 1) {
+            int from = Long.numberOfTrailingZeros(sliders);
+            long targets = rookAttacks(from, occ) & targetMask;
+            if ((pinned & bit(from)) != 0) {
+                targets &= LINE[ksq][from];
+            }
+            n = addTargets(moves, n, from, targets, enemy);
+        }
+
+        n = generatePawnMoves(pos, moves, n, us, ksq, pinned, evasionMask, enemy, quiets);
+
+        if (quiets && !evading) {
+            n = generateCastling(pos, moves, n, us, occ);
+        }
+        return n - offset;
+    }
+
+    private static int addTargets(int[] moves, int n, int from, long targets, long enemy) {
+        for (; targets != 0; targets &= targets - 1) {
+            int to = Long.numberOfTrailingZeros(targets);
+            moves[n++] = Moves.of(from, to, (enemy & bit(to)) != 0 ? Moves.CAPTURE : Moves.QUIET);
+        }
+        return n;
+    }
+
+    private static int generatePawnMoves(Position pos, int[] moves, int n, int us, int ksq, long pinned,
+                                         long evasionMask, long enemy, boolean quiets) {
+        long empty = ~pos.occupied();
+        long promotionRank = us == WHITE ? RANK_8 : RANK_1;
+        long startRank = us == WHITE ? RANK_2 : RANK_7;
+        int forward = us == WHITE ? 8 : -8;
+
+        for (long pawns = pos.pieces(us, PAWN); pawns != 0; pawns &= pawns - 1) {
+            int from = Long.numberOfTrailingZeros(pawns);
+            long pinMask = (pinned & bit(from)) != 0 ? LINE[ksq][from] : ~0L;
+            long allowed = pinMask & evasionMask;
+
+            long single = pawnPushes(us, bit(from), empty);
+            if ((single & allowed & promotionRank) != 0) {
+                n = addPromotions(moves, n, from, from + forward, false);
+            } else if (quiets && (single & allowed) != 0) {
+                moves[n++] = Moves.of(from, from + forward, Moves.QUIET);
+            }
+            if (quiets && single != 0 && (bit(from) & startRank) != 0) {
+                long dbl = pawnPushes(us, single, empty) & allowed;
+                if (dbl != 0) {
+                    moves[n++] = Moves.of(from, from + 2 * forward, Moves.DOUBLE_PUSH);
+                }
+            }
+
+            for (long caps = PAWN_ATTACKS[us][from] & enemy & allowed; caps != 0; caps &= caps - 1) {
+                int to = Long.numberOfTrailingZeros(caps);
+                if ((bit(to) & promotionRank) != 0) {
+                    n = addPromotions(moves, n, from, to, true);
+                } else {
+                    moves[n++] = Moves.of(from, to, Moves.CAPTURE);
+                }
+            }
+        }
+
+        int ep = pos.epSquare();
+        if (ep != NO_SQUARE) {
+            for (long candidates = PAWN_ATTACKS[us ^ 1][ep] & pos.pieces(us, PAWN); candidates != 0;
+                 candidates &= candidates - 1) {
+                int from = Long.numberOfTrailingZeros(candidates);
+                if (isLegalEnPassant(pos, us, ksq, from, ep)) {
+                    moves[n++] = Moves.of(from, ep, Moves.EP_CAPTURE);
+                }
+            }
+        }
+        return n;
+    }
+
+    private static int addPromotions(int[] moves, int n, int from, int to, boolean capture) {
+        moves[n++] = Moves.promotion(from, to, QUEEN, capture);
+        moves[n++] = Moves.promotion(from, to, KNIGHT, capture);
+        moves[n++] = Moves.promotion(from, to, ROOK, capture);
+        moves[n++] = Moves.promotion(from, to, BISHOP, capture);
+        return n;
+    }
+
+    // En passant removes two pawns from one rank, so the usual pin test is not enough
+    private static boolean isLegalEnPassant(Position pos, int us, int ksq, int from, int ep) {
+        int them = us ^ 1;
+        int captured = ep + (us == WHITE ? -8 : 8);
+        long occ = (pos.occupied() ^ bit(from) ^ bit(captured)) | bit(ep);
+        long rooks = pos.pieces(them, ROOK) | pos.pieces(them, QUEEN);
+        long bishops = pos.pieces(them, BISHOP) | pos.pieces(them, QUEEN);
+        return (rookAttacks(ksq, occ) & rooks) == 0
+                && (bishopAttacks(ksq, occ) & bishops) == 0
+                && (KNIGHT_ATTACKS[ksq] & pos.pieces(them, KNIGHT)) == 0
+                && (PAWN_ATTACKS[us][ksq] & pos.pieces(them, PAWN) & ~bit(captured)) == 0;
+    }
+
+    private static int generateCastling(Position pos, int[] moves, int n, int us, long occ) {
+        int rights = pos.castlingRights();
+        int them = us ^ 1;
+        int rank = us == WHITE ? 0 : 7;
+        int king = square(4, rank);
+        int kingside = us == WHITE ? WHITE_KINGSIDE : BLACK_KINGSIDE;
+        int queenside = us == WHITE ? WHITE_QUEENSIDE : BLACK_QUEENSIDE;
+        int rook = piece(us, ROOK);
+        if (pos.kingSquare(us) != king) {
+            return n;
+        }
+
+        if ((rights & kingside) != 0 && pos.pieceAt(square(7, rank)) == rook
+                && (occ & (bit(square(5, rank)) | bit(square(6, rank)))) == 0
+                && !pos.isSquareAttacked(square(5, rank), them, occ)
+                && !pos.isSquareAttacked(square(6, rank), them, occ)) {
+            moves[n++] = Moves.of(king, square(6, rank), Moves.KING_CASTLE);
+        }
+        if ((rights & queenside) != 0 && pos.pieceAt(square(0, rank)) == rook
+                && (occ & (bit(square(1, rank)) | bit(square(2, rank)) | bit(square(3, rank)))) == 0
+                && !pos.isSquareAttacked(square(3, rank), them, occ)
+                && !pos.isSquareAttacked(square(2, rank), them, occ)) {
+            moves[n++] = Moves.of(king, square(2, rank), Moves.QUEEN_CASTLE);
+        }
+        return n;
+    }
+}
@@ -2,28 +2,267 @@ package com.example.daniel;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.Arrays;
 
+// Move list in SAN, one row per move number. Rows are fixed size and drawn by a single renderer,
+// so JList lays out and paints only the visible rows however long the game is. Moves after the
+// current ply stay listed, greyed out, until a different move replaces them.
 public class MoveHistory extends JPanel {
-    private JTextArea historyArea;
+    public interface PlyListener {
+        // ply is the number of moves played to reach the position after the clicked move
+        void plySelected(int ply);
+    }
+
+    private static final int NUMBER_WIDTH = 48;
+    private static final int MOVE_WIDTH = 72;
+    private static final Color CURRENT_COLOR = new Color(255, 255, 0, 128);
+    private static final Color FUTURE_COLOR = Color.GRAY;
+
+    private final MoveListModel model = new MoveListModel();
+    private final JList<Integer> list = new JList<>(model);
+    private int currentPly;
+    private PlyListener listener;
 
     public MoveHistory() {
         setLayout(new BorderLayout());
         setBorder(BorderFactory.createTitledBorder("Historial de Movimientos"));
 
-        historyArea = new JTextArea(10, 20);
-        historyArea.setEditable(false);
-        historyArea.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        list.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        list.setCellRenderer(new RowRenderer());
+        // Fixed cell sizes: the list never measures its rows
+        list.setFixedCellHeight(list.getFontMetrics(list.getFont()).getHeight() + 2);
+        list.setFixedCellWidth(NUMBER_WIDTH + 2 * MOVE_WIDTH);
+        list.setVisibleRowCount(10);
+        list.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int row = list.locationToIndex(e.getPoint());
+                if (row < 0 || listener == null || !list.getCellBounds(row, row).contains(e.getPoint())) {
+                    return;
+                }
+                int x = e.getX() - list.getCellBounds(row, row).x;
+                int ply = model.plyAt(row, x >= NUMBER_WIDTH + MOVE_WIDTH ? Position.BLACK : Position.WHITE);
+                if (ply >= 0 && ply < model.size) {
+                    listener.plySelected(ply + 1);
+                }
+            }
+        });
 
-        JScrollPane scrollPane = new JScrollPane(historyArea);
+        JScrollPane scrollPane = new JScrollPane(list);
         add(scrollPane, BorderLayout.CENTER);
     }
 
-    public void addMove(String move) {
-        historyArea.append(move + "\n");
-        historyArea.setCaretPosition(historyArea.getDocument().getLength());
+    public void setPlyListener(PlyListener listener) {
+        this.listener = listener;
+    }
+
+    // Numbering follows the position the game starts from
+    public void clear(Position start) {
+        model.reset(start.fullmoveNumber(), start.sideToMove() == Position.BLACK);
+        currentPly = 0;
     }
 
     public void clear() {
-        historyArea.setText("");
+        clear(Position.startPosition());
+    }
+
+    // Records move, played at the current ply, and makes it current. Later moves are kept when it
+    // is the one already recorded next, and dropped otherwise.
+    public void addMove(int move, String san) {
+        if (currentPly < model.size && model.moves[currentPly] != move) {
+            model.truncate(currentPly);
+        }
+        if (currentPly == model.size) {
+            model.add(move, san);
+        }
+        setCurrentPly(currentPly + 1);
+    }
+
+    // Takes the current ply back and forgets the moves from it on
+    public void removeLast() {
+        if (currentPly > 0) {
+            model.truncate(currentPly - 1);
+            setCurrentPly(currentPly - 1);
+        }
+    }
+
+    // Replaces the whole list in one model event, e.g. after loading a game
+    public void setMoves(Position start, int[] moves, String[] sans) {
+        clear(start);
+        model.addAll(moves, sans);
+        setCurrentPly(moves.length);
+    }
+
+    public void setCurrentPly(int ply) {
+        int old = currentPly;
+        currentPly = ply;
+        model.rowChanged(old);
+        model.rowChanged(ply);
+        if (ply > 0) {
+            list.ensureIndexIsVisible(model.rowOf(ply - 1));
+        }
+    }
+
+    public int getCurrentPly() {
+        return currentPly;
+    }
+
+    public int plyCount() {
+        return model.size;
+    }
+
+    // Encoded move played at ply, counting from 0
+    public int moveAt(int ply) {
+        return model.moves[ply];
+    }
+
+    // Rows hold full moves; element values are row indices, the renderer reads the arrays directly
+    private static final class MoveListModel extends AbstractListModel<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private int[] moves = new int[64];
+        private String[] sans = new String[64];
+        private int size;
+        private int firstNumber = 1;
+        // 1 when the game starts with black to move, so the first row has only a black move
+        private int offset;
+
+        void reset(int firstNumber, boolean blackFirst) {
+            int rows = getSize();
+            size = 0;
+            this.firstNumber = firstNumber;
+            offset = blackFirst ? 1 : 0;
+            if (rows > 0) {
+                fireIntervalRemoved(this, 0, rows - 1);
+            }
+        }
+
+        void add(int move, String san) {
+            int rows = getSize();
+            ensureCapacity(size + 1);
+            moves[size] = move;
+            sans[size++] = san;
+            if (getSize() > rows) {
+                fireIntervalAdded(this, rows, rows);
+            } else {
+                fireContentsChanged(this, rows - 1, rows - 1);
+            }
+        }
+
+        void addAll(int[] added, String[] addedSans) {
+            int rows = getSize();
+            ensureCapacity(size + added.length);
+            System.arraycopy(added, 0, moves, size, added.length);
+            System.arraycopy(addedSans, 0, sans, size, added.length);
+            size += added.length;
+            if (getSize() > rows) {
+                fireIntervalAdded(this, rows, getSize() - 1);
+            }
+        }
+
+        void truncate(int plies) {
+            if (plies >= size) {
+                return;
+            }
+            int rows = getSize();
+            Arrays.fill(sans, plies, size, null);
+            size = plies;
+            if (getSize() < rows) {
+                fireIntervalRemoved(this, getSize(), rows - 1);
+            }
+            if (getSize() > 0) {
+                fireContentsChanged(this, getSize() - 1, getSize() - 1);
+            }
+        }
+
+        void rowChanged(int ply) {
+            if (ply > 0 && ply <= size) {
+                int row = rowOf(ply - 1);
+                fireContentsChanged(this, row, row);
+            }
+        }
+
+        int rowOf(int ply) {
+            return (ply + offset) / 2;
+        }
+
+        // Ply played by color in row, which may be outside the recorded moves
+        int plyAt(int row, int color) {
+            return row * 2 + color - offset;
+        }
+
+        String sanAt(int ply) {
+            return ply >= 0 && ply < size ? sans[ply] : null;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > moves.length) {
+                int grown = Math.max(capacity, moves.length * 2);
+                moves = Arrays.copyOf(moves, grown);
+                sans = Arrays.copyOf(sans, grown);
+            }
+        }
+
+        @Override
+        public int getSize() {
+            return (size + offset + 1) / 2;
+        }
+
+        @Override
+        public Integer getElementAt(int index) {
+            return index;
+        }
+    }
+
+    // Paints "12.  Nf3  Nc6" at fixed column offsets, marking the current move and greying later ones
+    private final class RowRenderer extends JComponent implements ListCellRenderer<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private int row;
+
+        RowRenderer() {
+            setOpaque(true);
+        }
+
+        @Override
+        public Component getListCellRendererComponent(JList<? extends Integer> list, Integer value, int index,
+                                                      boolean isSelected, boolean cellHasFocus) {
+            row = index;
+            setFont(list.getFont());
+            setBackground(list.getBackground());
+            setForeground(list.getForeground());
+            return this;
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            g.setColor(getBackground());
+            g.fillRect(0, 0, getWidth(), getHeight());
+            g.setFont(getFont());
+            FontMetrics metrics = g.getFontMetrics();
+            int baseline = (getHeight() - metrics.getHeight()) / 2 + metrics.getAscent();
+            g.setColor(getForeground());
+            g.drawString((model.firstNumber + row) + ".", 4, baseline);
+            for (int color = Position.WHITE; color <= Position.BLACK; color++) {
+                int ply = model.plyAt(row, color);
+                String san = model.sanAt(ply);
+                int x = NUMBER_WIDTH + color * MOVE_WIDTH;
+                if (san == null) {
+                    if (ply < 0) {
+                        g.setColor(getForeground());
+                        g.drawString("...", x, baseline);
+                    }
+                    continue;
+                }
+                if (ply == currentPly - 1) {
+                    g.setColor(CURRENT_COLOR);
+                    g.fillRect(x - 2, 0, MOVE_WIDTH - 4, getHeight());
+                }
+                g.setColor(ply < currentPly ? getForeground() : FUTURE_COLOR);
+                g.drawString(san, x, baseline);
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,79 @@
+package com.example.daniel;
+
+// Moves are packed into an int: bits 0-5 from, 6-11 to, 12-15 flags
+public final class Moves {
+    public static final int NONE = 0;
+
+    public static final int QUIET = 0;
+    public static final int DOUBLE_PUSH = 1;
+    public static final int KING_CASTLE = 2;
+    public static final int QUEEN_CASTLE = 3;
+    public static final int CAPTURE = 4;
+    public static final int EP_CAPTURE = 5;
+    public static final int PROMOTION = 8;
+    public static final int PROMOTION_CAPTURE = 12;
+
+    private static final char[] PROMOTION_CHARS = {'n', 'b', 'r', 'q'};
+
+    private Moves() {
+    }
+
+    public static int of(int from, int to, int flags) {
+        return from | (to << 6) | (flags << 12);
+    }
+
+    public static int promotion(int from, int to, int type, boolean capture) {
+        return of(from, to, (capture ? PROMOTION_CAPTURE : PROMOTION) | (type - Position.KNIGHT));
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 63;
+    }
+
+    public static int flags(int move) {
+        return (move >>> 12) & 15;
+    }
+
+    public static boolean isCapture(int move) {
+        return (flags(move) & CAPTURE) != 0;
+    }
+
+    public static boolean isPromotion(int move) {
+        return (flags(move) & PROMOTION) != 0;
+    }
+
+    public static boolean isCastle(int move) {
+        int flags = flags(move);
+        return flags == KING_CASTLE || flags == QUEEN_CASTLE;
+    }
+
+    public static int promotionType(int move) {
+        return (flags(move) & 3) + Position.KNIGHT;
+    }
+
+    public static String toUci(int move) {
+        if (move == NONE) {
+            return "0000";
+        }
+        StringBuilder sb = new StringBuilder(5);
+        appendSquare(sb, from(move));
+        appendSquare(sb, to(move));
+        if (isPromotion(move)) {
+            sb.append(PROMOTION_CHARS[promotionType(move) - Position.KNIGHT]);
+        }
+        return sb.toString();
+    }
+
+    public static String squareName(int square) {
+        return new StringBuilder(2).append((char) ('a' + Bitboards.file(square)))
+                .append((char) ('1' + Bitboards.rank(square))).toString();
+    }
+
+    private static void appendSquare(StringBuilder sb, int square) {
+        sb.append((char) ('a' + Bitboards.file(square))).append((char) ('1' + Bitboards.rank(square)));
+    }
+}
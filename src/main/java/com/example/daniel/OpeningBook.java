@@ -0,0 +1,190 @@
+package com.example.daniel;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Polyglot-layout book: 16-byte big-endian entries (key, move, weight, learn) sorted by unsigned key.
+// The file is memory-mapped and binary searched in place, so opening costs the same for any size
+// and only the pages touched by probes are ever read. Keys come from key(): Polyglot's own when its
+// Random64 table is on the class path (see PolyglotKey), so standard books load, and this engine's
+// Zobrist keys otherwise. Without the table, standard books are recognised by their start position
+// key and refused, rather than loaded to never match a position.
+public final class OpeningBook implements Closeable {
+    static final int ENTRY_SIZE = 16;
+    // Mapped in slices below the 2 GB buffer limit; a whole number of entries each
+    private static final int SEGMENT_ENTRIES = 1 << 26;
+    // Move list for probe(), one per thread, so probing allocates nothing
+    private static final ThreadLocal<int[]> MOVES = ThreadLocal.withInitial(() -> new int[MoveGen.MAX_MOVES]);
+    // The start position under Polyglot's standard keys
+    static final long POLYGLOT_START_KEY = 0x463B96181691FC9CL;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final long entryCount;
+
+    public static final class Entry {
+        public final int move;
+        public final int weight;
+
+        Entry(int move, int weight) {
+            this.move = move;
+            this.weight = weight;
+        }
+    }
+
+    private OpeningBook(FileChannel channel) throws IOException {
+        this.channel = channel;
+        long size = channel.size();
+        if (size % ENTRY_SIZE != 0) {
+            throw new IOException("Libro de aperturas dañado: tamaño " + size);
+        }
+        entryCount = size / ENTRY_SIZE;
+        int count = (int) ((entryCount + SEGMENT_ENTRIES - 1) / SEGMENT_ENTRIES);
+        segments = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long offset = (long) i * SEGMENT_ENTRIES * ENTRY_SIZE;
+            segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(size - offset,
+                    (long) SEGMENT_ENTRIES * ENTRY_SIZE));
+            segments[i].order(ByteOrder.BIG_ENDIAN);
+        }
+    }
+
+    public static OpeningBook open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            OpeningBook book = new OpeningBook(channel);
+            if (!PolyglotKey.available() && book.contains(POLYGLOT_START_KEY)
+                    && !book.contains(Position.startPosition().key())) {
+                throw new IOException("Libro Polyglot con claves estándar, no compatible con este motor;"
+                        + " genérelo desde PGN con BookBuilder");
+            }
+            return book;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public long size() {
+        return entryCount;
+    }
+
+    // Book moves for pos that are legal there, best weighted first as stored; for display, the
+    // engine plays through probe()
+    public List<Entry> entries(Position pos) {
+        List<Entry> entries = new ArrayList<>(4);
+        long key = key(pos);
+        long i = lowerBound(key);
+        if (i == entryCount || keyAt(i) != key) {
+            return entries;
+        }
+        int[] moves = new int[MoveGen.MAX_MOVES];
+        int count = MoveGen.generate(pos, moves, 0);
+        for (; i < entryCount && keyAt(i) == key; i++) {
+            int move = decode(pos, shortAt(i, 8), moves, count);
+            int weight = shortAt(i, 10);
+            // Hash collisions or a stale book can point at moves that are not legal here
+            if (move != Moves.NONE && weight > 0) {
+                entries.add(new Entry(move, weight));
+            }
+        }
+        return entries;
+    }
+
+    // A legal book move chosen with probability proportional to its weight, or Moves.NONE. One pass
+    // over the mapped entries: each move replaces the pick so far with probability weight / total.
+    public int probe(Position pos, Random random) {
+        long key = key(pos);
+        long i = lowerBound(key);
+        if (i == entryCount || keyAt(i) != key) {
+            return Moves.NONE;
+        }
+        int[] moves = MOVES.get();
+        int count = MoveGen.generate(pos, moves, 0);
+        int total = 0;
+        int pick = Moves.NONE;
+        for (; i < entryCount && keyAt(i) == key; i++) {
+            int weight = shortAt(i, 10);
+            int move = weight > 0 ? decode(pos, shortAt(i, 8), moves, count) : Moves.NONE;
+            if (move != Moves.NONE) {
+                total += weight;
+                if (random.nextInt(total) < weight) {
+                    pick = move;
+                }
+            }
+        }
+        return pick;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // The key books are written and probed with
+    static long key(Position pos) {
+        return PolyglotKey.available() ? PolyglotKey.of(pos) : pos.key();
+    }
+
+    // Polyglot move: to file, to rank, from file, from rank in 3 bits each, then the promotion piece.
+    // Castling is written as the king taking its own rook.
+    static int encode(int move) {
+        int from = Moves.from(move);
+        int to = Moves.to(move);
+        if (Moves.flags(move) == Moves.KING_CASTLE) {
+            to = Bitboards.square(7, Bitboards.rank(from));
+        } else if (Moves.flags(move) == Moves.QUEEN_CASTLE) {
+            to = Bitboards.square(0, Bitboards.rank(from));
+        }
+        int promotion = Moves.isPromotion(move) ? Moves.promotionType(move) : 0;
+        return Bitboards.file(to) | Bitboards.rank(to) << 3 | Bitboards.file(from) << 6
+                | Bitboards.rank(from) << 9 | promotion << 12;
+    }
+
+    private static int decode(Position pos, int code, int[] moves, int count) {
+        for (int i = 0; i < count; i++) {
+            if (encode(moves[i]) == code) {
+                return moves[i];
+            }
+        }
+        return Moves.NONE;
+    }
+
+    private boolean contains(long key) {
+        long i = lowerBound(key);
+        return i < entryCount && keyAt(i) == key;
+    }
+
+    // First entry whose key is not below key, comparing keys unsigned as the format requires
+    private long lowerBound(long key) {
+        long lo = 0;
+        long hi = entryCount;
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            if (Long.compareUnsigned(keyAt(mid), key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // Absolute reads only, so concurrent probes never share buffer position state
+    private long keyAt(long entry) {
+        return segments[(int) (entry / SEGMENT_ENTRIES)].getLong((int) (entry % SEGMENT_ENTRIES) * ENTRY_SIZE);
+    }
+
+    private int shortAt(long entry, int offset) {
+        return segments[(int) (entry / SEGMENT_ENTRIES)]
+                .getShort((int) (entry % SEGMENT_ENTRIES) * ENTRY_SIZE + offset) & 0xFFFF;
+    }
+}
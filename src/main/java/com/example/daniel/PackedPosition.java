@@ -0,0 +1,48 @@
+package com.example.daniel;
+
+// A position in four longs: occupancy, then a 4-bit piece code per occupied square in square
+// order (at most 32 pieces) over two longs, then side to move, castling, en passant and the move
+// counters. Move history is not kept, so an unpacked position sees no repetitions.
+final class PackedPosition {
+    static final int LONGS = 4;
+
+    private PackedPosition() {
+    }
+
+    static void pack(Position pos, long[] dest, int offset) {
+        long occupied = pos.occupied();
+        long low = 0;
+        long high = 0;
+        int n = 0;
+        for (long bb = occupied; bb != 0; bb &= bb - 1, n++) {
+            long code = pos.pieceAt(Long.numberOfTrailingZeros(bb));
+            if (n < 16) {
+                low |= code << (4 * n);
+            } else {
+                high |= code << (4 * (n - 16));
+            }
+        }
+        dest[offset] = occupied;
+        dest[offset + 1] = low;
+        dest[offset + 2] = high;
+        dest[offset + 3] = pos.sideToMove() | (long) pos.castlingRights() << 1 | (long) (pos.epSquare() + 1) << 5
+                | (long) pos.halfmoveClock() << 12 | (long) pos.fullmoveNumber() << 32;
+    }
+
+    static void unpack(long[] src, int offset, Position pos) {
+        pos.clear();
+        long low = src[offset + 1];
+        long high = src[offset + 2];
+        int n = 0;
+        for (long bb = src[offset]; bb != 0; bb &= bb - 1, n++) {
+            long nibbles = n < 16 ? low >>> (4 * n) : high >>> (4 * (n - 16));
+            pos.putPiece((int) (nibbles & 15), Long.numberOfTrailingZeros(bb));
+        }
+        long state = src[offset + 3];
+        pos.setSideToMove((int) (state & 1));
+        pos.setCastlingRights((int) (state >>> 1 & 15));
+        pos.setEpSquare((int) (state >>> 5 & 127) - 1);
+        pos.setHalfmoveClock((int) (state >>> 12 & 0xFFFFF));
+        pos.setFullmoveNumber((int) (state >>> 32));
+    }
+}
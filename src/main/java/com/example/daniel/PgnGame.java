@@ -0,0 +1,57 @@
+package com.example.daniel;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// One game from a PGN file: tag pairs in file order, starting position and the moves played
+public final class PgnGame {
+    private final Map<String, String> tags;
+    private final Position start;
+    private final int[] moves;
+    private final String result;
+
+    public PgnGame(Map<String, String> tags, Position start, int[] moves, String result) {
+        this.tags = Collections.unmodifiableMap(new LinkedHashMap<>(tags));
+        this.start = new Position();
+        this.start.copyFrom(start);
+        this.moves = moves;
+        this.result = result;
+    }
+
+    public Map<String, String> tags() {
+        return tags;
+    }
+
+    public String tag(String name) {
+        return tags.get(name);
+    }
+
+    // A copy, so callers may play moves on it
+    public Position start() {
+        Position copy = new Position();
+        copy.copyFrom(start);
+        return copy;
+    }
+
+    public int[] moves() {
+        return moves;
+    }
+
+    public int moveCount() {
+        return moves.length;
+    }
+
+    // "1-0", "0-1", "1/2-1/2" or "*"
+    public String result() {
+        return result;
+    }
+
+    public Position finalPosition() {
+        Position pos = start();
+        for (int move : moves) {
+            pos.makeMove(move);
+        }
+        return pos;
+    }
+}
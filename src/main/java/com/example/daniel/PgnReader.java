@@ -0,0 +1,358 @@
+package com.example.daniel;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// Streams games out of a PGN file in file order. The calling thread splits the text into games;
+// with more than one thread, batches of games are decoded on a worker pool while the next ones
+// are read. At most a few batches per worker are in flight, so memory stays bounded whatever
+// the file size. A game that cannot be read (bad FEN, illegal move) is skipped and handed to the
+// error handler, so one corrupt game does not end an import of millions.
+public final class PgnReader implements Iterator<PgnGame>, Closeable {
+    private static final int BATCH_GAMES = 64;
+    private static final int BATCHES_PER_THREAD = 4;
+
+    private final BufferedReader in;
+    private final ExecutorService workers;
+    private final int window;
+    private final ArrayDeque<Future<Batch>> pending = new ArrayDeque<>();
+    private Iterator<PgnGame> current;
+    private String nextGameLine;
+    private boolean eof;
+    private long gamesRead;
+    private long errors;
+    private Consumer<IllegalArgumentException> errorHandler = e -> {
+    };
+
+    public PgnReader(Reader in) {
+        this(in, 1);
+    }
+
+    public PgnReader(Reader in, int threads) {
+        this.in = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in, 1 << 16);
+        if (threads > 1) {
+            workers = Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "pgn-parser");
+                t.setDaemon(true);
+                return t;
+            });
+            window = threads * BATCHES_PER_THREAD;
+        } else {
+            workers = null;
+            window = 1;
+        }
+    }
+
+    // Undecodable bytes are replaced rather than failing the whole import
+    public static PgnReader open(Path path, int threads) throws IOException {
+        return new PgnReader(new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8), threads);
+    }
+
+    public static Stream<PgnGame> games(Path path, int threads) throws IOException {
+        return open(path, threads).stream();
+    }
+
+    // Called on the reading thread, in file order, with each game skipped; the message names it
+    public PgnReader onError(Consumer<IllegalArgumentException> handler) {
+        this.errorHandler = handler;
+        return this;
+    }
+
+    // Games skipped so far
+    public long errors() {
+        return errors;
+    }
+
+    public Stream<PgnGame> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this,
+                Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(this::close);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (current == null || !current.hasNext()) {
+            fill();
+            if (pending.isEmpty()) {
+                return false;
+            }
+            Batch batch = await(pending.poll());
+            for (IllegalArgumentException e : batch.errors) {
+                errors++;
+                errorHandler.accept(e);
+            }
+            current = batch.games.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public PgnGame next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    @Override
+    public void close() {
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+        try {
+            in.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void fill() {
+        while (!eof && pending.size() < window) {
+            List<String> batch = new ArrayList<>(BATCH_GAMES);
+            try {
+                String chunk;
+                while (batch.size() < BATCH_GAMES && (chunk = readGameText()) != null) {
+                    batch.add(chunk);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (batch.size() < BATCH_GAMES) {
+                eof = true;
+            }
+            if (batch.isEmpty()) {
+                break;
+            }
+            long first = gamesRead + 1;
+            gamesRead += batch.size();
+            pending.add(workers == null
+                    ? CompletableFuture.completedFuture(parseBatch(batch, first))
+                    : workers.submit(() -> parseBatch(batch, first)));
+        }
+    }
+
+    private static Batch await(Future<Batch> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // Text of the next game, from its first tag to the end of its movetext; null at end of input
+    private String readGameText() throws IOException {
+        StringBuilder sb = new StringBuilder(1024);
+        boolean content = false;
+        boolean inMoves = false;
+        if (nextGameLine != null) {
+            sb.append(nextGameLine).append('\n');
+            nextGameLine = null;
+            content = true;
+        }
+        String line;
+        while ((line = in.readLine()) != null) {
+            String trimmed = line.strip();
+            if (!trimmed.isEmpty() && trimmed.charAt(0) == '\uFEFF') {
+                trimmed = trimmed.substring(1);
+                line = trimmed;
+            }
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (trimmed.charAt(0) == '[') {
+                if (inMoves) {
+                    nextGameLine = line;
+                    break;
+                }
+            } else if (trimmed.charAt(0) != '%') {
+                inMoves = true;
+            }
+            sb.append(line).append('\n');
+            content = true;
+        }
+        return content ? sb.toString() : null;
+    }
+
+    private static Batch parseBatch(List<String> texts, long firstNumber) {
+        Batch batch = new Batch(texts.size());
+        int[] buffer = new int[MoveGen.MAX_MOVES];
+        for (int i = 0; i < texts.size(); i++) {
+            long number = firstNumber + i;
+            try {
+                batch.games.add(parse(texts.get(i), number, buffer));
+            } catch (IllegalArgumentException e) {
+                batch.errors.add(e);
+            } catch (RuntimeException e) {
+                batch.errors.add(new IllegalArgumentException("Partida " + number + " ilegible: " + e, e));
+            }
+        }
+        return batch;
+    }
+
+    static PgnGame parse(String text) {
+        return parse(text, 1, new int[MoveGen.MAX_MOVES]);
+    }
+
+    private static PgnGame parse(String text, long number, int[] buffer) {
+        Map<String, String> tags = new LinkedHashMap<>();
+        int i = 0;
+        int n = text.length();
+        // Tag section: one [Name "value"] per line
+        while (i < n) {
+            int lineEnd = text.indexOf('\n', i);
+            if (lineEnd < 0) {
+                lineEnd = n;
+            }
+            String line = text.substring(i, lineEnd).strip();
+            if (!line.startsWith("[")) {
+                break;
+            }
+            parseTag(line, tags);
+            i = lineEnd + 1;
+        }
+
+        Position pos;
+        String fen = tags.get("FEN");
+        try {
+            pos = fen != null ? Fen.parse(fen) : Position.startPosition();
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("FEN inválido en la partida " + number + ": " + fen, e);
+        }
+        Position start = new Position();
+        start.copyFrom(pos);
+
+        int[] moves = new int[64];
+        int moveCount = 0;
+        String result = tags.getOrDefault("Result", "*");
+        while (i < n) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '{') {
+                int close = text.indexOf('}', i);
+                i = close < 0 ? n : close + 1;
+            } else if (c == ';' || c == '%') {
+                int close = text.indexOf('\n', i);
+                i = close < 0 ? n : close + 1;
+            } else if (c == '(') {
+                i = skipVariation(text, i);
+            } else if (c == '$') {
+                i++;
+                while (i < n && Character.isDigit(text.charAt(i))) {
+                    i++;
+                }
+            } else {
+                int end = i;
+                while (end < n && !Character.isWhitespace(text.charAt(end)) && "{}();$".indexOf(text.charAt(end)) < 0) {
+                    end++;
+                }
+                String token = text.substring(i, end);
+                i = end;
+                if (token.equals("1-0") || token.equals("0-1") || token.equals("1/2-1/2") || token.equals("*")) {
+                    result = token;
+                    continue;
+                }
+                token = stripMoveNumber(token);
+                if (token.isEmpty() || token.equals("e.p.") || token.chars().allMatch(ch -> ch == '!' || ch == '?')) {
+                    continue;
+                }
+                int count = MoveGen.generate(pos, buffer, 0);
+                int move = San.parse(pos, token, buffer, count);
+                if (move == Moves.NONE) {
+                    throw new IllegalArgumentException("Movimiento inválido '" + token + "' en la partida " + number);
+                }
+                if (moveCount == moves.length) {
+                    moves = Arrays.copyOf(moves, moveCount * 2);
+                }
+                moves[moveCount++] = move;
+                pos.makeMove(move);
+            }
+        }
+        return new PgnGame(tags, start, Arrays.copyOf(moves, moveCount), result);
+    }
+
+    private static void parseTag(String line, Map<String, String> tags) {
+        int space = line.indexOf(' ');
+        int open = line.indexOf('"');
+        int close = line.lastIndexOf('"');
+        if (space < 0 || open < 0 || close <= open) {
+            return;
+        }
+        String value = line.substring(open + 1, close).replace("\\\"", "\"").replace("\\\\", "\\");
+        tags.put(line.substring(1, space), value);
+    }
+
+    // Skips a parenthesised variation, including nested ones and comments inside it
+    private static int skipVariation(String text, int i) {
+        int depth = 0;
+        int n = text.length();
+        while (i < n) {
+            char c = text.charAt(i++);
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                if (--depth == 0) {
+                    return i;
+                }
+            } else if (c == '{') {
+                int close = text.indexOf('}', i);
+                i = close < 0 ? n : close + 1;
+            }
+        }
+        return n;
+    }
+
+    private static final class Batch {
+        final List<PgnGame> games;
+        final List<IllegalArgumentException> errors = new ArrayList<>(0);
+
+        Batch(int size) {
+            games = new ArrayList<>(size);
+        }
+    }
+
+    // "12." "12..." and "12.e4" all carry the move number first
+    private static String stripMoveNumber(String token) {
+        int i = 0;
+        while (i < token.length() && Character.isDigit(token.charAt(i))) {
+            i++;
+        }
+        if (i == 0 || i == token.length() || token.charAt(i) != '.') {
+            return i == token.length() ? "" : token;
+        }
+        while (i < token.length() && token.charAt(i) == '.') {
+            i++;
+        }
+        return token.substring(i);
+    }
+}
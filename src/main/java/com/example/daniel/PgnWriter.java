@@ -0,0 +1,96 @@
+package com.example.daniel;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+// Writes games one at a time, so output can be streamed to a file of any size
+public final class PgnWriter implements Closeable, Flushable {
+    private static final int LINE_LENGTH = 80;
+
+    private final Writer out;
+    private final int[] buffer = new int[MoveGen.MAX_MOVES];
+
+    public PgnWriter(Writer out) {
+        this.out = out;
+    }
+
+    public void write(PgnGame game) throws IOException {
+        boolean hasResult = false;
+        for (Map.Entry<String, String> tag : game.tags().entrySet()) {
+            writeTag(tag.getKey(), tag.getKey().equals("Result") ? game.result() : tag.getValue());
+            hasResult |= tag.getKey().equals("Result");
+        }
+        if (!hasResult) {
+            writeTag("Result", game.result());
+        }
+        Position pos = game.start();
+        // Games from a set-up position are only readable with their starting FEN
+        if (game.tag("FEN") == null && !Fen.toFen(pos).equals(Fen.START)) {
+            writeTag("SetUp", "1");
+            writeTag("FEN", Fen.toFen(pos));
+        }
+        out.write('\n');
+
+        StringBuilder line = new StringBuilder(LINE_LENGTH + 16);
+        int[] moves = game.moves();
+        for (int i = 0; i < moves.length; i++) {
+            if (!isLegal(pos, moves[i])) {
+                throw new IllegalArgumentException("Movimiento ilegal en la partida: " + Moves.toUci(moves[i]));
+            }
+            String token = San.toSan(pos, moves[i]);
+            if (pos.sideToMove() == Position.WHITE) {
+                token = pos.fullmoveNumber() + ". " + token;
+            } else if (i == 0) {
+                token = pos.fullmoveNumber() + "... " + token;
+            }
+            append(line, token);
+            pos.makeMove(moves[i]);
+        }
+        append(line, game.result());
+        out.write(line.toString());
+        out.write("\n\n");
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private boolean isLegal(Position pos, int move) {
+        int count = MoveGen.generate(pos, buffer, 0);
+        for (int i = 0; i < count; i++) {
+            if (buffer[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeTag(String name, String value) throws IOException {
+        out.write('[');
+        out.write(name);
+        out.write(" \"");
+        out.write(value.replace("\\", "\\\\").replace("\"", "\\\""));
+        out.write("\"]\n");
+    }
+
+    private void append(StringBuilder line, String token) throws IOException {
+        if (line.length() > 0 && line.length() + 1 + token.length() > LINE_LENGTH) {
+            out.write(line.toString());
+            out.write('\n');
+            line.setLength(0);
+        }
+        if (line.length() > 0) {
+            line.append(' ');
+        }
+        line.append(token);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.daniel;
+
+// The twelve pieces in Position's code order (type << 1 | color), so ordinal() == code
+public enum Piece {
+    WHITE_PAWN, BLACK_PAWN,
+    WHITE_KNIGHT, BLACK_KNIGHT,
+    WHITE_BISHOP, BLACK_BISHOP,
+    WHITE_ROOK, BLACK_ROOK,
+    WHITE_QUEEN, BLACK_QUEEN,
+    WHITE_KING, BLACK_KING;
+
+    private static final Piece[] BY_CODE = values();
+    private static final String[] NAMES = {"pawn", "knight", "bishop", "rook", "queen", "king"};
+    private static final String[] SYMBOLS = {"♙", "♟", "♘", "♞", "♗", "♝", "♖", "♜", "♕", "♛", "♔", "♚"};
+    private static final String FEN_CHARS = "PpNnBbRrQqKk";
+    // Capture points shown on the score board
+    private static final int[] POINTS = {1, 3, 3, 5, 9, 0};
+
+    public static Piece of(int code) {
+        return code == Position.NO_PIECE ? null : BY_CODE[code];
+    }
+
+    public static Piece of(int color, int type) {
+        return BY_CODE[Position.piece(color, type)];
+    }
+
+    // Accepts the names older save files stored, in any case; null if unknown
+    public static Piece fromName(String name, boolean white) {
+        for (int type = 0; type < NAMES.length; type++) {
+            if (NAMES[type].equalsIgnoreCase(name)) {
+                return of(white ? Position.WHITE : Position.BLACK, type);
+            }
+        }
+        return null;
+    }
+
+    public static Piece fromFen(char c) {
+        int code = FEN_CHARS.indexOf(c);
+        return code < 0 ? null : BY_CODE[code];
+    }
+
+    public int code() {
+        return ordinal();
+    }
+
+    public int type() {
+        return ordinal() >>> 1;
+    }
+
+    public int color() {
+        return ordinal() & 1;
+    }
+
+    public boolean isWhite() {
+        return color() == Position.WHITE;
+    }
+
+    public String pieceName() {
+        return NAMES[type()];
+    }
+
+    public String symbol() {
+        return SYMBOLS[ordinal()];
+    }
+
+    public char fenChar() {
+        return FEN_CHARS.charAt(ordinal());
+    }
+
+    public int points() {
+        return POINTS[type()];
+    }
+
+    public boolean isSlider() {
+        return type() >= Position.BISHOP && type() <= Position.QUEEN;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.daniel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Polyglot's book key, so standard .bin books can be read and written. Random64 has 781 entries:
+//   64 * kind + square   kinds bp, wp, bn, wn, bb, wb, br, wr, bq, wq, bk, wk; squares a1..h8
+//   768..771             castling rights white short, white long, black short, black long
+//   772 + file           en passant, only if a pawn of the side to move stands beside the pawn
+//                        that just moved two squares
+//   780                  white to move
+// The table is read from polyglot-random64.txt on the class path: the 781 numbers as printed in
+// the Polyglot book format description. Without it, books use this engine's own Zobrist keys.
+final class PolyglotKey {
+    static final int SIZE = 781;
+    static final String RESOURCE = "/polyglot-random64.txt";
+
+    private static final int CASTLING = 768;
+    private static final int EN_PASSANT = 772;
+    private static final int TURN = 780;
+    private static final long[] RANDOM64 = load();
+
+    private PolyglotKey() {
+    }
+
+    static boolean available() {
+        return RANDOM64 != null;
+    }
+
+    static long of(Position pos) {
+        return of(pos, RANDOM64);
+    }
+
+    static long of(Position pos, long[] random) {
+        long key = 0;
+        for (int color = Position.WHITE; color <= Position.BLACK; color++) {
+            for (int type = Position.PAWN; type <= Position.KING; type++) {
+                int base = 64 * (type << 1 | color ^ 1);
+                for (long bb = pos.pieces(color, type); bb != 0; bb &= bb - 1) {
+                    key ^= random[base + Long.numberOfTrailingZeros(bb)];
+                }
+            }
+        }
+        int rights = pos.castlingRights();
+        for (int i = 0; i < 4; i++) {
+            if ((rights & 1 << i) != 0) {
+                key ^= random[CASTLING + i];
+            }
+        }
+        // Polyglot asks only for a pawn beside the one that moved, not for a legal capture
+        int ep = pos.epSquare();
+        int us = pos.sideToMove();
+        if (ep != Position.NO_SQUARE && (Bitboards.PAWN_ATTACKS[us ^ 1][ep] & pos.pieces(us, Position.PAWN)) != 0) {
+            key ^= random[EN_PASSANT + Bitboards.file(ep)];
+        }
+        if (us == Position.WHITE) {
+            key ^= random[TURN];
+        }
+        return key;
+    }
+
+    private static long[] load() {
+        try (InputStream resource = PolyglotKey.class.getResourceAsStream(RESOURCE)) {
+            if (resource == null) {
+                return null;
+            }
+            return parse(new String(resource.readAllBytes(), StandardCharsets.US_ASCII));
+        } catch (IOException e) {
+            System.err.println("No se pudo leer " + RESOURCE + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    // A short or overlong table would give keys that silently never match, so it is refused
+    static long[] parse(String text) throws IOException {
+        long[] random = new long[SIZE];
+        int count = 0;
+        Matcher m = Pattern.compile("0x([0-9A-Fa-f]{16})").matcher(text);
+        while (m.find()) {
+            if (count == SIZE) {
+                throw new IOException("Tabla Random64 con más de " + SIZE + " números");
+            }
+            random[count++] = Long.parseUnsignedLong(m.group(1), 16);
+        }
+        if (count != SIZE) {
+            throw new IOException("Tabla Random64 incompleta: " + count + " de " + SIZE + " números");
+        }
+        return random;
+    }
+}
@@ -0,0 +1,577 @@
+package com.example.daniel;
+
+import java.util.Arrays;
+
+import static com.example.daniel.Bitboards.*;
+
+public final class Position {
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+
+    public static final int PAWN = 0;
+    public static final int KNIGHT = 1;
+    public static final int BISHOP = 2;
+    public static final int ROOK = 3;
+    public static final int QUEEN = 4;
+    public static final int KING = 5;
+
+    public static final int NO_PIECE = -1;
+    public static final int NO_SQUARE = -1;
+
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+
+    // Rights that survive a move touching each square
+    private static final int[] CASTLING_MASK = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_MASK, 15);
+        CASTLING_MASK[Bitboards.square(4, 0)] = ~(WHITE_KINGSIDE | WHITE_QUEENSIDE) & 15;
+        CASTLING_MASK[Bitboards.square(7, 0)] = ~WHITE_KINGSIDE & 15;
+        CASTLING_MASK[Bitboards.square(0, 0)] = ~WHITE_QUEENSIDE & 15;
+        CASTLING_MASK[Bitboards.square(4, 7)] = ~(BLACK_KINGSIDE | BLACK_QUEENSIDE) & 15;
+        CASTLING_MASK[Bitboards.square(7, 7)] = ~BLACK_KINGSIDE & 15;
+        CASTLING_MASK[Bitboards.square(0, 7)] = ~BLACK_QUEENSIDE & 15;
+    }
+
+    private final long[] pieceBB = new long[12];
+    private final long[] colorBB = new long[2];
+    private long occupied;
+    private final byte[] board = new byte[64];
+
+    private int sideToMove;
+    private int castlingRights;
+    private int epSquare;
+    private int halfmoveClock;
+    private int fullmoveNumber;
+    private long key;
+    private long pawnKey;
+    // Material and piece-square sums from white's side, and game phase, kept up to date by put/remove
+    private int mgScore;
+    private int egScore;
+    private int phase;
+
+    // Enemy pieces giving check to the side to move
+    private long checkers;
+    // Per king: pieces of either colour that alone block an enemy slider's line to it. Own pieces
+    // among them are pinned, the other side's pieces give discovered check when they move off the line.
+    // Computed on first use after each move, one bit per colour in blockersValid.
+    private final long[] blockers = new long[2];
+    private int blockersValid;
+    // Set by direct board edits, which leave checkers stale until the next query
+    private boolean dirty;
+
+    // Undo stack: captured piece + 1, castling rights, ep square + 1 and halfmove clock packed per ply
+    private int[] undoStack = new int[256];
+    // Zobrist key before each ply, restored on unmake and scanned for repetitions
+    private long[] keyHistory = new long[256];
+    // Checkers before each ply
+    private long[] checkersHistory = new long[256];
+    private int ply;
+
+    public Position() {
+        clear();
+    }
+
+    public static Position startPosition() {
+        Position pos = new Position();
+        int[] backRow = {ROOK, KNIGHT, BISHOP, QUEEN, KING, BISHOP, KNIGHT, ROOK};
+        for (int file = 0; file < 8; file++) {
+            pos.putPiece(piece(WHITE, backRow[file]), square(file, 0));
+            pos.putPiece(piece(WHITE, PAWN), square(file, 1));
+            pos.putPiece(piece(BLACK, PAWN), square(file, 6));
+            pos.putPiece(piece(BLACK, backRow[file]), square(file, 7));
+        }
+        pos.setCastlingRights(WHITE_KINGSIDE | WHITE_QUEENSIDE | BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        return pos;
+    }
+
+    public static int piece(int color, int type) {
+        return (type << 1) | color;
+    }
+
+    public static int typeOf(int piece) {
+        return piece >>> 1;
+    }
+
+    public static int colorOf(int piece) {
+        return piece & 1;
+    }
+
+    public void clear() {
+        Arrays.fill(pieceBB, 0L);
+        Arrays.fill(colorBB, 0L);
+        Arrays.fill(board, (byte) NO_PIECE);
+        occupied = 0L;
+        sideToMove = WHITE;
+        castlingRights = 0;
+        epSquare = NO_SQUARE;
+        halfmoveClock = 0;
+        fullmoveNumber = 1;
+        key = 0L;
+        pawnKey = 0L;
+        mgScore = 0;
+        egScore = 0;
+        phase = 0;
+        checkers = 0L;
+        blockersValid = 0;
+        dirty = false;
+        ply = 0;
+    }
+
+    public void copyFrom(Position other) {
+        System.arraycopy(other.pieceBB, 0, pieceBB, 0, pieceBB.length);
+        System.arraycopy(other.colorBB, 0, colorBB, 0, colorBB.length);
+        System.arraycopy(other.board, 0, board, 0, board.length);
+        occupied = other.occupied;
+        sideToMove = other.sideToMove;
+        castlingRights = other.castlingRights;
+        epSquare = other.epSquare;
+        halfmoveClock = other.halfmoveClock;
+        fullmoveNumber = other.fullmoveNumber;
+        key = other.key;
+        pawnKey = other.pawnKey;
+        mgScore = other.mgScore;
+        egScore = other.egScore;
+        phase = other.phase;
+        checkers = other.checkers;
+        blockers[WHITE] = other.blockers[WHITE];
+        blockers[BLACK] = other.blockers[BLACK];
+        blockersValid = other.blockersValid;
+        dirty = other.dirty;
+        if (undoStack.length < other.undoStack.length) {
+            undoStack = new int[other.undoStack.length];
+            keyHistory = new long[other.keyHistory.length];
+            checkersHistory = new long[other.checkersHistory.length];
+        }
+        System.arraycopy(other.undoStack, 0, undoStack, 0, other.ply);
+        System.arraycopy(other.keyHistory, 0, keyHistory, 0, other.ply);
+        System.arraycopy(other.checkersHistory, 0, checkersHistory, 0, other.ply);
+        ply = other.ply;
+    }
+
+    public void putPiece(int piece, int square) {
+        long b = bit(square);
+        pieceBB[piece] |= b;
+        colorBB[colorOf(piece)] |= b;
+        occupied |= b;
+        board[square] = (byte) piece;
+        key ^= Zobrist.PIECE_SQUARE[piece][square];
+        if (typeOf(piece) == PAWN) {
+            pawnKey ^= Zobrist.PIECE_SQUARE[piece][square];
+        }
+        mgScore += Evaluator.MG[piece][square];
+        egScore += Evaluator.EG[piece][square];
+        phase += Evaluator.PHASE[typeOf(piece)];
+        dirty = true;
+    }
+
+    public void removePiece(int square) {
+        int piece = board[square];
+        if (piece == NO_PIECE) {
+            return;
+        }
+        long b = bit(square);
+        pieceBB[piece] &= ~b;
+        colorBB[colorOf(piece)] &= ~b;
+        occupied &= ~b;
+        board[square] = (byte) NO_PIECE;
+        key ^= Zobrist.PIECE_SQUARE[piece][square];
+        if (typeOf(piece) == PAWN) {
+            pawnKey ^= Zobrist.PIECE_SQUARE[piece][square];
+        }
+        mgScore -= Evaluator.MG[piece][square];
+        egScore -= Evaluator.EG[piece][square];
+        phase -= Evaluator.PHASE[typeOf(piece)];
+        dirty = true;
+    }
+
+    public void movePiece(int from, int to) {
+        int piece = board[from];
+        removePiece(to);
+        removePiece(from);
+        putPiece(piece, to);
+    }
+
+    public int pieceAt(int square) {
+        return board[square];
+    }
+
+    public long pieces(int piece) {
+        return pieceBB[piece];
+    }
+
+    public long pieces(int color, int type) {
+        return pieceBB[piece(color, type)];
+    }
+
+    public long colorPieces(int color) {
+        return colorBB[color];
+    }
+
+    public long occupied() {
+        return occupied;
+    }
+
+    public int sideToMove() {
+        return sideToMove;
+    }
+
+    public void setSideToMove(int color) {
+        if (color != sideToMove) {
+            key ^= Zobrist.SIDE;
+            dirty = true;
+        }
+        sideToMove = color;
+    }
+
+    public int castlingRights() {
+        return castlingRights;
+    }
+
+    public void setCastlingRights(int rights) {
+        key ^= Zobrist.CASTLING[castlingRights] ^ Zobrist.CASTLING[rights];
+        castlingRights = rights;
+    }
+
+    public int epSquare() {
+        return epSquare;
+    }
+
+    public void setEpSquare(int square) {
+        key ^= Zobrist.ep(epSquare) ^ Zobrist.ep(square);
+        epSquare = square;
+    }
+
+    public int halfmoveClock() {
+        return halfmoveClock;
+    }
+
+    public void setHalfmoveClock(int clock) {
+        halfmoveClock = clock;
+    }
+
+    public int fullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    public void setFullmoveNumber(int number) {
+        fullmoveNumber = number;
+    }
+
+    public int ply() {
+        return ply;
+    }
+
+    public long key() {
+        return key;
+    }
+
+    long pawnKey() {
+        return pawnKey;
+    }
+
+    int mgScore() {
+        return mgScore;
+    }
+
+    int egScore() {
+        return egScore;
+    }
+
+    int phase() {
+        return phase;
+    }
+
+    // Full recomputation, used to check the incrementally maintained key
+    long computeKey() {
+        long k = Zobrist.CASTLING[castlingRights] ^ Zobrist.ep(epSquare);
+        if (sideToMove == BLACK) {
+            k ^= Zobrist.SIDE;
+        }
+        for (int sq = 0; sq < 64; sq++) {
+            if (board[sq] != NO_PIECE) {
+                k ^= Zobrist.PIECE_SQUARE[board[sq]][sq];
+            }
+        }
+        return k;
+    }
+
+    // Only positions with the same side to move since the last irreversible move can repeat
+    public boolean isRepetition() {
+        int end = Math.max(0, ply - halfmoveClock);
+        for (int i = ply - 4; i >= end; i -= 2) {
+            if (keyHistory[i] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void makeMove(int move) {
+        int from = Moves.from(move);
+        int to = Moves.to(move);
+        int flags = Moves.flags(move);
+        int piece = board[from];
+        int us = sideToMove;
+        int captureSquare = flags == Moves.EP_CAPTURE ? to + (us == WHITE ? -8 : 8) : to;
+        int captured = board[captureSquare];
+
+        growStacks();
+        saveCheckInfo();
+        keyHistory[ply] = key;
+        undoStack[ply++] = (captured + 1) | (castlingRights << 4) | ((epSquare + 1) << 8) | (halfmoveClock << 15);
+
+        halfmoveClock++;
+        if (captured != NO_PIECE) {
+            removePiece(captureSquare);
+            halfmoveClock = 0;
+        }
+        if (typeOf(piece) == PAWN) {
+            halfmoveClock = 0;
+        }
+
+        removePiece(from);
+        putPiece(Moves.isPromotion(move) ? piece(us, Moves.promotionType(move)) : piece, to);
+
+        if (flags == Moves.KING_CASTLE) {
+            movePiece(to + 1, to - 1);
+        } else if (flags == Moves.QUEEN_CASTLE) {
+            movePiece(to - 2, to + 1);
+        }
+
+        key ^= Zobrist.ep(epSquare);
+        epSquare = NO_SQUARE;
+        if (flags == Moves.DOUBLE_PUSH) {
+            // Only record the square when a capture is possible, so the key matches equal positions
+            int ep = (from + to) >>> 1;
+            if ((PAWN_ATTACKS[us][ep] & pieceBB[piece(us ^ 1, PAWN)]) != 0) {
+                epSquare = ep;
+                key ^= Zobrist.ep(ep);
+            }
+        }
+        key ^= Zobrist.CASTLING[castlingRights];
+        castlingRights &= CASTLING_MASK[from] & CASTLING_MASK[to];
+        key ^= Zobrist.CASTLING[castlingRights] ^ Zobrist.SIDE;
+        if (us == BLACK) {
+            fullmoveNumber++;
+        }
+        sideToMove = us ^ 1;
+        updateCheckers();
+    }
+
+    public void unmakeMove(int move) {
+        int from = Moves.from(move);
+        int to = Moves.to(move);
+        int flags = Moves.flags(move);
+        int us = sideToMove ^ 1;
+        int undo = undoStack[--ply];
+        int captured = (undo & 15) - 1;
+
+        sideToMove = us;
+        if (us == BLACK) {
+            fullmoveNumber--;
+        }
+
+        int piece = Moves.isPromotion(move) ? piece(us, PAWN) : board[to];
+        removePiece(to);
+        putPiece(piece, from);
+
+        if (flags == Moves.KING_CASTLE) {
+            movePiece(to - 1, to + 1);
+        } else if (flags == Moves.QUEEN_CASTLE) {
+            movePiece(to + 1, to - 2);
+        }
+        if (captured != NO_PIECE) {
+            putPiece(captured, flags == Moves.EP_CAPTURE ? to + (us == WHITE ? -8 : 8) : to);
+        }
+
+        castlingRights = (undo >>> 4) & 15;
+        epSquare = ((undo >>> 8) & 127) - 1;
+        halfmoveClock = undo >>> 15;
+        key = keyHistory[ply];
+        restoreCheckInfo();
+    }
+
+    // Passes the turn; only valid when the side to move is not in check
+    public void makeNullMove() {
+        growStacks();
+        saveCheckInfo();
+        keyHistory[ply] = key;
+        undoStack[ply++] = (castlingRights << 4) | ((epSquare + 1) << 8) | (halfmoveClock << 15);
+        key ^= Zobrist.ep(epSquare) ^ Zobrist.SIDE;
+        epSquare = NO_SQUARE;
+        halfmoveClock++;
+        sideToMove ^= 1;
+        // The side that just moved cannot have left the other king in check; blockers are unchanged
+        checkers = 0L;
+    }
+
+    public void unmakeNullMove() {
+        int undo = undoStack[--ply];
+        sideToMove ^= 1;
+        epSquare = ((undo >>> 8) & 127) - 1;
+        halfmoveClock = undo >>> 15;
+        key = keyHistory[ply];
+        restoreCheckInfo();
+    }
+
+    private void growStacks() {
+        if (ply == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, ply * 2);
+            keyHistory = Arrays.copyOf(keyHistory, ply * 2);
+            checkersHistory = Arrays.copyOf(checkersHistory, ply * 2);
+        }
+    }
+
+    private void saveCheckInfo() {
+        checkersHistory[ply] = checkers();
+    }
+
+    private void restoreCheckInfo() {
+        checkers = checkersHistory[ply];
+        blockersValid = 0;
+        dirty = false;
+    }
+
+    private void updateCheckers() {
+        int king = kingSquare(sideToMove);
+        checkers = king == NO_SQUARE ? 0L : attackersTo(king, occupied) & colorBB[sideToMove ^ 1];
+        blockersValid = 0;
+        dirty = false;
+    }
+
+    private long blockers(int color) {
+        if (dirty) {
+            updateCheckers();
+        }
+        if ((blockersValid & (1 << color)) == 0) {
+            blockers[color] = sliderBlockers(color);
+            blockersValid |= 1 << color;
+        }
+        return blockers[color];
+    }
+
+    private long sliderBlockers(int color) {
+        int king = kingSquare(color);
+        if (king == NO_SQUARE) {
+            return 0L;
+        }
+        int them = color ^ 1;
+        long snipers = (rookAttacks(king, 0L) & (pieceBB[piece(them, ROOK)] | pieceBB[piece(them, QUEEN)]))
+                | (bishopAttacks(king, 0L) & (pieceBB[piece(them, BISHOP)] | pieceBB[piece(them, QUEEN)]));
+        long result = 0L;
+        for (; snipers != 0; snipers &= snipers - 1) {
+            long between = BETWEEN[king][Long.numberOfTrailingZeros(snipers)] & occupied;
+            if (between != 0 && (between & (between - 1)) == 0) {
+                result |= between;
+            }
+        }
+        return result;
+    }
+
+    // Enemy pieces attacking the side to move's king
+    public long checkers() {
+        if (dirty) {
+            updateCheckers();
+        }
+        return checkers;
+    }
+
+    // Pieces of the given colour pinned to their own king
+    public long pinned(int color) {
+        return blockers(color) & colorBB[color];
+    }
+
+    // Whether the side to move gives check with a legal move, without making it
+    public boolean givesCheck(int move) {
+        int us = sideToMove;
+        int them = us ^ 1;
+        int king = kingSquare(them);
+        if (king == NO_SQUARE) {
+            return false;
+        }
+        int from = Moves.from(move);
+        int to = Moves.to(move);
+        int flags = Moves.flags(move);
+        int type = Moves.isPromotion(move) ? Moves.promotionType(move) : typeOf(board[from]);
+        long occ = (occupied ^ bit(from)) | bit(to);
+
+        // Direct check from the destination square
+        long attacks = switch (type) {
+            case PAWN -> PAWN_ATTACKS[us][to];
+            case KNIGHT -> KNIGHT_ATTACKS[to];
+            case BISHOP -> bishopAttacks(to, occ);
+            case ROOK -> rookAttacks(to, occ);
+            case QUEEN -> queenAttacks(to, occ);
+            default -> 0L;
+        };
+        if ((attacks & bit(king)) != 0) {
+            return true;
+        }
+        // Discovered check: the piece leaves an enemy king's line
+        if ((blockers(them) & bit(from)) != 0 && (LINE[from][king] & bit(to)) == 0) {
+            return true;
+        }
+        if (flags == Moves.EP_CAPTURE) {
+            // The captured pawn may also have been the only blocker
+            occ ^= bit(to + (us == WHITE ? -8 : 8));
+            return (rookAttacks(king, occ) & (pieceBB[piece(us, ROOK)] | pieceBB[piece(us, QUEEN)])) != 0
+                    || (bishopAttacks(king, occ) & (pieceBB[piece(us, BISHOP)] | pieceBB[piece(us, QUEEN)])) != 0;
+        }
+        if (Moves.isCastle(move)) {
+            int rookFrom = flags == Moves.KING_CASTLE ? to + 1 : to - 2;
+            int rookTo = flags == Moves.KING_CASTLE ? to - 1 : to + 1;
+            occ = (occupied ^ bit(from) ^ bit(rookFrom)) | bit(to) | bit(rookTo);
+            return (rookAttacks(rookTo, occ) & bit(king)) != 0;
+        }
+        return false;
+    }
+
+    public boolean hasNonPawnMaterial(int color) {
+        return (colorBB[color] & ~pieceBB[piece(color, PAWN)] & ~pieceBB[piece(color, KING)]) != 0;
+    }
+
+    public int kingSquare(int color) {
+        long king = pieceBB[piece(color, KING)];
+        return king == 0 ? NO_SQUARE : Long.numberOfTrailingZeros(king);
+    }
+
+    public long attackersTo(int square, long occ) {
+        return (PAWN_ATTACKS[BLACK][square] & pieceBB[piece(WHITE, PAWN)])
+                | (PAWN_ATTACKS[WHITE][square] & pieceBB[piece(BLACK, PAWN)])
+                | (KNIGHT_ATTACKS[square] & (pieceBB[piece(WHITE, KNIGHT)] | pieceBB[piece(BLACK, KNIGHT)]))
+                | (KING_ATTACKS[square] & (pieceBB[piece(WHITE, KING)] | pieceBB[piece(BLACK, KING)]))
+                | (rookAttacks(square, occ) & rookSliders())
+                | (bishopAttacks(square, occ) & bishopSliders());
+    }
+
+    public boolean isSquareAttacked(int square, int byColor, long occ) {
+        long them = colorBB[byColor];
+        return (PAWN_ATTACKS[byColor ^ 1][square] & pieceBB[piece(byColor, PAWN)]) != 0
+                || (KNIGHT_ATTACKS[square] & pieceBB[piece(byColor, KNIGHT)]) != 0
+                || (KING_ATTACKS[square] & pieceBB[piece(byColor, KING)]) != 0
+                || (rookAttacks(square, occ) & rookSliders() & them) != 0
+                || (bishopAttacks(square, occ) & bishopSliders() & them) != 0;
+    }
+
+    public boolean isInCheck(int color) {
+        if (color == sideToMove) {
+            return checkers() != 0;
+        }
+        int king = kingSquare(color);
+        return king != NO_SQUARE && isSquareAttacked(king, color ^ 1, occupied);
+    }
+
+    private long rookSliders() {
+        return pieceBB[piece(WHITE, ROOK)] | pieceBB[piece(BLACK, ROOK)]
+                | pieceBB[piece(WHITE, QUEEN)] | pieceBB[piece(BLACK, QUEEN)];
+    }
+
+    private long bishopSliders() {
+        return pieceBB[piece(WHITE, BISHOP)] | pieceBB[piece(BLACK, BISHOP)]
+                | pieceBB[piece(WHITE, QUEEN)] | pieceBB[piece(BLACK, QUEEN)];
+    }
+}
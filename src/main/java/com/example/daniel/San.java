@@ -0,0 +1,176 @@
+package com.example.daniel;
+
+// Standard algebraic notation, e.g. "Nbd7", "exd6", "e8=Q+", "O-O-O#"
+public final class San {
+    private static final String PIECE_LETTERS = "PNBRQK";
+
+    private San() {
+    }
+
+    // The move must be legal in pos; pos is left unchanged
+    public static String toSan(Position pos, int move) {
+        int[] moves = new int[MoveGen.MAX_MOVES];
+        int count = MoveGen.generate(pos, moves, 0);
+        StringBuilder sb = new StringBuilder(8);
+        int from = Moves.from(move);
+        int to = Moves.to(move);
+        int type = Position.typeOf(pos.pieceAt(from));
+
+        if (Moves.flags(move) == Moves.KING_CASTLE) {
+            sb.append("O-O");
+        } else if (Moves.flags(move) == Moves.QUEEN_CASTLE) {
+            sb.append("O-O-O");
+        } else {
+            if (type == Position.PAWN) {
+                if (Moves.isCapture(move)) {
+                    sb.append((char) ('a' + Bitboards.file(from)));
+                }
+            } else {
+                sb.append(PIECE_LETTERS.charAt(type));
+                appendDisambiguation(sb, pos, moves, count, move, type);
+            }
+            if (Moves.isCapture(move)) {
+                sb.append('x');
+            }
+            sb.append(Moves.squareName(to));
+            if (Moves.isPromotion(move)) {
+                sb.append('=').append(PIECE_LETTERS.charAt(Moves.promotionType(move)));
+            }
+        }
+
+        pos.makeMove(move);
+        if (pos.checkers() != 0) {
+            sb.append(MoveGen.hasLegalMove(pos, moves, 0) ? '+' : '#');
+        }
+        pos.unmakeMove(move);
+        return sb.toString();
+    }
+
+    // Returns the legal move written as san, or Moves.NONE when it is illegal, ambiguous or malformed
+    public static int parse(Position pos, String san) {
+        int[] moves = new int[MoveGen.MAX_MOVES];
+        int count = MoveGen.generate(pos, moves, 0);
+        return parse(pos, san, moves, count);
+    }
+
+    // moves holds the count legal moves of pos, so callers decoding many moves can reuse one buffer
+    static int parse(Position pos, String san, int[] moves, int count) {
+        int end = san.length();
+        // Check, mate and annotation marks carry no information for decoding
+        while (end > 0 && "+#!?".indexOf(san.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        String s = san.substring(0, end);
+        if (s.equals("O-O") || s.equals("0-0")) {
+            return findCastle(moves, count, Moves.KING_CASTLE);
+        }
+        if (s.equals("O-O-O") || s.equals("0-0-0")) {
+            return findCastle(moves, count, Moves.QUEEN_CASTLE);
+        }
+
+        int promotion = -1;
+        int eq = s.indexOf('=');
+        if (eq >= 0) {
+            if (eq + 1 >= s.length()) {
+                return Moves.NONE;
+            }
+            promotion = PIECE_LETTERS.indexOf(Character.toUpperCase(s.charAt(eq + 1)));
+            s = s.substring(0, eq);
+        } else if (s.length() > 2 && "NBRQ".indexOf(s.charAt(s.length() - 1)) >= 0) {
+            // Promotion without '=', as in "e8Q"
+            promotion = PIECE_LETTERS.indexOf(s.charAt(s.length() - 1));
+            s = s.substring(0, s.length() - 1);
+        }
+        if (s.length() < 2) {
+            return Moves.NONE;
+        }
+
+        int type = Position.PAWN;
+        int start = 0;
+        int first = PIECE_LETTERS.indexOf(s.charAt(0));
+        if (first > 0) {
+            type = first;
+            start = 1;
+        }
+        int to = squareAt(s, s.length() - 2);
+        if (to < 0) {
+            return Moves.NONE;
+        }
+        int fromFile = -1;
+        int fromRank = -1;
+        for (int i = start; i < s.length() - 2; i++) {
+            char c = s.charAt(i);
+            if (c >= 'a' && c <= 'h') {
+                fromFile = c - 'a';
+            } else if (c >= '1' && c <= '8') {
+                fromRank = c - '1';
+            } else if (c != 'x' && c != '-' && c != ':') {
+                return Moves.NONE;
+            }
+        }
+
+        int found = Moves.NONE;
+        for (int i = 0; i < count; i++) {
+            int move = moves[i];
+            int from = Moves.from(move);
+            if (Moves.to(move) != to || Moves.isCastle(move)
+                    || Position.typeOf(pos.pieceAt(from)) != type
+                    || fromFile >= 0 && Bitboards.file(from) != fromFile
+                    || fromRank >= 0 && Bitboards.rank(from) != fromRank
+                    || (Moves.isPromotion(move) ? Moves.promotionType(move) != promotion : promotion >= 0)) {
+                continue;
+            }
+            if (found != Moves.NONE) {
+                return Moves.NONE;
+            }
+            found = move;
+        }
+        return found;
+    }
+
+    private static void appendDisambiguation(StringBuilder sb, Position pos, int[] moves, int count, int move, int type) {
+        int from = Moves.from(move);
+        boolean ambiguous = false;
+        boolean sameFile = false;
+        boolean sameRank = false;
+        for (int i = 0; i < count; i++) {
+            int other = moves[i];
+            int otherFrom = Moves.from(other);
+            if (otherFrom == from || Moves.to(other) != Moves.to(move)
+                    || Position.typeOf(pos.pieceAt(otherFrom)) != type) {
+                continue;
+            }
+            ambiguous = true;
+            sameFile |= Bitboards.file(otherFrom) == Bitboards.file(from);
+            sameRank |= Bitboards.rank(otherFrom) == Bitboards.rank(from);
+        }
+        if (!ambiguous) {
+            return;
+        }
+        if (!sameFile) {
+            sb.append((char) ('a' + Bitboards.file(from)));
+        } else if (!sameRank) {
+            sb.append((char) ('1' + Bitboards.rank(from)));
+        } else {
+            sb.append(Moves.squareName(from));
+        }
+    }
+
+    private static int findCastle(int[] moves, int count, int flags) {
+        for (int i = 0; i < count; i++) {
+            if (Moves.flags(moves[i]) == flags) {
+                return moves[i];
+            }
+        }
+        return Moves.NONE;
+    }
+
+    private static int squareAt(String s, int i) {
+        char file = s.charAt(i);
+        char rank = s.charAt(i + 1);
+        if (file < 'a' || file > 'h' || rank < '1' || rank > '8') {
+            return -1;
+        }
+        return Bitboards.square(file - 'a', rank - '1');
+    }
+}
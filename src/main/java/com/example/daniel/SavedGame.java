@@ -0,0 +1,18 @@
+package com.example.daniel;
+
+// Everything needed to resume a game: where it started, the moves played since and the clocks.
+// Captured pieces and scores follow from the moves.
+final class SavedGame {
+    final Position start;
+    final int[] moves;
+    final int whiteMillis;
+    final int blackMillis;
+
+    SavedGame(Position start, int[] moves, int whiteMillis, int blackMillis) {
+        this.start = new Position();
+        this.start.copyFrom(start);
+        this.moves = moves;
+        this.whiteMillis = whiteMillis;
+        this.blackMillis = blackMillis;
+    }
+}
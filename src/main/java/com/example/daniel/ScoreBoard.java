@@ -25,6 +25,20 @@ public class ScoreBoard extends JPanel {
         updateScore();
     }
 
+    public void setScores(int whiteScore, int blackScore) {
+        this.whiteScore = whiteScore;
+        this.blackScore = blackScore;
+        updateScore();
+    }
+
+    public int getWhiteScore() {
+        return whiteScore;
+    }
+
+    public int getBlackScore() {
+        return blackScore;
+    }
+
     public void reset() {
         whiteScore = 0;
         blackScore = 0;
@@ -0,0 +1,445 @@
+package com.example.daniel;
+
+import java.util.Arrays;
+
+import static com.example.daniel.Position.*;
+
+// Iterative deepening negamax: alpha-beta with PVS, null-move pruning and late-move reductions
+final class Search {
+    static final int MAX_PLY = 128;
+    static final int INFINITY = 32001;
+    static final int MATE = 32000;
+    static final int MATE_BOUND = MATE - MAX_PLY;
+
+    private static final long REPORT_INTERVAL_NANOS = 100_000_000L;
+
+    static final int[] PIECE_VALUES = {100, 320, 330, 500, 900, 0};
+
+    private static final int[][] REDUCTIONS = new int[64][64];
+
+    // Lazy SMP helpers skip depths in staggered patterns so threads spread over different iterations
+    private static final int[] SKIP_SIZE = {1, 1, 2, 2, 2, 2, 3, 3, 3, 3, 3, 3, 4, 4, 4, 4, 4, 4, 4, 4};
+    private static final int[] SKIP_PHASE = {0, 1, 0, 1, 2, 3, 0, 1, 2, 3, 4, 5, 0, 1, 2, 3, 4, 5, 6, 7};
+
+    static {
+        for (int depth = 1; depth < 64; depth++) {
+            for (int count = 1; count < 64; count++) {
+                REDUCTIONS[depth][count] = (int) (0.75 + Math.log(depth) * Math.log(count) / 2.25);
+            }
+        }
+    }
+
+    private final TranspositionTable tt;
+    private final int threadIndex;
+    private final Position pos = new Position();
+    private final Evaluator evaluator = new Evaluator();
+    private final int[] moves = new int[MAX_PLY * MoveGen.MAX_MOVES];
+    private final int[] scores = new int[MAX_PLY * MoveGen.MAX_MOVES];
+    private final int[][] killers = new int[MAX_PLY][2];
+    private final int[][] history = new int[12][64];
+    private final int[][] pv = new int[MAX_PLY][MAX_PLY];
+    private final int[] pvLength = new int[MAX_PLY];
+    private Tablebases tablebases;
+
+    private long nodes;
+    // Table statistics of the current search, added to Metrics once it ends
+    private long ttProbes;
+    private long ttHits;
+    private long nodeLimit;
+    private long deadline;
+    private volatile boolean stopped;
+
+    private SearchListener listener;
+    private long startNanos;
+    private long nextReport;
+    private int currentDepth;
+    private int completedDepth;
+    private int bestMove;
+    private int bestScore;
+
+    Search(TranspositionTable tt) {
+        this(tt, 0);
+    }
+
+    Search(TranspositionTable tt, int threadIndex) {
+        this.tt = tt;
+        this.threadIndex = threadIndex;
+    }
+
+    SearchResult search(Position root, SearchLimits limits) {
+        return search(root, limits, null);
+    }
+
+    SearchResult search(Position root, SearchLimits limits, SearchListener listener) {
+        startNanos = System.nanoTime();
+        pos.copyFrom(root);
+        nodes = 0;
+        ttProbes = 0;
+        ttHits = 0;
+        nodeLimit = limits.nodes;
+        deadline = limits.timeMillis > 0 ? startNanos + limits.timeMillis * 1_000_000L : Long.MAX_VALUE;
+        stopped = false;
+        this.listener = listener;
+        nextReport = startNanos + REPORT_INTERVAL_NANOS;
+        for (int[] k : killers) {
+            Arrays.fill(k, Moves.NONE);
+        }
+        for (int[] h : history) {
+            for (int i = 0; i < h.length; i++) {
+                h[i] >>= 1;
+            }
+        }
+
+        int legal = MoveGen.generate(pos, moves, 0);
+        if (legal == 0) {
+            return new SearchResult(Moves.NONE, pos.isInCheck(pos.sideToMove()) ? -MATE : 0, 0, 0, 0);
+        }
+        bestMove = moves[0];
+        bestScore = 0;
+        completedDepth = 0;
+
+        for (int depth = 1; depth <= limits.depth; depth++) {
+            if (skipDepth(depth)) {
+                continue;
+            }
+            currentDepth = depth;
+            int score = negamax(depth, -INFINITY, INFINITY, 0);
+            if (stopped && completedDepth > 0) {
+                break;
+            }
+            if (pvLength[0] > 0) {
+                bestMove = pv[0][0];
+                bestScore = score;
+            }
+            completedDepth = depth;
+            if (stopped || legal == 1 || Math.abs(score) >= MATE_BOUND) {
+                break;
+            }
+            // The next iteration would not finish in the remaining half of the budget
+            if (limits.timeMillis > 0 && System.nanoTime() - startNanos > limits.timeMillis * 500_000L) {
+                break;
+            }
+            report(System.nanoTime());
+        }
+        this.listener = null;
+        return snapshot(completedDepth);
+    }
+
+    void stop() {
+        stopped = true;
+    }
+
+    // Set between searches only
+    void setTablebases(Tablebases tablebases) {
+        this.tablebases = tablebases;
+    }
+
+    // Read from other threads for progress reports, so only approximate while searching
+    long nodes() {
+        return nodes;
+    }
+
+    long ttProbes() {
+        return ttProbes;
+    }
+
+    long ttHits() {
+        return ttHits;
+    }
+
+    private boolean skipDepth(int depth) {
+        if (threadIndex == 0 || depth == 1) {
+            return false;
+        }
+        int i = (threadIndex - 1) % SKIP_SIZE.length;
+        return ((depth + SKIP_PHASE[i]) / SKIP_SIZE[i]) % 2 != 0;
+    }
+
+    private int negamax(int depth, int alpha, int beta, int ply) {
+        pvLength[ply] = ply;
+        boolean root = ply == 0;
+        if (!root && (pos.halfmoveClock() >= 100 || pos.isRepetition())) {
+            return 0;
+        }
+        // Exact results, so they need neither depth nor a table entry
+        if (!root && tablebases != null) {
+            int score = tablebases.probe(pos, ply);
+            if (score != Tablebases.NONE) {
+                return score;
+            }
+        }
+
+        boolean inCheck = pos.isInCheck(pos.sideToMove());
+        if (inCheck) {
+            depth++;
+        }
+        if (depth <= 0) {
+            return quiesce(alpha, beta, ply);
+        }
+        if ((++nodes & 1023) == 0) {
+            checkLimits();
+        }
+        if (stopped) {
+            return 0;
+        }
+        if (ply >= MAX_PLY - 1) {
+            return evaluator.evaluate(pos);
+        }
+
+        boolean pvNode = beta - alpha > 1;
+        int us = pos.sideToMove();
+        int originalAlpha = alpha;
+
+        long entry = tt.probe(pos.key());
+        ttProbes++;
+        if (entry != 0) {
+            ttHits++;
+        }
+        int ttMove = TranspositionTable.move(entry);
+        if (entry != 0 && !pvNode && TranspositionTable.depth(entry) >= depth) {
+            int ttScore = fromTable(TranspositionTable.score(entry), ply);
+            int bound = TranspositionTable.bound(entry);
+            if (bound == TranspositionTable.BOUND_EXACT
+                    || bound == TranspositionTable.BOUND_LOWER && ttScore >= beta
+                    || bound == TranspositionTable.BOUND_UPPER && ttScore <= alpha) {
+                return ttScore;
+            }
+        }
+
+        if (!pvNode && !inCheck && depth >= 3 && pos.hasNonPawnMaterial(us)
+                && Math.abs(beta) < MATE_BOUND && evaluator.evaluate(pos) >= beta) {
+            int reduction = 2 + depth / 4;
+            pos.makeNullMove();
+            int score = -negamax(depth - 1 - reduction, -beta, -beta + 1, ply + 1);
+            pos.unmakeNullMove();
+            if (stopped) {
+                return 0;
+            }
+            if (score >= beta) {
+                return score >= MATE_BOUND ? beta : score;
+            }
+        }
+
+        int offset = ply * MoveGen.MAX_MOVES;
+        int count = generate(offset);
+        if (count == 0) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        scoreMoves(offset, count, ply, ttMove);
+
+        int best = -INFINITY;
+        int bestMove = Moves.NONE;
+        int searched = 0;
+        for (int i = offset; i < offset + count; i++) {
+            int move = pickNext(i, offset + count);
+            boolean quiet = !Moves.isCapture(move) && !Moves.isPromotion(move);
+            int piece = pos.pieceAt(Moves.from(move));
+
+            boolean givesCheck = pos.givesCheck(move);
+            pos.makeMove(move);
+            int score;
+            if (searched == 0) {
+                score = -negamax(depth - 1, -beta, -alpha, ply + 1);
+            } else {
+                int reduction = 0;
+                if (depth >= 3 && searched >= 3 && quiet && !inCheck && !givesCheck) {
+                    reduction = REDUCTIONS[Math.min(depth, 63)][Math.min(searched, 63)];
+                    if (pvNode) {
+                        reduction--;
+                    }
+                    reduction = Math.max(0, Math.min(reduction, depth - 2));
+                }
+                score = -negamax(depth - 1 - reduction, -alpha - 1, -alpha, ply + 1);
+                if (score > alpha && reduction > 0) {
+                    score = -negamax(depth - 1, -alpha - 1, -alpha, ply + 1);
+                }
+                if (score > alpha && score < beta) {
+                    score = -negamax(depth - 1, -beta, -alpha, ply + 1);
+                }
+            }
+            pos.unmakeMove(move);
+            searched++;
+            if (stopped) {
+                return 0;
+            }
+
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePv(ply, move);
+                    if (score >= beta) {
+                        if (quiet) {
+                            recordQuietCutoff(ply, move, piece, depth);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = best >= beta ? TranspositionTable.BOUND_LOWER
+                : alpha > originalAlpha ? TranspositionTable.BOUND_EXACT : TranspositionTable.BOUND_UPPER;
+        tt.store(pos.key(), bestMove, toTable(best, ply), depth, bound);
+        return best;
+    }
+
+    private int quiesce(int alpha, int beta, int ply) {
+        pvLength[ply] = ply;
+        if ((++nodes & 1023) == 0) {
+            checkLimits();
+        }
+        if (stopped) {
+            return 0;
+        }
+        if (ply >= MAX_PLY - 1) {
+            return evaluator.evaluate(pos);
+        }
+
+        boolean inCheck = pos.isInCheck(pos.sideToMove());
+        int best = -INFINITY;
+        if (!inCheck) {
+            best = evaluator.evaluate(pos);
+            if (best >= beta) {
+                return best;
+            }
+            if (best > alpha) {
+                alpha = best;
+            }
+        }
+
+        int offset = ply * MoveGen.MAX_MOVES;
+        int count = MoveGen.generateNoisy(pos, moves, offset);
+        if (count == 0 && inCheck) {
+            return -MATE + ply;
+        }
+        scoreMoves(offset, count, ply, Moves.NONE);
+
+        for (int i = offset; i < offset + count; i++) {
+            int move = pickNext(i, offset + count);
+            if (!inCheck && Moves.isPromotion(move) && Moves.promotionType(move) != QUEEN) {
+                continue;
+            }
+            pos.makeMove(move);
+            int score = -quiesce(-beta, -alpha, ply + 1);
+            pos.unmakeMove(move);
+            if (stopped) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (score >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private void scoreMoves(int offset, int count, int ply, int ttMove) {
+        for (int i = offset; i < offset + count; i++) {
+            int move = moves[i];
+            int piece = pos.pieceAt(Moves.from(move));
+            if (move == ttMove) {
+                scores[i] = 1_000_000;
+            } else if (Moves.isCapture(move) || Moves.isPromotion(move)) {
+                int victim = Moves.flags(move) == Moves.EP_CAPTURE ? PAWN
+                        : Moves.isCapture(move) ? typeOf(pos.pieceAt(Moves.to(move))) : PAWN;
+                int promotion = Moves.isPromotion(move) ? PIECE_VALUES[Moves.promotionType(move)] : 0;
+                scores[i] = 100_000 + PIECE_VALUES[victim] * 8 - typeOf(piece) + promotion;
+            } else if (move == killers[ply][0]) {
+                scores[i] = 90_000;
+            } else if (move == killers[ply][1]) {
+                scores[i] = 80_000;
+            } else {
+                scores[i] = history[piece][Moves.to(move)];
+            }
+        }
+    }
+
+    // Selection sort step: swaps the best remaining move into slot i
+    private int pickNext(int i, int end) {
+        int bestIndex = i;
+        for (int j = i + 1; j < end; j++) {
+            if (scores[j] > scores[bestIndex]) {
+                bestIndex = j;
+            }
+        }
+        int move = moves[bestIndex];
+        moves[bestIndex] = moves[i];
+        moves[i] = move;
+        int score = scores[bestIndex];
+        scores[bestIndex] = scores[i];
+        scores[i] = score;
+        return move;
+    }
+
+    private void updatePv(int ply, int move) {
+        pv[ply][ply] = move;
+        int childLength = pvLength[ply + 1];
+        for (int i = ply + 1; i < childLength; i++) {
+            pv[ply][i] = pv[ply + 1][i];
+        }
+        pvLength[ply] = Math.max(childLength, ply + 1);
+    }
+
+    private void recordQuietCutoff(int ply, int move, int piece, int depth) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        history[piece][Moves.to(move)] += depth * depth;
+        if (history[piece][Moves.to(move)] > 60_000) {
+            for (int[] h : history) {
+                for (int i = 0; i < h.length; i++) {
+                    h[i] >>= 1;
+                }
+            }
+        }
+    }
+
+    // Every MOVEGEN_SAMPLE-th node's generation is timed; a clock read per call would cost more
+    // than many generations
+    private int generate(int offset) {
+        if ((nodes & (Metrics.MOVEGEN_SAMPLE - 1)) != 0 || !Metrics.ENABLED) {
+            return MoveGen.generate(pos, moves, offset);
+        }
+        long start = System.nanoTime();
+        int count = MoveGen.generate(pos, moves, offset);
+        Metrics.MOVEGEN_NANOS.record(System.nanoTime() - start);
+        return count;
+    }
+
+    // Mate scores are stored relative to the node so they stay valid at other plies
+    private static int toTable(int score, int ply) {
+        return score >= MATE_BOUND ? score + ply : score <= -MATE_BOUND ? score - ply : score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        return score >= MATE_BOUND ? score - ply : score <= -MATE_BOUND ? score + ply : score;
+    }
+
+    private void checkLimits() {
+        long now = System.nanoTime();
+        if (nodeLimit > 0 && nodes >= nodeLimit || now >= deadline) {
+            stopped = true;
+        }
+        report(now);
+    }
+
+    // Progress goes out at most once per interval however fast iterations complete
+    private void report(long now) {
+        if (listener != null && now >= nextReport) {
+            nextReport = now + REPORT_INTERVAL_NANOS;
+            listener.onProgress(snapshot(currentDepth));
+        }
+    }
+
+    private SearchResult snapshot(int depth) {
+        return new SearchResult(bestMove, bestScore, depth, nodes, (System.nanoTime() - startNanos) / 1_000_000L);
+    }
+}
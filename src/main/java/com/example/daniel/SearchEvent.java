@@ -0,0 +1,31 @@
+package com.example.daniel;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// One SearchPool search in a Flight Recorder recording, e.g. -XX:StartFlightRecording. Costs a
+// flag check when no recording is running.
+@Name("com.example.daniel.Search")
+@Label("Búsqueda")
+@Category("Ajedrez")
+final class SearchEvent extends Event {
+    @Label("Profundidad")
+    int depth;
+
+    @Label("Nodos")
+    long nodes;
+
+    @Label("Nodos por segundo")
+    long nodesPerSecond;
+
+    @Label("Aciertos en la tabla")
+    double ttHitRate;
+
+    @Label("Puntuación")
+    int score;
+
+    @Label("Hilos")
+    int threads;
+}
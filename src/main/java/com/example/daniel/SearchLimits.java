@@ -0,0 +1,39 @@
+package com.example.daniel;
+
+// Zero means "no limit" for nodes and time
+final class SearchLimits {
+    private static final int DEFAULT_MOVES_TO_GO = 30;
+    private static final long MOVE_OVERHEAD_MILLIS = 50;
+
+    final int depth;
+    final long nodes;
+    final long timeMillis;
+
+    SearchLimits(int depth, long nodes, long timeMillis) {
+        this.depth = Math.max(1, Math.min(depth, Search.MAX_PLY - 1));
+        this.nodes = nodes;
+        this.timeMillis = timeMillis;
+    }
+
+    static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, 0, 0);
+    }
+
+    static SearchLimits time(long timeMillis) {
+        return new SearchLimits(Search.MAX_PLY, 0, timeMillis);
+    }
+
+    static SearchLimits nodes(long nodes) {
+        return new SearchLimits(Search.MAX_PLY, nodes, 0);
+    }
+
+    // Time for one move from a running clock: an even share of what is left over movesToGo (or an
+    // assumed 30 when unknown) plus most of the increment, keeping a margin for move overhead
+    static SearchLimits clock(long remainingMillis, long incrementMillis, int movesToGo) {
+        int moves = movesToGo > 0 ? Math.min(movesToGo, DEFAULT_MOVES_TO_GO) : DEFAULT_MOVES_TO_GO;
+        long usable = Math.max(1, remainingMillis - MOVE_OVERHEAD_MILLIS);
+        long budget = usable / moves + incrementMillis * 3 / 4;
+        long cap = moves == 1 ? usable * 9 / 10 : usable / 3;
+        return time(Math.max(1, Math.min(budget, cap)));
+    }
+}
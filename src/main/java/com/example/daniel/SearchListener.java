@@ -0,0 +1,6 @@
+package com.example.daniel;
+
+interface SearchListener {
+    // Called on the searching thread; implementations must hand off quickly
+    void onProgress(SearchResult progress);
+}
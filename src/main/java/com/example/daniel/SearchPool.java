@@ -0,0 +1,152 @@
+package com.example.daniel;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Lazy SMP: every thread runs its own iterative deepening over the shared transposition table.
+// Thread 0 runs on the caller, owns the limits and reports progress; helpers only fill the table
+// and are stopped as soon as it finishes. Node limits count thread 0's nodes only.
+final class SearchPool {
+    private final TranspositionTable tt;
+    private Search[] searches;
+    private ExecutorService helpers;
+    private Tablebases tablebases;
+
+    SearchPool(TranspositionTable tt, int threads) {
+        this.tt = tt;
+        setThreads(threads);
+    }
+
+    // Must not be called while a search is running
+    synchronized void setThreads(int threads) {
+        threads = Math.max(1, threads);
+        if (searches != null && searches.length == threads) {
+            return;
+        }
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+        searches = new Search[threads];
+        for (int i = 0; i < threads; i++) {
+            searches[i] = new Search(tt, i);
+            searches[i].setTablebases(tablebases);
+        }
+        helpers = threads > 1 ? Executors.newFixedThreadPool(threads - 1, r -> {
+            Thread t = new Thread(r, "chess-helper");
+            t.setDaemon(true);
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        }) : null;
+    }
+
+    // Must not be called while a search is running
+    synchronized void setTablebases(Tablebases tablebases) {
+        this.tablebases = tablebases;
+        for (Search s : searches) {
+            s.setTablebases(tablebases);
+        }
+    }
+
+    int threads() {
+        return searches.length;
+    }
+
+    SearchResult search(Position root, SearchLimits limits, SearchListener listener) {
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        long start = System.nanoTime();
+        Search[] searches = this.searches;
+        tt.newSearch();
+        // Threads copy from a private snapshot, never from the caller's board
+        Position shared = new Position();
+        shared.copyFrom(root);
+        SearchLimits helperLimits = new SearchLimits(limits.depth, 0, 0);
+        Future<?>[] futures = new Future<?>[searches.length];
+        SearchResult[] results = new SearchResult[searches.length];
+        for (int i = 1; i < searches.length; i++) {
+            Search helper = searches[i];
+            int index = i;
+            futures[i] = helpers.submit(() -> results[index] = helper.search(shared, helperLimits));
+        }
+
+        SearchListener total = listener == null ? null : progress -> listener.onProgress(new SearchResult(
+                progress.bestMove, progress.score, progress.depth, totalNodes(searches), progress.timeMillis));
+        SearchResult main = searches[0].search(shared, limits, total);
+
+        SearchResult best = main;
+        for (int i = 1; i < searches.length; i++) {
+            join(searches[i], futures[i]);
+            SearchResult r = results[i];
+            // A helper that completed a deeper iteration has the more reliable move
+            if (r != null && r.bestMove != Moves.NONE
+                    && (r.depth > best.depth || r.depth == best.depth && r.score > best.score)) {
+                best = r;
+            }
+        }
+        SearchResult result = new SearchResult(best.bestMove, best.score, best.depth, totalNodes(searches),
+                main.timeMillis);
+        record(result, searches, System.nanoTime() - start, event);
+        return result;
+    }
+
+    private static void record(SearchResult result, Search[] searches, long nanos, SearchEvent event) {
+        long probes = 0;
+        long hits = 0;
+        for (Search s : searches) {
+            probes += s.ttProbes();
+            hits += s.ttHits();
+        }
+        Metrics.searchFinished(result, probes, hits, nanos);
+        if (event.shouldCommit()) {
+            event.depth = result.depth;
+            event.nodes = result.nodes;
+            event.nodesPerSecond = nanos > 0 ? result.nodes * 1_000_000_000L / nanos : 0;
+            event.ttHitRate = probes == 0 ? 0 : (double) hits / probes;
+            event.score = result.score;
+            event.threads = searches.length;
+            event.commit();
+        }
+    }
+
+    void stop() {
+        for (Search s : searches) {
+            s.stop();
+        }
+    }
+
+    void shutdown() {
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+    }
+
+    // A helper that had not started yet resets its stop flag, so keep signalling until it returns
+    private static void join(Search helper, Future<?> future) {
+        while (true) {
+            helper.stop();
+            try {
+                future.get(1, TimeUnit.MILLISECONDS);
+                return;
+            } catch (TimeoutException e) {
+                // still running
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+
+    private static long totalNodes(Search[] searches) {
+        long nodes = 0;
+        for (Search s : searches) {
+            nodes += s.nodes();
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.daniel;
+
+final class SearchResult {
+    final int bestMove;
+    final int score;
+    final int depth;
+    final long nodes;
+    final long timeMillis;
+
+    SearchResult(int bestMove, int score, int depth, long nodes, long timeMillis) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.timeMillis = timeMillis;
+    }
+
+    long nodesPerSecond() {
+        return timeMillis == 0 ? nodes * 1000 : nodes * 1000 / timeMillis;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.daniel;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.Clip;
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Move sounds decoded once into a few open clips each, which are rewound and reused round robin.
+// Loading and playback run on one background thread, so the event dispatch thread only queues a
+// request; when moves come faster than they can be played the oldest requests are dropped.
+class SoundPlayer implements Closeable {
+    private static final String[][] SOUNDS = {
+            {"move", "/sounds/move.wav"},
+            {"capture", "/sounds/capture.wav"},
+            {"check", "/sounds/check.wav"}
+    };
+    private static final int CLIPS_PER_SOUND = 3;
+    private static final int MAX_PENDING = 8;
+
+    private final ThreadPoolExecutor executor;
+    // Only touched on the executor thread
+    private final Map<String, Clip[]> clips = new HashMap<>();
+    private final Map<String, Integer> next = new HashMap<>();
+
+    public SoundPlayer() {
+        executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(MAX_PENDING),
+                r -> {
+                    Thread thread = new Thread(r, "chess-sound");
+                    thread.setDaemon(true);
+                    return thread;
+                }, (task, pool) -> {
+                    // Oldest first, as ThreadPoolExecutor.DiscardOldestPolicy, but counted
+                    if (!pool.isShutdown()) {
+                        pool.getQueue().poll();
+                        Metrics.SOUNDS_DROPPED.increment();
+                        pool.execute(task);
+                    }
+                });
+        executor.execute(this::load);
+    }
+
+    // Unknown names play the move sound, as before
+    public void play(String sound) {
+        if (!executor.isShutdown()) {
+            long requested = System.nanoTime();
+            executor.execute(() -> start(sound, requested));
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.execute(this::release);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void load() {
+        for (String[] sound : SOUNDS) {
+            try (InputStream resource = getClass().getResourceAsStream(sound[1])) {
+                if (resource == null) {
+                    System.err.println("Sonido no encontrado: " + sound[1]);
+                    continue;
+                }
+                AudioInputStream stream = AudioSystem.getAudioInputStream(new BufferedInputStream(resource));
+                AudioFormat format = stream.getFormat();
+                byte[] data = stream.readAllBytes();
+                Clip[] pool = new Clip[CLIPS_PER_SOUND];
+                try {
+                    for (int i = 0; i < pool.length; i++) {
+                        pool[i] = AudioSystem.getClip();
+                        pool[i].open(format, data, 0, data.length);
+                    }
+                } catch (Exception e) {
+                    // Give back the lines already opened, e.g. when the mixer runs out of them
+                    for (Clip clip : pool) {
+                        if (clip != null) {
+                            clip.close();
+                        }
+                    }
+                    throw e;
+                }
+                clips.put(sound[0], pool);
+                next.put(sound[0], 0);
+            } catch (Exception e) {
+                System.err.println("Error al cargar sonido " + sound[1] + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // Cost of a sound is measured from the request on the EDT to the clip starting
+    private void start(String sound, long requested) {
+        String name = clips.containsKey(sound) ? sound : "move";
+        Clip[] pool = clips.get(name);
+        if (pool == null) {
+            return;
+        }
+        // The least recently started clip; if it is still playing it is cut short and restarted
+        int index = next.get(name);
+        next.put(name, (index + 1) % pool.length);
+        Clip clip = pool[index];
+        clip.stop();
+        clip.setFramePosition(0);
+        clip.start();
+        Metrics.SOUNDS_PLAYED.increment();
+        Metrics.SOUND_NANOS.record(System.nanoTime() - requested);
+    }
+
+    private void release() {
+        for (Clip[] pool : clips.values()) {
+            for (Clip clip : pool) {
+                clip.close();
+            }
+        }
+        clips.clear();
+    }
+}
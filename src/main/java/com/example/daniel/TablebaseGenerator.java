@@ -0,0 +1,461 @@
+package com.example.daniel;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Retrograde generator for Tablebases:
+// java -cp chess.jar com.example.daniel.TablebaseGenerator [--threads N] directorio [KQvK KRvK KPvK KBNvK ...]
+// Tables reached by captures and promotions are generated first and probed as exits. Within a
+// table, mates are found first and results are pushed back to predecessor positions one ply at a
+// time, each pass split across worker threads with atomic updates on the shared arrays.
+public final class TablebaseGenerator {
+    private static final String[] DEFAULT_TABLES = {"KQvK", "KRvK", "KPvK", "KBNvK"};
+    private static final int CHUNK = 1 << 15;
+
+    // state packs the distance to mate in plies (bits 0-7), the result (bits 8-10) and, while
+    // unresolved, the number of moves inside the table not yet known to lose (bits 16-23)
+    private static final int UNKNOWN = 0;
+    private static final int WIN = 1;
+    private static final int LOSS = 2;
+    private static final int DRAW = 3;
+    private static final int INVALID = 4;
+    private static final int MAX_DTM = 255;
+
+    // Best result through captures and promotions, which leave the table
+    private static final short EXIT_NONE = 0;
+    private static final short EXIT_DRAW = 1;
+    private static final int EXIT_WIN = 0x100;
+    private static final int EXIT_LOSS = 0x200;
+
+    private static final VarHandle STATE = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private final Path dir;
+    private final int threads;
+
+    public TablebaseGenerator(Path dir, int threads) {
+        this.dir = dir;
+        this.threads = Math.max(1, threads);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path dir = null;
+        List<String> names = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals("--threads")) {
+                    threads = Integer.parseInt(args[++i]);
+                } else if (dir == null) {
+                    dir = Path.of(args[i]);
+                } else {
+                    names.add(args[i]);
+                }
+            }
+        } catch (RuntimeException e) {
+            dir = null;
+        }
+        if (dir == null) {
+            System.err.println("Uso: TablebaseGenerator [--threads N] directorio [KQvK KRvK ...]");
+            System.exit(2);
+            return;
+        }
+        if (names.isEmpty()) {
+            names = List.of(DEFAULT_TABLES);
+        }
+        Files.createDirectories(dir);
+        TablebaseGenerator generator = new TablebaseGenerator(dir, threads);
+        for (String name : names) {
+            generator.generate(name);
+        }
+    }
+
+    public Path file(String name) {
+        return dir.resolve(Tablebases.name(Tablebases.canonical(Tablebases.parse(name))) + Tablebases.EXTENSION);
+    }
+
+    // Generates the table and everything it converts into, skipping tables already on disk
+    public void generate(String name) throws IOException {
+        int[] pieces = Tablebases.canonical(Tablebases.parse(name));
+        Path file = file(name);
+        if (Files.exists(file)) {
+            return;
+        }
+        for (int[] dependency : dependencies(pieces)) {
+            generate(Tablebases.name(dependency));
+        }
+        long start = System.nanoTime();
+        ExecutorService workers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "tablebase-generator");
+            t.setDaemon(true);
+            return t;
+        });
+        try (Tablebases exits = Tablebases.open(dir)) {
+            new Build(pieces, exits, workers).run(file);
+        } finally {
+            workers.shutdownNow();
+        }
+        System.err.printf("%s: %.1f s%n", Tablebases.name(pieces), (System.nanoTime() - start) / 1e9);
+    }
+
+    // Material left after any capture, and after each promotion with or without a capture
+    private static List<int[]> dependencies(int[] pieces) {
+        List<int[]> result = new ArrayList<>();
+        for (int i = 0; i < pieces.length; i++) {
+            if (pieces.length > 1) {
+                result.add(Tablebases.canonical(without(pieces, i)));
+            }
+            if (Position.typeOf(pieces[i]) == Position.PAWN) {
+                for (int type = Position.KNIGHT; type <= Position.QUEEN; type++) {
+                    int[] promoted = pieces.clone();
+                    promoted[i] = Position.piece(Position.colorOf(pieces[i]), type);
+                    result.add(Tablebases.canonical(promoted));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static int[] without(int[] pieces, int skip) {
+        int[] result = new int[pieces.length - 1];
+        for (int i = 0, n = 0; i < pieces.length; i++) {
+            if (i != skip) {
+                result[n++] = pieces[i];
+            }
+        }
+        return result;
+    }
+
+    private final class Build {
+        private final int[] pieces;
+        private final Tablebases exits;
+        private final ExecutorService workers;
+        private final int size;
+        private final int[] state;
+        private final short[] exit;
+        private final AtomicInteger maxDtm = new AtomicInteger();
+
+        Build(int[] pieces, Tablebases exits, ExecutorService workers) {
+            this.pieces = pieces;
+            this.exits = exits;
+            this.workers = workers;
+            this.size = (int) Tablebases.size(pieces.length);
+            this.state = new int[size];
+            this.exit = new short[size];
+        }
+
+        void run(Path file) throws IOException {
+            parallel(this::classify);
+            // Wins through an exit must wait for their ply, a shorter mate inside the table may exist
+            int last = 0;
+            for (int i = 0; i < size; i++) {
+                if (exit[i] > EXIT_WIN && exit[i] < EXIT_LOSS) {
+                    last = Math.max(last, exit[i] - EXIT_WIN);
+                }
+            }
+            int lastExitWin = last;
+            for (int ply = 1; ply - 1 <= Math.max(maxDtm.get(), lastExitWin); ply++) {
+                int level = ply;
+                parallel((from, to) -> propagate(from, to, level));
+            }
+            write(file);
+        }
+
+        private void parallel(ChunkTask task) throws IOException {
+            List<Callable<Void>> chunks = new ArrayList<>();
+            for (int from = 0; from < size; from += CHUNK) {
+                int start = from;
+                chunks.add(() -> {
+                    task.run(start, Math.min(size, start + CHUNK));
+                    return null;
+                });
+            }
+            try {
+                for (Future<Void> f : workers.invokeAll(chunks)) {
+                    f.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Generación interrumpida", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        // First pass: legality, mates and stalemates, moves that stay in the table and the best exit
+        private void classify(int from, int to) {
+            Position pos = new Position();
+            int[] moves = new int[MoveGen.MAX_MOVES];
+            int[] squares = new int[pieces.length];
+            for (int i = from; i < to; i++) {
+                if (!decode(i, pos, squares)) {
+                    state[i] = INVALID << 8;
+                    continue;
+                }
+                int count = MoveGen.generate(pos, moves, 0);
+                if (count == 0) {
+                    state[i] = pos.checkers() != 0 ? LOSS << 8 : DRAW << 8;
+                    continue;
+                }
+                int inside = 0;
+                int best = EXIT_NONE;
+                for (int m = 0; m < count; m++) {
+                    int move = moves[m];
+                    if (!Moves.isCapture(move) && !Moves.isPromotion(move)) {
+                        inside++;
+                        continue;
+                    }
+                    pos.makeMove(move);
+                    int score = exits.probe(pos, 0);
+                    pos.unmakeMove(move);
+                    if (score == Tablebases.NONE) {
+                        throw new IllegalStateException("Falta la tabla para " + Fen.toFen(pos));
+                    }
+                    best = better(best, score == 0 ? EXIT_DRAW
+                            : score > 0 ? EXIT_LOSS + Search.MATE - score + 1
+                            : EXIT_WIN + Search.MATE + score + 1);
+                }
+                if (inside == 0) {
+                    // Every move leaves the table, so the result is already known
+                    state[i] = best == EXIT_DRAW ? DRAW << 8
+                            : best < EXIT_LOSS ? packed(WIN, best - EXIT_WIN) : packed(LOSS, best - EXIT_LOSS);
+                    maxDtm.accumulateAndGet(state[i] & 0xFF, Math::max);
+                } else {
+                    state[i] = inside << 16;
+                    exit[i] = (short) best;
+                }
+            }
+        }
+
+        // Pushes results found at ply - 1 to the positions one move earlier
+        private void propagate(int from, int to, int ply) {
+            int[] squares = new int[pieces.length];
+            long[] parents = new long[256];
+            for (int i = from; i < to; i++) {
+                int s = state[i];
+                int result = s >>> 8 & 7;
+                if (result == UNKNOWN) {
+                    if (exit[i] == EXIT_WIN + ply) {
+                        resolve(i, WIN, ply);
+                    }
+                    continue;
+                }
+                if ((s & 0xFF) != ply - 1 || result != WIN && result != LOSS) {
+                    continue;
+                }
+                int count = parents(i, squares, parents);
+                for (int p = 0; p < count; p++) {
+                    int parent = (int) parents[p];
+                    if (result == LOSS) {
+                        resolve(parent, WIN, ply);
+                    } else {
+                        refute(parent, ply);
+                    }
+                }
+            }
+        }
+
+        private void resolve(int index, int result, int dtm) {
+            while (true) {
+                int s = (int) STATE.getVolatile(state, index);
+                if ((s >>> 8 & 7) != UNKNOWN) {
+                    return;
+                }
+                if (STATE.compareAndSet(state, index, s, packed(result, dtm))) {
+                    break;
+                }
+            }
+            if (result != DRAW) {
+                maxDtm.accumulateAndGet(dtm, Math::max);
+            }
+        }
+
+        // One more move inside the table is known to lose; once all of them do, only an exit can still
+        // save or win the position
+        private void refute(int index, int ply) {
+            while (true) {
+                int s = (int) STATE.getVolatile(state, index);
+                if ((s >>> 8 & 7) != UNKNOWN) {
+                    return;
+                }
+                int left = (s >>> 16) - 1;
+                int next = left << 16;
+                if (left == 0) {
+                    int e = exit[index];
+                    if (e == EXIT_NONE) {
+                        next = packed(LOSS, ply);
+                    } else if (e >= EXIT_LOSS) {
+                        next = packed(LOSS, Math.max(ply, e - EXIT_LOSS));
+                    } else if (e == EXIT_DRAW) {
+                        next = packed(DRAW, 0);
+                    }
+                }
+                if (STATE.compareAndSet(state, index, s, next)) {
+                    int result = next >>> 8 & 7;
+                    if (result == LOSS) {
+                        maxDtm.accumulateAndGet(next & 0xFF, Math::max);
+                    }
+                    return;
+                }
+            }
+        }
+
+        // Predecessors inside the table: the side that just moved takes back a non-capturing move
+        private int parents(int index, int[] squares, long[] out) {
+            int stm = index >>> (6 * pieces.length + 12);
+            int whiteKing = index >>> (6 * pieces.length + 6) & 63;
+            int blackKing = index >>> (6 * pieces.length) & 63;
+            long occ = 1L << whiteKing | 1L << blackKing;
+            for (int p = 0; p < pieces.length; p++) {
+                squares[p] = index >>> (6 * (pieces.length - 1 - p)) & 63;
+                occ |= 1L << squares[p];
+            }
+            int mover = stm ^ 1;
+            int n = 0;
+
+            int king = mover == Position.WHITE ? whiteKing : blackKing;
+            for (long targets = Bitboards.KING_ATTACKS[king] & ~occ; targets != 0; targets &= targets - 1) {
+                int sq = Long.numberOfTrailingZeros(targets);
+                n = addParent(out, n, mover, mover == Position.WHITE ? sq : whiteKing,
+                        mover == Position.BLACK ? sq : blackKing, squares);
+            }
+            for (int p = 0; p < pieces.length; p++) {
+                if (Position.colorOf(pieces[p]) != mover) {
+                    continue;
+                }
+                int sq = squares[p];
+                long targets;
+                switch (Position.typeOf(pieces[p])) {
+                    case Position.PAWN -> {
+                        int back = mover == Position.WHITE ? sq - 8 : sq + 8;
+                        int backRank = Bitboards.rank(back);
+                        targets = 0;
+                        if (backRank >= 1 && backRank <= 6 && (occ & 1L << back) == 0) {
+                            targets = 1L << back;
+                            int doubleBack = mover == Position.WHITE ? sq - 16 : sq + 16;
+                            if (Bitboards.rank(sq) == (mover == Position.WHITE ? 3 : 4) && (occ & 1L << doubleBack) == 0) {
+                                targets |= 1L << doubleBack;
+                            }
+                        }
+                    }
+                    case Position.KNIGHT -> targets = Bitboards.KNIGHT_ATTACKS[sq] & ~occ;
+                    case Position.BISHOP -> targets = Bitboards.bishopAttacks(sq, occ) & ~occ;
+                    case Position.ROOK -> targets = Bitboards.rookAttacks(sq, occ) & ~occ;
+                    default -> targets = Bitboards.queenAttacks(sq, occ) & ~occ;
+                }
+                for (; targets != 0; targets &= targets - 1) {
+                    squares[p] = Long.numberOfTrailingZeros(targets);
+                    n = addParent(out, n, mover, whiteKing, blackKing, squares);
+                }
+                squares[p] = sq;
+            }
+            return n;
+        }
+
+        private int addParent(long[] out, int n, int stm, int whiteKing, int blackKing, int[] squares) {
+            long parent = Tablebases.index(stm, whiteKing, blackKing, squares);
+            if ((state[(int) parent] >>> 8 & 7) != INVALID) {
+                out[n++] = parent;
+            }
+            return n;
+        }
+
+        private boolean decode(int index, Position pos, int[] squares) {
+            int stm = index >>> (6 * pieces.length + 12);
+            int whiteKing = index >>> (6 * pieces.length + 6) & 63;
+            int blackKing = index >>> (6 * pieces.length) & 63;
+            long occ = 1L << whiteKing | 1L << blackKing;
+            if (whiteKing == blackKing) {
+                return false;
+            }
+            pos.clear();
+            pos.putPiece(Position.piece(Position.WHITE, Position.KING), whiteKing);
+            pos.putPiece(Position.piece(Position.BLACK, Position.KING), blackKing);
+            for (int p = 0; p < pieces.length; p++) {
+                int sq = index >>> (6 * (pieces.length - 1 - p)) & 63;
+                int rank = Bitboards.rank(sq);
+                if ((occ & 1L << sq) != 0 || Position.typeOf(pieces[p]) == Position.PAWN && (rank == 0 || rank == 7)) {
+                    return false;
+                }
+                occ |= 1L << sq;
+                squares[p] = sq;
+                pos.putPiece(pieces[p], sq);
+            }
+            pos.setSideToMove(stm);
+            return !pos.isInCheck(stm ^ 1);
+        }
+
+        private void write(Path file) throws IOException {
+            int dtmBits = Math.max(1, 32 - Integer.numberOfLeadingZeros(maxDtm.get()));
+            byte[] wdl = new byte[(size + 3) / 4];
+            // Two bytes of padding keep the reader's two-byte window inside the file
+            byte[] dtm = new byte[(int) (((long) size * dtmBits + 7) / 8) + 2];
+            for (int i = 0; i < size; i++) {
+                int result = state[i] >>> 8 & 7;
+                int value = result == WIN ? Tablebases.WIN : result == LOSS ? Tablebases.LOSS : Tablebases.DRAW;
+                wdl[i >>> 2] |= (byte) (value << ((i & 3) * 2));
+                if (value != Tablebases.DRAW) {
+                    long bit = (long) i * dtmBits;
+                    int window = (state[i] & 0xFF) << (16 - (int) (bit & 7) - dtmBits);
+                    dtm[(int) (bit >>> 3)] |= (byte) (window >>> 8);
+                    dtm[(int) (bit >>> 3) + 1] |= (byte) window;
+                }
+            }
+
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+                out.writeInt(Tablebases.MAGIC);
+                out.writeInt(Tablebases.VERSION);
+                out.writeInt(pieces.length);
+                for (int i = 0; i < 4; i++) {
+                    out.writeByte(i < pieces.length ? pieces[i] : -1);
+                }
+                out.writeInt(dtmBits);
+                out.writeInt(maxDtm.get());
+                out.writeLong(size);
+                out.write(wdl);
+                out.write(dtm);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        private int packed(int result, int dtm) {
+            if (dtm > MAX_DTM) {
+                throw new IllegalStateException("Distancia al mate demasiado larga en " + Tablebases.name(pieces));
+            }
+            return result << 8 | dtm;
+        }
+    }
+
+    private static int better(int a, int b) {
+        return rank(b) > rank(a) ? b : a;
+    }
+
+    // Faster wins first, then draws, then the slowest losses, then no exit at all
+    private static int rank(int exit) {
+        if (exit == EXIT_NONE) {
+            return 0;
+        }
+        if (exit == EXIT_DRAW) {
+            return 1000;
+        }
+        return exit < EXIT_LOSS ? 2000 - (exit - EXIT_WIN) : exit - EXIT_LOSS;
+    }
+
+    private interface ChunkTask {
+        void run(int from, int to);
+    }
+}
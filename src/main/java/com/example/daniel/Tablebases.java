@@ -0,0 +1,264 @@
+package com.example.daniel;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Endgame tables written by TablebaseGenerator, one ".ctb" file per material signature such as
+// "KBNvK". Each file holds 2 bits of win/draw/loss and a bit-packed distance to mate in plies for
+// every index, and is memory-mapped; a probe is a couple of popcounts and two buffer reads.
+// Tables ignore castling and en passant, so positions with either are not probed.
+public final class Tablebases implements Closeable {
+    public static final int NONE = Integer.MIN_VALUE;
+    public static final int MAX_PIECES = 4;
+    static final String EXTENSION = ".ctb";
+
+    static final int MAGIC = 0x43485442;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    // Two-bit results on disk; illegal positions are stored as draws
+    static final int DRAW = 0;
+    static final int WIN = 1;
+    static final int LOSS = 2;
+
+    private static final String LETTERS = "PNBRQ";
+    private static final int[] POW3 = {1, 3, 9, 27, 81, 243, 729, 2187, 6561, 19683};
+
+    // Indexed by material key; a signature and its colour-flipped twin share one table
+    private final Table[] byMaterial = new Table[59049];
+    private final boolean[] flipped = new boolean[59049];
+    private final List<Table> tables = new ArrayList<>();
+
+    private Tablebases() {
+    }
+
+    public static Tablebases open(Path dir) throws IOException {
+        Tablebases tb = new Tablebases();
+        if (!Files.isDirectory(dir)) {
+            throw new IOException("No existe el directorio de tablas: " + dir);
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + EXTENSION)) {
+            for (Path file : files) {
+                tb.add(Table.open(file));
+            }
+        } catch (IOException | RuntimeException e) {
+            tb.close();
+            throw e;
+        }
+        return tb;
+    }
+
+    public int size() {
+        return tables.size();
+    }
+
+    public boolean contains(String name) {
+        int[] pieces = canonical(parse(name));
+        return byMaterial[materialKey(pieces, false)] != null;
+    }
+
+    // Score from the side to move's view, as Search scores mates found ply plies below the root;
+    // NONE when no table covers the position
+    public int probe(Position pos, int ply) {
+        long occ = pos.occupied();
+        int count = Long.bitCount(occ);
+        if (count > MAX_PIECES || pos.castlingRights() != 0 || pos.epSquare() != Position.NO_SQUARE) {
+            return NONE;
+        }
+        if (count == 2) {
+            return 0;
+        }
+        int key = 0;
+        for (int piece = 0; piece < 10; piece++) {
+            key += Long.bitCount(pos.pieces(piece)) * POW3[piece];
+        }
+        Table table = byMaterial[key];
+        if (table == null) {
+            return NONE;
+        }
+        long index = index(table.pieces, pos, flipped[key]);
+        int wdl = table.wdl(index);
+        if (wdl == DRAW) {
+            return 0;
+        }
+        int dtm = table.dtm(index);
+        return wdl == WIN ? Search.MATE - ply - dtm : -Search.MATE + ply + dtm;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (Table table : tables) {
+            table.channel.close();
+        }
+    }
+
+    private void add(Table table) {
+        tables.add(table);
+        int key = materialKey(table.pieces, false);
+        int flippedKey = materialKey(table.pieces, true);
+        byMaterial[key] = table;
+        flipped[key] = false;
+        if (flippedKey != key) {
+            byMaterial[flippedKey] = table;
+            flipped[flippedKey] = true;
+        }
+    }
+
+    // "KQvKR" -> piece codes of the non-king pieces, white then black
+    static int[] parse(String name) {
+        String upper = name.toUpperCase();
+        int v = upper.indexOf('V');
+        if (!upper.startsWith("K") || v < 0 || v + 1 >= upper.length() || upper.charAt(v + 1) != 'K') {
+            throw new IllegalArgumentException("Material inválido: " + name);
+        }
+        List<Integer> pieces = new ArrayList<>();
+        for (int i = 1; i < upper.length(); i++) {
+            if (i == v || i == v + 1) {
+                continue;
+            }
+            int type = LETTERS.indexOf(upper.charAt(i));
+            if (type < 0) {
+                throw new IllegalArgumentException("Material inválido: " + name);
+            }
+            pieces.add(Position.piece(i < v ? Position.WHITE : Position.BLACK, type));
+        }
+        if (pieces.isEmpty() || pieces.size() > MAX_PIECES - 2) {
+            throw new IllegalArgumentException("Se admiten de 3 a " + MAX_PIECES + " piezas: " + name);
+        }
+        return pieces.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    static String name(int[] pieces) {
+        StringBuilder white = new StringBuilder("K");
+        StringBuilder black = new StringBuilder("K");
+        for (int piece : pieces) {
+            (Position.colorOf(piece) == Position.WHITE ? white : black).append(LETTERS.charAt(Position.typeOf(piece)));
+        }
+        return white + "v" + black;
+    }
+
+    // White holds the stronger side, and each side's pieces are listed strongest first
+    static int[] canonical(int[] pieces) {
+        int[] white = side(pieces, Position.WHITE);
+        int[] black = side(pieces, Position.BLACK);
+        boolean swap = white.length < black.length
+                || white.length == black.length && Arrays.compare(white, black) < 0;
+        int[] result = new int[pieces.length];
+        int n = 0;
+        for (int type : swap ? black : white) {
+            result[n++] = Position.piece(Position.WHITE, type);
+        }
+        for (int type : swap ? white : black) {
+            result[n++] = Position.piece(Position.BLACK, type);
+        }
+        return result;
+    }
+
+    private static int[] side(int[] pieces, int color) {
+        return Arrays.stream(pieces).filter(p -> Position.colorOf(p) == color)
+                .map(Position::typeOf).boxed().sorted((a, b) -> b - a).mapToInt(Integer::intValue).toArray();
+    }
+
+    static int materialKey(int[] pieces, boolean flip) {
+        int key = 0;
+        for (int piece : pieces) {
+            key += POW3[flip ? piece ^ 1 : piece];
+        }
+        return key;
+    }
+
+    static long size(int pieceCount) {
+        return 2L << (6 * (pieceCount + 2));
+    }
+
+    // Side to move, white king, black king, then each piece's square in signature order
+    static long index(int sideToMove, int whiteKing, int blackKing, int[] squares) {
+        long index = ((long) sideToMove << 12) | whiteKing << 6 | blackKing;
+        for (int sq : squares) {
+            index = index << 6 | sq;
+        }
+        return index;
+    }
+
+    // A flipped probe mirrors the board vertically and swaps colours to reach the stored orientation
+    private static long index(int[] pieces, Position pos, boolean flip) {
+        int mirror = flip ? 56 : 0;
+        int stm = pos.sideToMove() ^ (flip ? 1 : 0);
+        int whiteKing = pos.kingSquare(flip ? Position.BLACK : Position.WHITE) ^ mirror;
+        int blackKing = pos.kingSquare(flip ? Position.WHITE : Position.BLACK) ^ mirror;
+        long index = ((long) stm << 12) | whiteKing << 6 | blackKing;
+        long used = 0;
+        for (int piece : pieces) {
+            long bb = pos.pieces(flip ? piece ^ 1 : piece) & ~used;
+            int sq = Long.numberOfTrailingZeros(bb);
+            used |= 1L << sq;
+            index = index << 6 | (sq ^ mirror);
+        }
+        return index;
+    }
+
+    static final class Table {
+        final int[] pieces;
+        final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final int dtmBits;
+        private final int dtmMask;
+        private final int dtmOffset;
+
+        private Table(int[] pieces, FileChannel channel, MappedByteBuffer buffer, int dtmBits, int dtmOffset) {
+            this.pieces = pieces;
+            this.channel = channel;
+            this.buffer = buffer;
+            this.dtmBits = dtmBits;
+            this.dtmMask = (1 << dtmBits) - 1;
+            this.dtmOffset = dtmOffset;
+        }
+
+        static Table open(Path file) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+            try {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+                    throw new IOException("No es una tabla de finales: " + file);
+                }
+                if (buffer.getInt(4) != VERSION) {
+                    throw new IOException("Versión de tabla no soportada: " + buffer.getInt(4));
+                }
+                int count = buffer.getInt(8);
+                int[] pieces = new int[count];
+                for (int i = 0; i < count; i++) {
+                    pieces[i] = buffer.get(12 + i);
+                }
+                int dtmBits = buffer.getInt(16);
+                long entries = buffer.getLong(24);
+                long wdlBytes = (entries + 3) / 4;
+                if (entries != size(count) || buffer.limit() < HEADER_SIZE + wdlBytes + (entries * dtmBits + 7) / 8) {
+                    throw new IOException("Tabla de finales dañada: " + file);
+                }
+                return new Table(pieces, channel, buffer, dtmBits, (int) (HEADER_SIZE + wdlBytes));
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        int wdl(long index) {
+            return buffer.get(HEADER_SIZE + (int) (index >>> 2)) >>> ((int) (index & 3) * 2) & 3;
+        }
+
+        // Read through a two-byte window; entries are at most 8 bits and the file is padded
+        int dtm(long index) {
+            long bit = index * dtmBits;
+            int window = buffer.getShort(dtmOffset + (int) (bit >>> 3)) & 0xFFFF;
+            return window >>> (16 - (int) (bit & 7) - dtmBits) & dtmMask;
+        }
+    }
+}
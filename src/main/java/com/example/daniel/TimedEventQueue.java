@@ -0,0 +1,26 @@
+package com.example.daniel;
+
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+
+// Times every event the EDT dispatches into Metrics. Kept apart from Metrics so headless modes
+// never load AWT.
+final class TimedEventQueue extends EventQueue {
+    // Call before the first window is shown
+    static void install() {
+        if (Metrics.ENABLED) {
+            Toolkit.getDefaultToolkit().getSystemEventQueue().push(new TimedEventQueue());
+        }
+    }
+
+    @Override
+    protected void dispatchEvent(AWTEvent event) {
+        long start = System.nanoTime();
+        try {
+            super.dispatchEvent(event);
+        } finally {
+            Metrics.EDT_DISPATCH_NANOS.record(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,708 @@
+package com.example.daniel;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Engine-vs-engine matches without a GUI: java -jar chess.jar tournament [opciones]
+// Every worker plays whole games with its own pair of single-threaded engines, so games run in
+// parallel with no shared state but the result counters and the PGN output. Each opening is
+// played twice with colours reversed. Games are written to PGN as they finish, and an SPRT test
+// can stop the match as soon as the result is clear.
+public final class Tournament {
+    private static final String USAGE = "Uso: tournament [--engine nombre:opcion=valor,...] [--engine ...]"
+            + " [--games N] [--concurrency N] [--openings archivo.epd|archivo.pgn] [--opening-plies N]"
+            + " [--nodes N | --depth N | --movetime MS | --tc segundos+incremento] [--max-plies N]"
+            + " [--sprt elo0 elo1] [--seed N] [--pgn archivo]";
+    private static final int DEFAULT_NODES = 20_000;
+    private static final int DEFAULT_HASH = 16;
+    private static final int RANDOM_OPENING_PLIES = 8;
+    private static final int REPORT_EVERY = 10;
+
+    // A player. One instance plays one game at a time on one worker thread.
+    public interface Engine extends Closeable {
+        void newGame();
+
+        // The move to play in pos; remainingMillis and incrementMillis are this side's clock, or 0
+        // in games without one
+        int think(Position pos, long remainingMillis, long incrementMillis);
+    }
+
+    private final Config first;
+    private final Config second;
+    private final int concurrency;
+    private final ChessClock.TimeControl timeControl;
+    private final int maxPlies;
+    private Sprt sprt;
+    private PrintStream log;
+
+    private final Score score = new Score();
+    private volatile boolean stopped;
+    private final List<Engine> engines = Collections.synchronizedList(new ArrayList<>());
+
+    // timeControl is null for games without a clock, limited by each engine's own limits
+    Tournament(Config first, Config second, int concurrency, ChessClock.TimeControl timeControl, int maxPlies) {
+        this.first = first;
+        this.second = second;
+        this.concurrency = Math.max(1, concurrency);
+        this.timeControl = timeControl;
+        this.maxPlies = maxPlies;
+    }
+
+    void setSprt(Sprt sprt) {
+        this.sprt = sprt;
+    }
+
+    // Progress lines go here; null is silent
+    void setLog(PrintStream log) {
+        this.log = log;
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<String> specs = new ArrayList<>();
+        int games = 1000;
+        int concurrency = Runtime.getRuntime().availableProcessors();
+        String openings = null;
+        int openingPlies = -1;
+        int depth = 0;
+        long nodes = 0;
+        long movetime = 0;
+        String tc = null;
+        int maxPlies = 400;
+        double[] sprtBounds = null;
+        long seed = System.nanoTime();
+        String output = null;
+        boolean valid = true;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--engine" -> specs.add(args[++i]);
+                    case "--games" -> games = Integer.parseInt(args[++i]);
+                    case "--concurrency" -> concurrency = Integer.parseInt(args[++i]);
+                    case "--openings" -> openings = args[++i];
+                    case "--opening-plies" -> openingPlies = Integer.parseInt(args[++i]);
+                    case "--depth" -> depth = Integer.parseInt(args[++i]);
+                    case "--nodes" -> nodes = Long.parseLong(args[++i]);
+                    case "--movetime" -> movetime = Long.parseLong(args[++i]);
+                    case "--tc" -> tc = args[++i];
+                    case "--max-plies" -> maxPlies = Integer.parseInt(args[++i]);
+                    case "--sprt" -> sprtBounds = new double[]{Double.parseDouble(args[++i]), Double.parseDouble(args[++i])};
+                    case "--seed" -> seed = Long.parseLong(args[++i]);
+                    case "--pgn" -> output = args[++i];
+                    default -> valid = false;
+                }
+            }
+        } catch (RuntimeException e) {
+            valid = false;
+        }
+        ChessClock.TimeControl timeControl = null;
+        List<Config> configs = new ArrayList<>();
+        try {
+            if (tc != null) {
+                timeControl = parseTimeControl(tc);
+            }
+            if (depth == 0 && nodes == 0 && movetime == 0 && timeControl == null) {
+                nodes = DEFAULT_NODES;
+            }
+            SearchLimits limits = new SearchLimits(depth == 0 ? Search.MAX_PLY : depth, nodes, movetime);
+            // Two identical engines check the harness itself: the Elo difference should be 0
+            for (String spec : specs.isEmpty() ? List.of("A", "B") : specs) {
+                configs.add(Config.parse(spec, limits));
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            valid = false;
+        }
+        if (!valid || configs.size() != 2 || games < 1) {
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+
+        List<Position> positions = openings == null
+                ? randomOpenings((games + 1) / 2, openingPlies < 0 ? RANDOM_OPENING_PLIES : openingPlies, seed)
+                : loadOpenings(Path.of(openings), openingPlies);
+        if (positions.isEmpty()) {
+            System.err.println("No hay aperturas en " + openings);
+            System.exit(2);
+            return;
+        }
+        if (openings != null) {
+            Collections.shuffle(positions, new Random(seed));
+        }
+
+        Tournament tournament = new Tournament(configs.get(0), configs.get(1), concurrency, timeControl, maxPlies);
+        if (sprtBounds != null) {
+            tournament.setSprt(new Sprt(sprtBounds[0], sprtBounds[1], 0.05, 0.05));
+        }
+        tournament.setLog(System.err);
+        BufferedWriter out = output == null
+                ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                : Files.newBufferedWriter(Path.of(output), StandardCharsets.UTF_8);
+        long start = System.nanoTime();
+        Score result;
+        try (PgnWriter pgn = new PgnWriter(out)) {
+            result = tournament.run(positions, games, pgn);
+        } finally {
+            configs.get(0).close();
+            configs.get(1).close();
+        }
+        double hours = (System.nanoTime() - start) / 3.6e12;
+        System.err.printf("%d partidas en %.1f s (%.0f partidas/hora, %d en paralelo)%n",
+                result.games(), hours * 3600, result.games() / hours, concurrency);
+    }
+
+    // Plays up to games games, or fewer if the SPRT test ends the match, and returns the score of
+    // the first engine. Game 2k and 2k+1 start from opening k (cycled), the first engine having
+    // white in the even one.
+    Score run(List<Position> openings, int games, PgnWriter pgn) throws IOException {
+        ThreadLocal<Engine[]> players = ThreadLocal.withInitial(() -> {
+            Engine[] pair = {first.create(), second.create()};
+            engines.add(pair[0]);
+            engines.add(pair[1]);
+            return pair;
+        });
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency, r -> {
+            Thread t = new Thread(r, "chess-tournament");
+            t.setDaemon(true);
+            return t;
+        });
+        List<Future<?>> pending = new ArrayList<>(games);
+        try {
+            for (int i = 0; i < games; i++) {
+                int game = i;
+                pending.add(workers.submit(() -> {
+                    if (!stopped) {
+                        playAndRecord(players.get(), openings.get(game / 2 % openings.size()), game, pgn);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : pending) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Torneo interrumpido", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            workers.shutdownNow();
+            synchronized (engines) {
+                for (Engine engine : engines) {
+                    engine.close();
+                }
+                engines.clear();
+            }
+        }
+        report(true);
+        return score;
+    }
+
+    private void playAndRecord(Engine[] pair, Position opening, int game, PgnWriter pgn) {
+        boolean firstIsWhite = game % 2 == 0;
+        Config white = firstIsWhite ? first : second;
+        Config black = firstIsWhite ? second : first;
+        Map<String, String> tags = new LinkedHashMap<>();
+        tags.put("Event", "Torneo " + first.name + " - " + second.name);
+        tags.put("Round", (game / 2 + 1) + "." + (game % 2 + 1));
+        tags.put("White", white.name);
+        tags.put("Black", black.name);
+        if (timeControl != null) {
+            tags.put("TimeControl", timeControl.name);
+        }
+        PgnGame played = play(firstIsWhite ? pair[0] : pair[1], firstIsWhite ? pair[1] : pair[0],
+                opening, timeControl, maxPlies, tags);
+
+        double points = switch (played.result()) {
+            case "1-0" -> 1;
+            case "0-1" -> 0;
+            default -> 0.5;
+        };
+        score.add(firstIsWhite ? points : 1 - points);
+        try {
+            // Whole games in finishing order, flushed so an interrupted match keeps what it played
+            synchronized (pgn) {
+                pgn.write(played);
+                pgn.flush();
+            }
+        } catch (IOException e) {
+            stopped = true;
+            throw new UncheckedIOException(e);
+        }
+        if (sprt != null && sprt.decide(score) != 0) {
+            stopped = true;
+        }
+        report(false);
+    }
+
+    private void report(boolean last) {
+        PrintStream log = this.log;
+        if (log == null) {
+            return;
+        }
+        synchronized (score) {
+            long games = score.games();
+            if (!last && games % REPORT_EVERY != 0) {
+                return;
+            }
+            StringBuilder line = new StringBuilder(128);
+            line.append(String.format("Partidas: %d  +%d =%d -%d  Elo %+.1f ± %.1f", games,
+                    score.wins(), score.draws(), score.losses(), score.elo(), score.eloError()));
+            if (sprt != null) {
+                line.append(String.format("  LLR %.2f [%.2f, %.2f]", sprt.llr(score), sprt.lowerBound(), sprt.upperBound()));
+                int decision = sprt.decide(score);
+                if (last && decision != 0) {
+                    line.append(decision > 0 ? "  H1 aceptada" : "  H0 aceptada");
+                }
+            }
+            log.println(line);
+        }
+    }
+
+    // Plays one game to its end. The result is decided by mate, stalemate, the fifty-move rule,
+    // insufficient material, a repeated position, a fallen flag, an illegal move or, after
+    // maxPlies plies, a draw by adjudication. Repetitions count from the first recurrence, as in
+    // the search, which shortens drawn games without changing their result.
+    static PgnGame play(Engine white, Engine black, Position opening, ChessClock.TimeControl timeControl,
+                        int maxPlies, Map<String, String> tags) {
+        Position pos = new Position();
+        pos.copyFrom(opening);
+        white.newGame();
+        black.newGame();
+        ChessClock clock = timeControl == null ? null : new ChessClock(timeControl);
+        if (clock != null) {
+            clock.start(pos.sideToMove());
+        }
+        int[] buffer = new int[MoveGen.MAX_MOVES];
+        int[] moves = new int[64];
+        int plies = 0;
+        String result;
+        String termination = "normal";
+        while (true) {
+            int us = pos.sideToMove();
+            String loss = us == Position.WHITE ? "0-1" : "1-0";
+            int count = MoveGen.generate(pos, buffer, 0);
+            if (count == 0) {
+                result = pos.isInCheck(us) ? loss : "1/2-1/2";
+                break;
+            }
+            if (pos.halfmoveClock() >= 100 || pos.isRepetition() || insufficientMaterial(pos)) {
+                result = "1/2-1/2";
+                break;
+            }
+            if (plies >= maxPlies) {
+                result = "1/2-1/2";
+                termination = "adjudication";
+                break;
+            }
+            Engine engine = us == Position.WHITE ? white : black;
+            int move = engine.think(pos, clock == null ? 0 : clock.remainingMillis(us),
+                    clock == null ? 0 : timeControl.incrementMillis);
+            if (clock != null) {
+                clock.press();
+                if (!clock.isRunning()) {
+                    result = loss;
+                    termination = "time forfeit";
+                    break;
+                }
+            }
+            if (!contains(buffer, count, move)) {
+                result = loss;
+                termination = "rules infraction";
+                break;
+            }
+            if (plies == moves.length) {
+                moves = Arrays.copyOf(moves, plies * 2);
+            }
+            moves[plies++] = move;
+            pos.makeMove(move);
+        }
+        Map<String, String> gameTags = new LinkedHashMap<>(tags);
+        gameTags.put("Result", result);
+        gameTags.put("Termination", termination);
+        return new PgnGame(gameTags, opening, Arrays.copyOf(moves, plies), result);
+    }
+
+    private static boolean contains(int[] moves, int count, int move) {
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Bare kings, or a single knight or bishop against a bare king
+    static boolean insufficientMaterial(Position pos) {
+        int pieces = Long.bitCount(pos.occupied());
+        if (pieces == 2) {
+            return true;
+        }
+        if (pieces != 3) {
+            return false;
+        }
+        long minors = pos.pieces(Position.WHITE, Position.KNIGHT) | pos.pieces(Position.BLACK, Position.KNIGHT)
+                | pos.pieces(Position.WHITE, Position.BISHOP) | pos.pieces(Position.BLACK, Position.BISHOP);
+        return minors != 0;
+    }
+
+    // "60+0.6": seconds and increment in seconds
+    static ChessClock.TimeControl parseTimeControl(String text) {
+        String[] parts = text.split("\\+", 2);
+        try {
+            long base = Math.round(Double.parseDouble(parts[0]) * 1000);
+            long increment = parts.length == 2 ? Math.round(Double.parseDouble(parts[1]) * 1000) : 0;
+            return new ChessClock.TimeControl(text, base, increment, ChessClock.Increment.FISCHER);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Control de tiempo inválido: " + text);
+        }
+    }
+
+    // Positions after plies random legal moves from the start, skipping lines that end the game
+    static List<Position> randomOpenings(int count, int plies, long seed) {
+        Random random = new Random(seed);
+        int[] buffer = new int[MoveGen.MAX_MOVES];
+        List<Position> openings = new ArrayList<>(count);
+        while (openings.size() < count) {
+            Position pos = Position.startPosition();
+            int ply = 0;
+            while (ply < plies) {
+                int moves = MoveGen.generate(pos, buffer, 0);
+                if (moves == 0) {
+                    break;
+                }
+                pos.makeMove(buffer[random.nextInt(moves)]);
+                ply++;
+            }
+            if (ply == plies && MoveGen.generate(pos, buffer, 0) > 0) {
+                Position opening = new Position();
+                opening.copyFrom(pos);
+                openings.add(opening);
+            }
+        }
+        return openings;
+    }
+
+    // One FEN or EPD position per line, or the positions reached by the games of a PGN file, after
+    // at most plies moves when plies is not negative
+    static List<Position> loadOpenings(Path file, int plies) throws IOException {
+        List<Position> openings = new ArrayList<>();
+        if (file.getFileName().toString().toLowerCase().endsWith(".pgn")) {
+            try (PgnReader reader = PgnReader.open(file, 1)) {
+                reader.onError(e -> System.err.println("Apertura omitida: " + e.getMessage()));
+                while (reader.hasNext()) {
+                    PgnGame game = reader.next();
+                    Position pos = game.start();
+                    int[] moves = game.moves();
+                    int count = plies < 0 ? moves.length : Math.min(plies, moves.length);
+                    for (int i = 0; i < count; i++) {
+                        pos.makeMove(moves[i]);
+                    }
+                    Position opening = new Position();
+                    opening.copyFrom(pos);
+                    openings.add(opening);
+                }
+            }
+            return openings;
+        }
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                String text = line.strip();
+                if (!text.isEmpty() && !text.startsWith("#")) {
+                    openings.add(BatchAnalysis.Epd.parse(text).position);
+                }
+            }
+        }
+        return openings;
+    }
+
+    // Engine settings from "nombre:opcion=valor,...". Options are depth, nodes and movetime (the
+    // search limits, also used to cap clock-based budgets), hash in MB, book and tb files shared
+    // by all instances, and class: an Engine implementation with a public constructor taking the
+    // options map, or none, to play something other than the built-in search.
+    static final class Config implements Closeable {
+        final String name;
+        final SearchLimits limits;
+        final int hashMegabytes;
+        final Map<String, String> options;
+        private final Class<? extends Engine> engineClass;
+        private OpeningBook book;
+        private Tablebases tablebases;
+
+        private Config(String name, SearchLimits limits, int hashMegabytes, Map<String, String> options,
+                       Class<? extends Engine> engineClass) {
+            this.name = name;
+            this.limits = limits;
+            this.hashMegabytes = hashMegabytes;
+            this.options = options;
+            this.engineClass = engineClass;
+        }
+
+        static Config parse(String spec, SearchLimits defaults) {
+            int colon = spec.indexOf(':');
+            String name = colon < 0 ? spec : spec.substring(0, colon);
+            if (name.isBlank()) {
+                throw new IllegalArgumentException("Motor sin nombre: " + spec);
+            }
+            Map<String, String> options = new LinkedHashMap<>();
+            if (colon >= 0 && colon < spec.length() - 1) {
+                for (String option : spec.substring(colon + 1).split(",")) {
+                    String[] pair = option.split("=", 2);
+                    if (pair.length != 2) {
+                        throw new IllegalArgumentException("Opción de motor inválida: " + option);
+                    }
+                    options.put(pair[0].strip(), pair[1].strip());
+                }
+            }
+            try {
+                int depth = options.containsKey("depth") ? Integer.parseInt(options.get("depth")) : defaults.depth;
+                long nodes = options.containsKey("nodes") ? Long.parseLong(options.get("nodes")) : defaults.nodes;
+                long movetime = options.containsKey("movetime")
+                        ? Long.parseLong(options.get("movetime")) : defaults.timeMillis;
+                int hash = options.containsKey("hash") ? Integer.parseInt(options.get("hash")) : DEFAULT_HASH;
+                Class<? extends Engine> engineClass = null;
+                if (options.containsKey("class")) {
+                    engineClass = Class.forName(options.get("class")).asSubclass(Engine.class);
+                }
+                return new Config(name.strip(), new SearchLimits(depth, nodes, movetime), Math.max(1, hash),
+                        Collections.unmodifiableMap(options), engineClass);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Opción de motor inválida: " + spec);
+            } catch (ClassNotFoundException | ClassCastException e) {
+                throw new IllegalArgumentException("Clase de motor inválida: " + options.get("class"));
+            }
+        }
+
+        Engine create() {
+            if (engineClass != null) {
+                try {
+                    try {
+                        return engineClass.getConstructor(Map.class).newInstance(options);
+                    } catch (NoSuchMethodException e) {
+                        return engineClass.getConstructor().newInstance();
+                    }
+                } catch (ReflectiveOperationException e) {
+                    throw new IllegalStateException("No se pudo crear el motor " + name, e);
+                }
+            }
+            return new SearchEngine(this);
+        }
+
+        // Opened on first use and shared by every instance; both are safe to probe concurrently
+        synchronized OpeningBook book() {
+            String file = options.get("book");
+            if (book == null && file != null) {
+                try {
+                    book = OpeningBook.open(Path.of(file));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return book;
+        }
+
+        synchronized Tablebases tablebases() {
+            String dir = options.get("tb");
+            if (tablebases == null && dir != null) {
+                try {
+                    tablebases = Tablebases.open(Path.of(dir));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return tablebases;
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            if (book != null) {
+                book.close();
+            }
+            if (tablebases != null) {
+                tablebases.close();
+            }
+        }
+    }
+
+    // The built-in engine: a single-threaded search with its own table, cleared between games
+    static final class SearchEngine implements Engine {
+        private final SearchLimits limits;
+        private final TranspositionTable tt;
+        private final SearchPool pool;
+        private final OpeningBook book;
+
+        SearchEngine(Config config) {
+            this.limits = config.limits;
+            this.tt = new TranspositionTable(config.hashMegabytes);
+            this.pool = new SearchPool(tt, 1);
+            this.book = config.book();
+            pool.setTablebases(config.tablebases());
+        }
+
+        @Override
+        public void newGame() {
+            tt.clear();
+        }
+
+        @Override
+        public int think(Position pos, long remainingMillis, long incrementMillis) {
+            if (book != null) {
+                int move = book.probe(pos, ThreadLocalRandom.current());
+                if (move != Moves.NONE) {
+                    return move;
+                }
+            }
+            SearchLimits limits = this.limits;
+            if (remainingMillis > 0) {
+                long budget = SearchLimits.clock(remainingMillis, incrementMillis, 0).timeMillis;
+                if (limits.timeMillis == 0 || budget < limits.timeMillis) {
+                    limits = new SearchLimits(limits.depth, limits.nodes, budget);
+                }
+            }
+            return pool.search(pos, limits, null).bestMove;
+        }
+
+        @Override
+        public void close() {
+            pool.shutdown();
+        }
+    }
+
+    // Wins, draws and losses of the first engine
+    static final class Score {
+        private long wins;
+        private long draws;
+        private long losses;
+
+        synchronized void add(double points) {
+            if (points > 0.75) {
+                wins++;
+            } else if (points < 0.25) {
+                losses++;
+            } else {
+                draws++;
+            }
+        }
+
+        synchronized long wins() {
+            return wins;
+        }
+
+        synchronized long draws() {
+            return draws;
+        }
+
+        synchronized long losses() {
+            return losses;
+        }
+
+        synchronized long games() {
+            return wins + draws + losses;
+        }
+
+        synchronized double score() {
+            long games = games();
+            return games == 0 ? 0.5 : (wins + 0.5 * draws) / games;
+        }
+
+        // Variance of the points of a single game
+        synchronized double variance() {
+            long games = games();
+            if (games == 0) {
+                return 0;
+            }
+            double s = score();
+            return (wins * (1 - s) * (1 - s) + draws * (0.5 - s) * (0.5 - s) + losses * s * s) / games;
+        }
+
+        synchronized double elo() {
+            return Tournament.elo(score());
+        }
+
+        // Half width of the 95% confidence interval, from the normal approximation of the score
+        synchronized double eloError() {
+            long games = games();
+            if (games == 0) {
+                return Double.POSITIVE_INFINITY;
+            }
+            double margin = 1.959964 * Math.sqrt(variance() / games);
+            return (Tournament.elo(score() + margin) - Tournament.elo(score() - margin)) / 2;
+        }
+    }
+
+    // Logistic Elo difference for an expected score, clamped short of infinity at 0 and 1
+    static double elo(double score) {
+        double s = Math.max(1e-6, Math.min(score, 1 - 1e-6));
+        return -400 * Math.log10(1 / s - 1);
+    }
+
+    static double expectedScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    // Sequential probability ratio test of H0: elo = elo0 against H1: elo = elo1, using the
+    // normal approximation of the log-likelihood ratio from the observed score and variance
+    static final class Sprt {
+        final double elo0;
+        final double elo1;
+        private final double lower;
+        private final double upper;
+
+        Sprt(double elo0, double elo1, double alpha, double beta) {
+            this.elo0 = elo0;
+            this.elo1 = elo1;
+            this.lower = Math.log(beta / (1 - alpha));
+            this.upper = Math.log((1 - beta) / alpha);
+        }
+
+        double lowerBound() {
+            return lower;
+        }
+
+        double upperBound() {
+            return upper;
+        }
+
+        double llr(Score score) {
+            synchronized (score) {
+                double variance = score.variance();
+                if (variance == 0) {
+                    return 0;
+                }
+                double s0 = expectedScore(elo0);
+                double s1 = expectedScore(elo1);
+                return score.games() * (s1 - s0) * (2 * score.score() - s0 - s1) / (2 * variance);
+            }
+        }
+
+        // 1 when H1 is accepted, -1 for H0, 0 while undecided
+        int decide(Score score) {
+            double llr = llr(score);
+            return llr >= upper ? 1 : llr <= lower ? -1 : 0;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.daniel;
+
+import java.util.Arrays;
+
+// Fixed-size hash table in one long[]: buckets of four (key ^ data, data) pairs, 64 bytes per bucket.
+// data packs move (16 bits), score (16), depth (8), bound (2) and search generation (6).
+// Search threads share it without locks: a torn write leaves key ^ data inconsistent and the
+// entry simply fails to match.
+final class TranspositionTable {
+    static final int BOUND_UPPER = 1;
+    static final int BOUND_LOWER = 2;
+    static final int BOUND_EXACT = 3;
+
+    private static final int ENTRIES_PER_BUCKET = 4;
+    private static final int LONGS_PER_BUCKET = ENTRIES_PER_BUCKET * 2;
+    private static final int BUCKET_BYTES = LONGS_PER_BUCKET * Long.BYTES;
+
+    private long[] table;
+    private int bucketMask;
+    private int generation;
+
+    TranspositionTable(int megabytes) {
+        resize(megabytes);
+    }
+
+    void resize(int megabytes) {
+        long buckets = Math.max(1L, (long) megabytes * 1024 * 1024 / BUCKET_BYTES);
+        // Round down to a power of two so the index is a mask
+        int count = Integer.highestOneBit((int) Math.min(buckets, Integer.MAX_VALUE / LONGS_PER_BUCKET));
+        table = new long[count * LONGS_PER_BUCKET];
+        bucketMask = count - 1;
+        generation = 0;
+    }
+
+    void clear() {
+        Arrays.fill(table, 0L);
+        generation = 0;
+    }
+
+    void newSearch() {
+        generation = (generation + 1) & 63;
+    }
+
+    int sizeMegabytes() {
+        return (int) ((long) table.length * Long.BYTES / (1024 * 1024));
+    }
+
+    // Returns the packed data for the key, or 0 when the position is not stored
+    long probe(long key) {
+        int base = bucket(key);
+        for (int i = base; i < base + LONGS_PER_BUCKET; i += 2) {
+            long data = table[i + 1];
+            if ((table[i] ^ data) == key && data != 0) {
+                return data;
+            }
+        }
+        return 0L;
+    }
+
+    void store(long key, int move, int score, int depth, int bound) {
+        int base = bucket(key);
+        int target = base;
+        int worst = Integer.MAX_VALUE;
+        for (int i = base; i < base + LONGS_PER_BUCKET; i += 2) {
+            long data = table[i + 1];
+            boolean sameKey = (table[i] ^ data) == key;
+            if (data == 0 || sameKey) {
+                target = i;
+                if (sameKey && move == Moves.NONE) {
+                    move = move(data);
+                }
+                break;
+            }
+            // Prefer to overwrite shallow entries and entries from earlier searches
+            int age = (generation - generation(data)) & 63;
+            int value = depth(data) - 8 * age;
+            if (value < worst) {
+                worst = value;
+                target = i;
+            }
+        }
+        long data = pack(move, score, depth, bound);
+        table[target] = key ^ data;
+        table[target + 1] = data;
+    }
+
+    // Permille of sampled entries written during the current search, as UCI hashfull expects
+    int hashfull() {
+        int sampled = Math.min(1000, table.length / 2);
+        int used = 0;
+        for (int i = 0; i < sampled; i++) {
+            long data = table[i * 2 + 1];
+            if (data != 0 && generation(data) == generation) {
+                used++;
+            }
+        }
+        return sampled == 0 ? 0 : used * 1000 / sampled;
+    }
+
+    static int move(long data) {
+        return (int) (data & 0xFFFF);
+    }
+
+    static int score(long data) {
+        return (short) (data >>> 16);
+    }
+
+    static int depth(long data) {
+        return (int) ((data >>> 32) & 0xFF);
+    }
+
+    static int bound(long data) {
+        return (int) ((data >>> 40) & 3);
+    }
+
+    private static int generation(long data) {
+        return (int) ((data >>> 42) & 63);
+    }
+
+    private long pack(int move, int score, int depth, int bound) {
+        return (move & 0xFFFFL)
+                | ((score & 0xFFFFL) << 16)
+                | ((long) Math.max(0, Math.min(depth, 255)) << 32)
+                | ((long) bound << 40)
+                | ((long) generation << 42);
+    }
+
+    private int bucket(long key) {
+        return (int) (key >>> 32 & bucketMask) * LONGS_PER_BUCKET;
+    }
+}
@@ -0,0 +1,420 @@
+package com.example.daniel;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Universal Chess Interface on stdin/stdout: java -jar chess.jar uci
+// Commands are read on the calling thread and each "go" searches on its own thread, so "stop",
+// "ponderhit" and "isready" are answered while the engine thinks. Nothing here touches AWT.
+public final class UciEngine {
+    static final String NAME = "chessgame";
+    static final int DEFAULT_HASH = 16;
+    static final int MAX_HASH = 4096;
+    static final int MAX_THREADS = 256;
+
+    private final BufferedReader in;
+    private final PrintWriter out;
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "chess-uci-timer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private int hashMegabytes = DEFAULT_HASH;
+    private int threads = 1;
+    private TranspositionTable tt = new TranspositionTable(DEFAULT_HASH);
+    private SearchPool pool = new SearchPool(tt, 1);
+    private Position position = Position.startPosition();
+
+    private Thread searchThread;
+    private volatile Go current;
+
+    UciEngine(BufferedReader in, Writer out) {
+        this.in = in;
+        this.out = new PrintWriter(out, false);
+    }
+
+    public static void main(String[] args) throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        Writer out = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+        new UciEngine(in, out).run();
+    }
+
+    // Returns on "quit" or at the end of input, after any running search has answered
+    void run() throws IOException {
+        try {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!execute(line.strip())) {
+                    return;
+                }
+            }
+            // Scripts that pipe in commands and close stdin still get their bestmove
+            Go go = current;
+            if (go != null && go.waitsForStop()) {
+                stop();
+            }
+            waitForSearch();
+        } finally {
+            stop();
+            waitForSearch();
+            timer.shutdownNow();
+            pool.shutdown();
+        }
+    }
+
+    // False for "quit"
+    boolean execute(String line) {
+        String[] tokens = line.split("\\s+");
+        switch (tokens[0]) {
+            case "uci" -> {
+                send("id name " + NAME);
+                send("id author Daniel Moya");
+                send("option name Hash type spin default " + DEFAULT_HASH + " min 1 max " + MAX_HASH);
+                send("option name Threads type spin default 1 min 1 max " + MAX_THREADS);
+                send("option name Ponder type check default false");
+                send("uciok");
+            }
+            case "isready" -> send("readyok");
+            case "ucinewgame" -> {
+                waitForSearch();
+                tt.clear();
+                position = Position.startPosition();
+            }
+            case "setoption" -> {
+                waitForSearch();
+                setOption(tokens);
+            }
+            case "position" -> {
+                waitForSearch();
+                setPosition(tokens);
+            }
+            case "go" -> {
+                waitForSearch();
+                go(tokens);
+            }
+            case "metrics" -> sendMetrics(tokens.length > 1 && tokens[1].equals("json"));
+            case "stop" -> stop();
+            case "ponderhit" -> ponderhit();
+            case "quit" -> {
+                return false;
+            }
+            case "" -> {
+            }
+            default -> send("info string Comando desconocido: " + tokens[0]);
+        }
+        return true;
+    }
+
+    // Not part of UCI: "metrics" or "metrics json", as info strings GUIs show or ignore
+    private void sendMetrics(boolean json) {
+        if (json) {
+            send("info string " + Metrics.json());
+            return;
+        }
+        for (String line : Metrics.text().split("\\R")) {
+            send("info string " + line);
+        }
+    }
+
+    private void setOption(String[] tokens) {
+        String name = value(tokens, "name", "value");
+        String value = value(tokens, "value", null);
+        try {
+            if (name.equalsIgnoreCase("Hash")) {
+                int megabytes = Math.max(1, Math.min(Integer.parseInt(value), MAX_HASH));
+                if (megabytes != hashMegabytes) {
+                    hashMegabytes = megabytes;
+                    // Let the old table be collected before allocating the new one
+                    pool.shutdown();
+                    tt = null;
+                    pool = null;
+                    tt = new TranspositionTable(megabytes);
+                    pool = new SearchPool(tt, threads);
+                }
+            } else if (name.equalsIgnoreCase("Threads")) {
+                threads = Math.max(1, Math.min(Integer.parseInt(value), MAX_THREADS));
+                pool.setThreads(threads);
+            } else if (!name.equalsIgnoreCase("Ponder")) {
+                send("info string Opción desconocida: " + name);
+            }
+        } catch (RuntimeException e) {
+            send("info string Valor inválido para " + name + ": " + value);
+        }
+    }
+
+    // position [startpos | fen <fen>] [moves <move>...]
+    private void setPosition(String[] tokens) {
+        int i = 1;
+        Position pos;
+        try {
+            if (i < tokens.length && tokens[i].equals("startpos")) {
+                pos = Position.startPosition();
+                i++;
+            } else if (i < tokens.length && tokens[i].equals("fen")) {
+                StringBuilder fen = new StringBuilder();
+                for (i++; i < tokens.length && !tokens[i].equals("moves"); i++) {
+                    fen.append(tokens[i]).append(' ');
+                }
+                pos = Fen.parse(fen.toString().strip());
+            } else {
+                send("info string Posición inválida");
+                return;
+            }
+            int[] moves = new int[MoveGen.MAX_MOVES];
+            if (i < tokens.length && tokens[i].equals("moves")) {
+                for (i++; i < tokens.length; i++) {
+                    int move = findMove(pos, tokens[i], moves);
+                    if (move == Moves.NONE) {
+                        send("info string Movimiento ilegal: " + tokens[i]);
+                        return;
+                    }
+                    pos.makeMove(move);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            send("info string " + e.getMessage());
+            return;
+        }
+        position = pos;
+    }
+
+    private static int findMove(Position pos, String uci, int[] moves) {
+        int count = MoveGen.generate(pos, moves, 0);
+        for (int i = 0; i < count; i++) {
+            if (Moves.toUci(moves[i]).equals(uci)) {
+                return moves[i];
+            }
+        }
+        return Moves.NONE;
+    }
+
+    private void go(String[] tokens) {
+        long[] time = new long[2];
+        long[] increment = new long[2];
+        boolean[] hasClock = new boolean[2];
+        int movesToGo = 0;
+        long movetime = 0;
+        int depth = Search.MAX_PLY;
+        long nodes = 0;
+        boolean infinite = false;
+        boolean ponder = false;
+        try {
+            for (int i = 1; i < tokens.length; i++) {
+                switch (tokens[i]) {
+                    case "wtime" -> {
+                        time[Position.WHITE] = Long.parseLong(tokens[++i]);
+                        hasClock[Position.WHITE] = true;
+                    }
+                    case "btime" -> {
+                        time[Position.BLACK] = Long.parseLong(tokens[++i]);
+                        hasClock[Position.BLACK] = true;
+                    }
+                    case "winc" -> increment[Position.WHITE] = Long.parseLong(tokens[++i]);
+                    case "binc" -> increment[Position.BLACK] = Long.parseLong(tokens[++i]);
+                    case "movestogo" -> movesToGo = Integer.parseInt(tokens[++i]);
+                    case "movetime" -> movetime = Long.parseLong(tokens[++i]);
+                    case "depth" -> depth = Integer.parseInt(tokens[++i]);
+                    case "nodes" -> nodes = Long.parseLong(tokens[++i]);
+                    case "infinite" -> infinite = true;
+                    case "ponder" -> ponder = true;
+                    default -> {
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            send("info string Parámetros de go inválidos");
+            return;
+        }
+
+        int us = position.sideToMove();
+        long budget = movetime;
+        if (budget == 0 && hasClock[us]) {
+            // A flag already down or about to fall still gets a move: depth 1 always completes
+            budget = time[us] > 0 ? SearchLimits.clock(time[us], increment[us], movesToGo).timeMillis : 1;
+        }
+        Go go = new Go(infinite || ponder, ponder, budget);
+        // A pondering search has no deadline of its own; ponderhit starts its clock
+        SearchLimits limits = new SearchLimits(depth, nodes, go.waitsForStop() ? 0 : budget);
+        Position root = new Position();
+        root.copyFrom(position);
+        SearchPool engine = pool;
+        TranspositionTable table = tt;
+        current = go;
+        searchThread = new Thread(() -> {
+            SearchResult result = engine.search(root, limits, progress -> info(root, table, progress));
+            // In infinite and ponder mode the answer waits for stop or ponderhit
+            go.awaitRelease();
+            current = null;
+            // Progress is reported at most every 100 ms; the final score always goes out
+            if (result.depth > 0) {
+                info(root, table, result);
+            }
+            send("bestmove " + (result.bestMove == Moves.NONE ? "0000" : Moves.toUci(result.bestMove)));
+        }, "chess-uci-search");
+        searchThread.setDaemon(true);
+        searchThread.start();
+    }
+
+    private void info(Position root, TranspositionTable table, SearchResult progress) {
+        StringBuilder sb = new StringBuilder(96);
+        sb.append("info depth ").append(progress.depth);
+        if (Math.abs(progress.score) >= Search.MATE_BOUND) {
+            int plies = Search.MATE - Math.abs(progress.score);
+            sb.append(" score mate ").append(progress.score > 0 ? (plies + 1) / 2 : -(plies / 2));
+        } else {
+            sb.append(" score cp ").append(progress.score);
+        }
+        sb.append(" nodes ").append(progress.nodes)
+                .append(" nps ").append(progress.nodesPerSecond())
+                .append(" time ").append(progress.timeMillis);
+        if (progress.bestMove != Moves.NONE) {
+            sb.append(" pv ");
+            appendPv(sb, root, table, progress.bestMove, progress.depth);
+        }
+        send(sb.toString());
+    }
+
+    // The best move, then the table's move in each following position while it is legal there,
+    // up to depth moves; stops at a repetition so a cycle in the table cannot loop
+    private static void appendPv(StringBuilder sb, Position root, TranspositionTable table, int bestMove, int depth) {
+        Position pos = new Position();
+        pos.copyFrom(root);
+        int[] moves = new int[MoveGen.MAX_MOVES];
+        int move = bestMove;
+        for (int ply = 0; move != Moves.NONE; ply++) {
+            if (ply > 0) {
+                sb.append(' ');
+            }
+            sb.append(Moves.toUci(move));
+            pos.makeMove(move);
+            if (ply + 1 >= depth || pos.isRepetition()) {
+                break;
+            }
+            int stored = TranspositionTable.move(table.probe(pos.key()));
+            move = stored != Moves.NONE && isLegal(pos, stored, moves) ? stored : Moves.NONE;
+        }
+    }
+
+    private static boolean isLegal(Position pos, int move, int[] moves) {
+        int count = MoveGen.generate(pos, moves, 0);
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Returns once the bestmove has been sent. A search that had not started yet would reset its
+    // stop flag, so keep signalling until the search thread ends.
+    private void stop() {
+        Go go = current;
+        Thread thread = searchThread;
+        if (go == null || thread == null) {
+            return;
+        }
+        go.release();
+        stopUntilDone(pool, thread);
+    }
+
+    private static void stopUntilDone(SearchPool engine, Thread thread) {
+        while (thread.isAlive()) {
+            engine.stop();
+            try {
+                thread.join(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // The move the opponent was expected to play came: think on with the normal time budget
+    private void ponderhit() {
+        Go go = current;
+        if (go == null || !go.pondering) {
+            return;
+        }
+        go.pondering = false;
+        go.release();
+        if (go.budgetMillis > 0) {
+            SearchPool engine = pool;
+            Thread thread = searchThread;
+            timer.schedule(() -> stopUntilDone(engine, thread), go.budgetMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void waitForSearch() {
+        Thread thread = searchThread;
+        if (thread == null) {
+            return;
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        searchThread = null;
+    }
+
+    // Called from the input and search threads; every line is flushed at once for the GUI
+    private synchronized void send(String line) {
+        out.print(line);
+        out.print('\n');
+        out.flush();
+    }
+
+    private static String value(String[] tokens, String key, String end) {
+        StringBuilder sb = new StringBuilder();
+        boolean inside = false;
+        for (String token : tokens) {
+            if (token.equals(key)) {
+                inside = true;
+            } else if (end != null && token.equals(end)) {
+                inside = false;
+            } else if (inside) {
+                sb.append(sb.length() > 0 ? " " : "").append(token);
+            }
+        }
+        return sb.toString();
+    }
+
+    // One "go": infinite and ponder searches hold their bestmove until released
+    private static final class Go {
+        final long budgetMillis;
+        volatile boolean pondering;
+        private final CountDownLatch released;
+
+        Go(boolean waitsForStop, boolean pondering, long budgetMillis) {
+            this.budgetMillis = budgetMillis;
+            this.pondering = pondering;
+            this.released = new CountDownLatch(waitsForStop ? 1 : 0);
+        }
+
+        boolean waitsForStop() {
+            return released.getCount() > 0;
+        }
+
+        void release() {
+            released.countDown();
+        }
+
+        void awaitRelease() {
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.daniel;
+
+final class Zobrist {
+    static final long[][] PIECE_SQUARE = new long[12][64];
+    static final long[] CASTLING = new long[16];
+    static final long[] EP_FILE = new long[8];
+    static final long SIDE;
+
+    static {
+        // Fixed seed so keys are stable between runs and can be stored on disk
+        long[] state = {0x2D358DCCAA6C78A5L};
+        for (long[] squares : PIECE_SQUARE) {
+            for (int sq = 0; sq < 64; sq++) {
+                squares[sq] = next(state);
+            }
+        }
+        long[] rights = {next(state), next(state), next(state), next(state)};
+        for (int i = 0; i < CASTLING.length; i++) {
+            for (int bit = 0; bit < 4; bit++) {
+                if ((i & (1 << bit)) != 0) {
+                    CASTLING[i] ^= rights[bit];
+                }
+            }
+        }
+        for (int i = 0; i < EP_FILE.length; i++) {
+            EP_FILE[i] = next(state);
+        }
+        SIDE = next(state);
+    }
+
+    private Zobrist() {
+    }
+
+    static long ep(int epSquare) {
+        return epSquare == Position.NO_SQUARE ? 0L : EP_FILE[Bitboards.file(epSquare)];
+    }
+
+    // SplitMix64
+    private static long next(long[] state) {
+        long z = (state[0] += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
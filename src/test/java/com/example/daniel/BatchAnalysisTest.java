@@ -0,0 +1,45 @@
+package com.example.daniel;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchAnalysisTest {
+    @Test
+    void parsesEpdOperations() {
+        BatchAnalysis.Epd epd = BatchAnalysis.Epd.parse(
+                "6k1/5ppp/8/8/8/8/8/R5K1 w - - bm Ra8#; id \"mate; en uno\";");
+        assertEquals("mate; en uno", epd.id);
+        assertEquals(1, epd.bestMoves.size());
+        assertTrue(epd.matches(San.parse(epd.position, "Ra8")));
+    }
+
+    @Test
+    void writesOneJsonLinePerPositionInInputOrder() throws IOException {
+        String input = "# comentario\n"
+                + "6k1/5ppp/8/8/8/8/8/R5K1 w - - bm Ra8#; id \"m1\";\n"
+                + Fen.START + "\n"
+                + "\n"
+                + "esto no es un FEN\n"
+                + "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1\n";
+        StringWriter out = new StringWriter();
+        long count = new BatchAnalysis(SearchLimits.depth(3), 3, 1)
+                .run(new BufferedReader(new StringReader(input)), out);
+
+        String[] lines = out.toString().split("\n");
+        assertEquals(4, count);
+        assertEquals(4, lines.length);
+        assertTrue(lines[0].startsWith("{\"line\":2,\"id\":\"m1\""), lines[0]);
+        assertTrue(lines[0].contains("\"san\":\"Ra8#\"") && lines[0].contains("\"mate\":1"), lines[0]);
+        assertTrue(lines[0].endsWith("\"solved\":true}"), lines[0]);
+        assertTrue(lines[1].startsWith("{\"line\":3,"), lines[1]);
+        assertTrue(lines[2].startsWith("{\"line\":5,\"error\":"), lines[2]);
+        assertTrue(lines[3].startsWith("{\"line\":6,") && lines[3].contains("\"depth\":3"), lines[3]);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.daniel;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BroadcastTest {
+    @Test
+    void lateJoinerGetsSnapshotThenLiveEvents() throws Exception {
+        try (Broadcast broadcast = new Broadcast(0, Broadcast.DEFAULT_BUFFER_BYTES)) {
+            Position pos = Position.startPosition();
+            broadcast.position(pos);
+            int e4 = San.parse(pos, "e4");
+            pos.makeMove(e4);
+            broadcast.move(e4, "e4", Fen.toFen(pos));
+            broadcast.clock(59_000, 60_000, Position.BLACK);
+
+            try (Socket socket = new Socket("localhost", broadcast.port());
+                 BufferedReader in = reader(socket)) {
+                assertEquals("snapshot 3 " + Fen.toFen(pos), in.readLine());
+                assertEquals("clock 3 59000 60000 black", in.readLine());
+
+                int e5 = San.parse(pos, "e5");
+                broadcast.move(e5, "e5", "fen");
+                broadcast.eval(7, 25, 12345);
+                assertEquals("move 4 e7e5 e5", in.readLine());
+                assertEquals("eval 5 7 cp 25 12345", in.readLine());
+            }
+        }
+    }
+
+    @Test
+    void dropsSpectatorsThatFallBehind() throws Exception {
+        try (Broadcast broadcast = new Broadcast(0, 4096);
+             Socket slow = new Socket();
+             Socket reading = new Socket("localhost", broadcast.port());
+             BufferedReader in = reader(reading)) {
+            // A small receive window, so the kernel soon stops taking data for this spectator
+            slow.setReceiveBufferSize(4096);
+            slow.connect(new InetSocketAddress("localhost", broadcast.port()));
+            assertTrue(in.readLine().startsWith("snapshot"));
+            waitFor(() -> broadcast.subscribers() == 2);
+
+            String reason = "x".repeat(1000);
+            for (int i = 1; i <= 10_000 && broadcast.dropped() == 0; i++) {
+                broadcast.end("*", reason);
+                if (i % 2 == 0) {
+                    // Paced, so the reading spectator is never itself far behind
+                    waitForLine(in, "end " + i + " ");
+                }
+            }
+            waitFor(() -> broadcast.dropped() == 1);
+            assertEquals(1, broadcast.subscribers());
+            broadcast.end("1-0", "fin");
+            waitForLine(in, "end ");
+        }
+    }
+
+    @Test
+    void stopsQueueingOnceClosed() throws Exception {
+        Broadcast broadcast = new Broadcast(0, Broadcast.DEFAULT_BUFFER_BYTES);
+        broadcast.close();
+        for (int i = 0; i < 1000; i++) {
+            broadcast.clock(60_000, 60_000, Position.WHITE);
+        }
+        assertEquals(0, broadcast.queued());
+    }
+
+    private static void waitForLine(BufferedReader in, String prefix) throws IOException {
+        String line;
+        while ((line = in.readLine()) != null && !line.startsWith(prefix)) {
+            // skip
+        }
+        assertTrue(line != null, prefix);
+    }
+
+    private static void waitFor(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 500 && !condition.getAsBoolean(); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    private static BufferedReader reader(Socket socket) throws IOException {
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    }
+}
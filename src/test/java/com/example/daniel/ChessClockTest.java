@@ -0,0 +1,62 @@
+package com.example.daniel;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChessClockTest {
+    private long now;
+
+    private ChessClock clock(int minutes, int incrementSeconds, ChessClock.Increment increment) {
+        return new ChessClock(ChessClock.TimeControl.minutes("test", minutes, incrementSeconds, increment), () -> now);
+    }
+
+    @Test
+    void chargesExactElapsedTimeWithFischerIncrement() {
+        ChessClock clock = clock(3, 2, ChessClock.Increment.FISCHER);
+        clock.start(Position.WHITE);
+        now += 1_234_567_891L;
+        clock.press();
+        assertEquals(180_000_000_000L - 1_234_567_891L + 2_000_000_000L, clock.remainingNanos(Position.WHITE));
+        assertEquals(Position.BLACK, clock.runningColor());
+
+        now += 500_000_000L;
+        assertEquals(179_500, clock.remainingMillis(Position.BLACK));
+        clock.stop();
+        now += 10_000_000_000L;
+        assertEquals(179_500, clock.remainingMillis(Position.BLACK));
+    }
+
+    @Test
+    void bronsteinGivesBackAtMostTheTimeUsed() {
+        ChessClock clock = clock(5, 3, ChessClock.Increment.BRONSTEIN);
+        clock.start(Position.WHITE);
+        now += 1_000_000_000L;
+        clock.press();
+        assertEquals(300_000, clock.remainingMillis(Position.WHITE));
+        now += 10_000_000_000L;
+        clock.press();
+        assertEquals(293_000, clock.remainingMillis(Position.BLACK));
+    }
+
+    @Test
+    void flagFallsAndStopsTheClock() {
+        ChessClock clock = clock(1, 1, ChessClock.Increment.FISCHER);
+        clock.start(Position.WHITE);
+        now += 60_000_000_001L;
+        assertTrue(clock.isFlagged(Position.WHITE));
+        clock.press();
+        assertFalse(clock.isRunning());
+        assertEquals(0, clock.remainingNanos(Position.WHITE));
+        assertFalse(clock.isFlagged(Position.BLACK));
+    }
+
+    @Test
+    void budgetFitsRemainingTime() {
+        assertEquals(1000 + 1500, SearchLimits.clock(30_050, 2000, 0).timeMillis);
+        assertTrue(SearchLimits.clock(100, 0, 0).timeMillis <= 50);
+        assertTrue(SearchLimits.clock(10_000, 0, 1).timeMillis < 10_000);
+    }
+}
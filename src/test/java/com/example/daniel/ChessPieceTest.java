@@ -0,0 +1,44 @@
+package com.example.daniel;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ChessPieceTest {
+    @Test
+    void tablesFollowPositionCodes() {
+        for (Piece piece : Piece.values()) {
+            assertEquals(Position.piece(piece.color(), piece.type()), piece.code());
+            assertSame(piece, Piece.fromFen(piece.fenChar()));
+            assertSame(piece, Piece.fromName(piece.pieceName().toUpperCase(), piece.isWhite()));
+        }
+        assertEquals("♕", Piece.WHITE_QUEEN.symbol());
+        assertEquals(9, Piece.BLACK_QUEEN.points());
+        assertNull(ChessPiece.of(Position.NO_PIECE));
+    }
+
+    // Saved with the String-typed ChessPiece after 1. e4
+    @Test
+    void legacySaveResolvesToSharedPieces() throws Exception {
+        GameState state;
+        // The resources plugin configuration only copies main resources, so read it from the source tree
+        try (InputStream file = Files.newInputStream(Path.of("src/test/resources/legacy-e4.sav"));
+             ObjectInputStream in = new ObjectInputStream(file)) {
+            state = (GameState) in.readObject();
+        }
+        assertFalse(state.isWhiteTurn());
+        ChessPiece pawn = state.getPieces()[4][4];
+        assertSame(ChessPiece.of(Piece.WHITE_PAWN), pawn);
+        assertSame(ChessPiece.of(Piece.BLACK_KING), state.getPieces()[0][4]);
+        assertSame(pawn, state.getMoveHistory().peek().getMovedPiece());
+        assertEquals("♙", pawn.getSymbol());
+    }
+}
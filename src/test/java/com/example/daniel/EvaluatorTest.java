@@ -0,0 +1,78 @@
+package com.example.daniel;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EvaluatorTest {
+    private static final String[] POSITIONS = {
+            Fen.START,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "r2q1rk1/1b2bppp/p2p1n2/1p1Pp3/4P3/P1N2N2/1PB2PPP/R1BQR1K1 b - - 0 14",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "4k3/8/8/3PP3/8/8/2p5/4K3 b - - 0 1"
+    };
+
+    @Test
+    void incrementalTermsMatchRebuiltPosition() {
+        Position pos = Fen.parse(POSITIONS[1]);
+        walk(pos, 3, new int[MoveGen.MAX_MOVES * 3], 0);
+    }
+
+    @Test
+    void colourFlipGivesSameScore() {
+        Evaluator evaluator = new Evaluator();
+        for (String fen : POSITIONS) {
+            Position pos = Fen.parse(fen);
+            assertEquals(evaluator.evaluate(pos), evaluator.evaluate(flip(pos)), fen);
+        }
+    }
+
+    @Test
+    void extraQueenIsWinning() {
+        Evaluator evaluator = new Evaluator();
+        assertTrue(evaluator.evaluate(Fen.parse("4k3/8/8/8/8/8/8/3QK3 w - - 0 1")) > 800);
+        assertTrue(evaluator.evaluate(Fen.parse("4k3/8/8/8/8/8/8/3QK3 b - - 0 1")) < -800);
+    }
+
+    private static void walk(Position pos, int depth, int[] buffer, int offset) {
+        Position rebuilt = rebuild(pos);
+        assertEquals(rebuilt.mgScore(), pos.mgScore());
+        assertEquals(rebuilt.egScore(), pos.egScore());
+        assertEquals(rebuilt.phase(), pos.phase());
+        assertEquals(rebuilt.pawnKey(), pos.pawnKey());
+        if (depth == 0) {
+            return;
+        }
+        int count = MoveGen.generate(pos, buffer, offset);
+        for (int i = offset; i < offset + count; i++) {
+            pos.makeMove(buffer[i]);
+            walk(pos, depth - 1, buffer, offset + count);
+            pos.unmakeMove(buffer[i]);
+        }
+    }
+
+    private static Position rebuild(Position pos) {
+        Position copy = new Position();
+        for (int sq = 0; sq < 64; sq++) {
+            if (pos.pieceAt(sq) != Position.NO_PIECE) {
+                copy.putPiece(pos.pieceAt(sq), sq);
+            }
+        }
+        return copy;
+    }
+
+    // Mirrors ranks and swaps colours; castling and ep do not affect the evaluation
+    private static Position flip(Position pos) {
+        Position flipped = new Position();
+        for (int sq = 0; sq < 64; sq++) {
+            int piece = pos.pieceAt(sq);
+            if (piece != Position.NO_PIECE) {
+                flipped.putPiece(piece ^ 1, sq ^ 56);
+            }
+        }
+        flipped.setSideToMove(pos.sideToMove() ^ 1);
+        return flipped;
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.daniel;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GameFileTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsThroughFile() throws IOException {
+        Position start = Fen.parse("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 3 17");
+        Position played = new Position();
+        played.copyFrom(start);
+        String[] uci = {"e5f7", "e8g8", "a2a4", "b4a3", "e1c1", "a3b2"};
+        int[] moves = new int[uci.length];
+        for (int i = 0; i < uci.length; i++) {
+            moves[i] = find(played, uci[i]);
+            played.makeMove(moves[i]);
+        }
+        SavedGame game = new SavedGame(start, moves, 412_345, 598_001);
+
+        Path file = dir.resolve("game.chs");
+        GameFile.write(file, game);
+        SavedGame read = GameFile.read(file);
+
+        assertEquals(start.key(), read.start.key());
+        assertEquals(17, read.start.fullmoveNumber());
+        assertEquals(3, read.start.halfmoveClock());
+        assertArrayEquals(moves, read.moves);
+        assertEquals(412_345, read.whiteMillis);
+        assertEquals(598_001, read.blackMillis);
+    }
+
+    @Test
+    void readsVersionOneWithScoresAndCaptures() throws IOException {
+        int e4 = find(Position.startPosition(), "e2e4");
+        ByteBuffer current = GameFile.encode(new SavedGame(Position.startPosition(), new int[]{e4}, 600, 590));
+        // Header, board, side, castling, ep, both move counters and both clocks take 46 bytes here
+        ByteBuffer v1 = ByteBuffer.allocate(current.remaining() + 4);
+        v1.put(current.slice(0, 46)).put(4, (byte) 1);
+        v1.put(new byte[]{0, 1, 1, (byte) Position.piece(Position.BLACK, Position.PAWN)});
+        v1.put(current.slice(46, current.remaining() - 46)).flip();
+
+        SavedGame read = GameFile.decode(v1);
+        assertArrayEquals(new int[]{e4}, read.moves);
+        // Clocks before version 3 are whole seconds
+        assertEquals(590_000, read.blackMillis);
+    }
+
+    @Test
+    void dropsEnPassantSquareNoPawnCanUse() throws IOException {
+        Position played = Position.startPosition();
+        played.makeMove(find(played, "e2e4"));
+        Position saved = new Position();
+        saved.copyFrom(played);
+        saved.setEpSquare(Bitboards.square(4, 2));
+
+        SavedGame read = GameFile.decode(GameFile.encode(new SavedGame(saved, new int[0], 600, 600)));
+        assertEquals(Position.NO_SQUARE, read.start.epSquare());
+        assertEquals(played.key(), read.start.key());
+    }
+
+    @Test
+    void rejectsIllegalPositions() {
+        Position noBlackKing = Fen.parse("4k3/8/8/8/8/8/8/4K3 w - - 0 1");
+        noBlackKing.removePiece(Bitboards.square(4, 7));
+        ByteBuffer encoded = GameFile.encode(new SavedGame(noBlackKing, new int[0], 600, 600));
+        assertThrows(IOException.class, () -> GameFile.decode(encoded));
+    }
+
+    @Test
+    void loadsJavaSerializedSaves() throws IOException {
+        Path file = dir.resolve("legacy.sav");
+        Files.copy(Path.of("src/test/resources/legacy-e4.sav"), file);
+        SavedGame game = GameFile.read(file);
+
+        assertEquals(Position.startPosition().key(), game.start.key());
+        assertEquals(1, game.moves.length);
+        assertEquals("e2e4", Moves.toUci(game.moves[0]));
+        assertEquals(590_000, game.whiteMillis);
+        assertEquals(600_000, game.blackMillis);
+    }
+
+    @Test
+    void encodesTheLargestValues() throws IOException {
+        Position start = Fen.parse("4k3/8/8/8/8/8/8/4K3 w - - 99 100000");
+        int[] moves = new int[300];
+        Arrays.fill(moves, Integer.MAX_VALUE);
+        SavedGame read = GameFile.decode(GameFile.encode(new SavedGame(start, moves, Integer.MAX_VALUE, Integer.MAX_VALUE)));
+        assertArrayEquals(moves, read.moves);
+        assertEquals(Integer.MAX_VALUE, read.blackMillis);
+    }
+
+    @Test
+    void rejectsTruncatedFiles() {
+        ByteBuffer encoded = GameFile.encode(new SavedGame(Position.startPosition(), new int[]{Moves.of(12, 28, Moves.DOUBLE_PUSH)},
+                600, 600));
+        encoded.limit(encoded.limit() - 2);
+        assertThrows(IOException.class, () -> GameFile.decode(encoded));
+    }
+
+    private static int find(Position pos, String uci) {
+        int[] buffer = new int[MoveGen.MAX_MOVES];
+        int count = MoveGen.generate(pos, buffer, 0);
+        for (int i = 0; i < count; i++) {
+            if (Moves.toUci(buffer[i]).equals(uci)) {
+                return buffer[i];
+            }
+        }
+        throw new AssertionError(uci);
+    }
+}
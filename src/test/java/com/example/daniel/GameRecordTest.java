@@ -0,0 +1,101 @@
+package com.example.daniel;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class GameRecordTest {
+    // A long random game, with the FEN after every ply
+    private static int[] randomGame(Position pos, int plies, long seed, List<String> fens) {
+        Random random = new Random(seed);
+        int[] buffer = new int[MoveGen.MAX_MOVES];
+        List<Integer> moves = new ArrayList<>();
+        fens.add(Fen.toFen(pos));
+        while (moves.size() < plies) {
+            int count = MoveGen.generate(pos, buffer, 0);
+            if (count == 0) {
+                break;
+            }
+            int move = buffer[random.nextInt(count)];
+            pos.makeMove(move);
+            moves.add(move);
+            fens.add(Fen.toFen(pos));
+        }
+        return moves.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Test
+    void seeksToEveryPlyInAnyOrder() {
+        List<String> fens = new ArrayList<>();
+        int[] moves = randomGame(Position.startPosition(), 1500, 3, fens);
+        GameRecord record = GameRecord.of(Position.startPosition(), moves);
+        assertEquals(moves.length, record.size());
+        assertEquals(fens.get(moves.length), Fen.toFen(record.position()));
+
+        Random random = new Random(5);
+        for (int i = 0; i < 2000; i++) {
+            int ply = random.nextInt(moves.length + 1);
+            assertEquals(fens.get(ply), Fen.toFen(record.seek(ply)), "ply " + ply);
+            assertEquals(ply, record.cursor());
+        }
+        record.seek(40);
+        for (int ply = 40; ply > 0; ply--) {
+            record.back();
+            assertEquals(fens.get(ply - 1), Fen.toFen(record.position()));
+        }
+        assertFalse(record.back());
+        for (int ply = 1; ply <= 70; ply++) {
+            record.forward();
+            assertEquals(fens.get(ply), Fen.toFen(record.position()));
+        }
+    }
+
+    @Test
+    void newMoveReplacesTheRestOfTheGame() {
+        List<String> fens = new ArrayList<>();
+        Position start = Fen.parse("r3k2r/8/8/8/8/8/8/R3K2R b KQkq - 3 40");
+        int[] moves = randomGame(Fen.parse(Fen.toFen(start)), 300, 9, fens);
+        GameRecord record = GameRecord.of(start, moves);
+
+        record.seek(100);
+        record.play(moves[100]);
+        assertEquals(moves.length, record.size());
+        assertEquals(101, record.cursor());
+
+        int[] buffer = new int[MoveGen.MAX_MOVES];
+        int count = MoveGen.generate(record.position(), buffer, 0);
+        int other = buffer[0] == moves[101] ? buffer[1] : buffer[0];
+        record.play(other);
+        assertEquals(102, record.size());
+        assertEquals(fens.get(101), Fen.toFen(record.seek(101)));
+        assertEquals(other, record.moveAt(101));
+    }
+
+    @Test
+    void capturesAndPointsFollowTheCursor() {
+        Position start = Position.startPosition();
+        int[] moves = new int[4];
+        Position pos = Position.startPosition();
+        String[] sans = {"e4", "d5", "exd5", "Qxd5"};
+        for (int i = 0; i < sans.length; i++) {
+            moves[i] = San.parse(pos, sans[i]);
+            pos.makeMove(moves[i]);
+        }
+        GameRecord record = GameRecord.of(start, moves);
+
+        assertArrayEquals(new int[]{Piece.BLACK_PAWN.code(), Piece.WHITE_PAWN.code()}, record.capturedBefore(4));
+        assertArrayEquals(new int[]{Piece.BLACK_PAWN.code()}, record.capturedBefore(3));
+        assertEquals(1, record.pointsBefore(Position.WHITE, 3));
+        assertEquals(0, record.pointsBefore(Position.BLACK, 3));
+        assertEquals(1, record.pointsBefore(Position.BLACK, 4));
+
+        record.truncate(2);
+        assertEquals(0, record.capturedBefore(4).length);
+    }
+}
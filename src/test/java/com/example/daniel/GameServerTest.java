@@ -0,0 +1,101 @@
+package com.example.daniel;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameServerTest {
+    @Test
+    void playsAGameOverTheLineProtocol() throws IOException {
+        try (GameServer server = new GameServer(0, 2, 1, SearchLimits.nodes(500))) {
+            server.start();
+            try (Socket socket = new Socket("localhost", server.port());
+                 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                 PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8)) {
+                assertTrue(in.readLine().startsWith("hello"));
+                out.println("move e2e4");
+                assertEquals("error No hay partida", in.readLine());
+
+                out.println("new black depth 2");
+                assertTrue(in.readLine().startsWith("game "));
+                String reply = in.readLine();
+                assertTrue(reply.startsWith("move "), reply);
+
+                out.println("move a1a8");
+                assertTrue(in.readLine().startsWith("error Movimiento ilegal"));
+
+                Position pos = Position.startPosition();
+                pos.makeMove(uci(pos, reply.substring(5)));
+                int[] buffer = new int[MoveGen.MAX_MOVES];
+                MoveGen.generate(pos, buffer, 0);
+                out.println("move " + Moves.toUci(buffer[0]));
+                assertTrue(in.readLine().startsWith("move "));
+
+                out.println("moves");
+                assertEquals(3, in.readLine().split(" ").length - 1);
+            }
+        }
+    }
+
+    @Test
+    void refusesRequestsForNoNodeLimit() throws IOException {
+        try (GameServer server = new GameServer(0, 1, 1, SearchLimits.nodes(500))) {
+            server.start();
+            try (Socket socket = new Socket("localhost", server.port());
+                 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+                 PrintWriter out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8)) {
+                in.readLine();
+                out.println("new white nodes 0");
+                assertTrue(in.readLine().startsWith("error Uso"));
+                out.println("new white nodes -1");
+                assertTrue(in.readLine().startsWith("error Uso"));
+                // A depth below one is raised to one, and the game goes on within the server's caps
+                out.println("new black depth -5 nodes 100");
+                assertTrue(in.readLine().startsWith("game "));
+                assertTrue(in.readLine().startsWith("move "));
+            }
+        }
+    }
+
+    @Test
+    void loadClientMeasuresEveryRoundTrip() throws IOException {
+        try (GameServer server = new GameServer(0, 2, 1, SearchLimits.nodes(200))) {
+            server.start();
+            LoadClient.Latencies latencies = new LoadClient("localhost", server.port(), 3, 200).run(4, 1);
+            assertTrue(latencies.count() > 0 && latencies.count() <= 12, "jugadas " + latencies.count());
+            assertTrue(latencies.percentile(0.5) <= latencies.percentile(1.0));
+        }
+    }
+
+    @Test
+    void sessionDetectsThreefoldRepetition() {
+        GameServer.Session session = new GameServer.Session(1, Position.BLACK, SearchLimits.depth(1));
+        Position pos = session.position();
+        String[] shuffle = {"Nf3", "Nf6", "Ng1", "Ng8", "Nf3", "Nf6", "Ng1", "Ng8"};
+        for (int i = 0; i < shuffle.length; i++) {
+            assertEquals(null, session.outcome(pos), shuffle[i]);
+            session.play(pos, San.parse(pos, shuffle[i]));
+            pos = session.position();
+        }
+        assertEquals("1/2-1/2 repeticion", session.outcome(pos));
+    }
+
+    private static int uci(Position pos, String text) {
+        int[] buffer = new int[MoveGen.MAX_MOVES];
+        int count = MoveGen.generate(pos, buffer, 0);
+        for (int i = 0; i < count; i++) {
+            if (Moves.toUci(buffer[i]).equals(text)) {
+                return buffer[i];
+            }
+        }
+        throw new AssertionError(text);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.daniel;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsTest {
+    @Test
+    void histogramPercentilesStayWithinABucket() {
+        Metrics.Histogram h = new Metrics.Histogram();
+        for (int i = 1; i <= 1000; i++) {
+            h.record(i);
+        }
+        assertEquals(1000, h.count());
+        assertEquals(1000, h.max());
+        assertEquals(500.5, h.mean(), 1e-9);
+        long p50 = h.percentile(0.5);
+        assertTrue(p50 >= 500 && p50 <= 500 * 1.125, "p50 " + p50);
+        long p99 = h.percentile(0.99);
+        assertTrue(p99 >= 990 && p99 <= 1000, "p99 " + p99);
+        h.reset();
+        assertEquals(0, h.count());
+        assertEquals(0, h.percentile(0.5));
+    }
+
+    @Test
+    void bucketsCoverEveryValue() {
+        long[] values = {0, 1, 15, 16, 17, 31, 32, 1000, 1L << 40, Long.MAX_VALUE};
+        int last = -1;
+        for (long value : values) {
+            int index = Metrics.Histogram.index(value);
+            assertTrue(index >= last, "index of " + value);
+            assertTrue(Metrics.Histogram.upperBound(index) >= value, "bound of " + value);
+            last = index;
+        }
+    }
+
+    @Test
+    void searchesAreCounted() {
+        long searches = Metrics.SEARCHES.sum();
+        long nodes = Metrics.SEARCH_NODES.sum();
+        long probes = Metrics.TT_PROBES.sum();
+        SearchPool pool = new SearchPool(new TranspositionTable(8), 1);
+        try {
+            SearchResult result = pool.search(Fen.parse(Fen.START), SearchLimits.depth(5), null);
+            assertEquals(searches + 1, Metrics.SEARCHES.sum());
+            assertEquals(nodes + result.nodes, Metrics.SEARCH_NODES.sum());
+            assertTrue(Metrics.TT_PROBES.sum() > probes);
+        } finally {
+            pool.shutdown();
+        }
+        assertTrue(Metrics.ttHitRate() > 0 && Metrics.ttHitRate() <= 1);
+        String json = Metrics.json();
+        assertTrue(json.startsWith("{\"enabled\":true,") && json.endsWith("}"), json);
+        assertTrue(json.contains("\"search.depth\":{\"count\":"), json);
+        assertTrue(Metrics.text().contains("tt.hit_rate"));
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.daniel;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class OpeningBookTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void weightsMovesByResult() throws IOException {
+        String pgn = "[Result \"1-0\"]\n\n1. e4 e5 2. Nf3 1-0\n\n"
+                + "[Result \"1/2-1/2\"]\n\n1. e4 c5 1/2-1/2\n\n"
+                + "[Result \"0-1\"]\n\n1. d4 d5 0-1\n\n"
+                + "[Result \"*\"]\n\n1. c4 *\n";
+        Path file = dir.resolve("libro.bin");
+        BookBuilder builder = new BookBuilder(24, 1);
+        try (PgnReader reader = new PgnReader(new StringReader(pgn))) {
+            reader.forEachRemaining(builder::add);
+        }
+        // Losing moves (1... e5, 1. d4) get no weight and are left out
+        assertEquals(4, builder.write(file));
+        assertEquals(4 * OpeningBook.ENTRY_SIZE, Files.size(file));
+
+        try (OpeningBook book = OpeningBook.open(file)) {
+            Position start = Position.startPosition();
+            List<OpeningBook.Entry> entries = book.entries(start);
+            // e4 scored a win and a draw
+            assertEquals(1, entries.size());
+            assertEquals("e2e4", Moves.toUci(entries.get(0).move));
+            assertEquals(3, entries.get(0).weight);
+
+            start.makeMove(entries.get(0).move);
+            assertEquals("c5", San.toSan(start, book.probe(start, new Random(1))));
+
+            Position afterD4 = Fen.parse("rnbqkbnr/pppppppp/8/8/3P4/8/PPP1PPPP/RNBQKBNR b KQkq - 0 1");
+            assertEquals("d5", San.toSan(afterD4, book.probe(afterD4, new Random(1))));
+        }
+    }
+
+    @Test
+    void probePicksMovesInProportionToWeight() throws IOException {
+        String pgn = "[Result \"1-0\"]\n\n1. e4 1-0\n\n"
+                + "[Result \"1/2-1/2\"]\n\n1. e4 1/2-1/2\n\n"
+                + "[Result \"1/2-1/2\"]\n\n1. d4 1/2-1/2\n";
+        Path file = dir.resolve("pesos.bin");
+        BookBuilder builder = new BookBuilder(1, 1);
+        try (PgnReader reader = new PgnReader(new StringReader(pgn))) {
+            reader.forEachRemaining(builder::add);
+        }
+        builder.write(file);
+
+        try (OpeningBook book = OpeningBook.open(file)) {
+            Position start = Position.startPosition();
+            Random random = new Random(7);
+            int e4 = 0;
+            for (int i = 0; i < 4000; i++) {
+                if (Moves.toUci(book.probe(start, random)).equals("e2e4")) {
+                    e4++;
+                }
+            }
+            // e4 weighs 3, d4 weighs 1
+            assertTrue(e4 > 2850 && e4 < 3150, "e4 " + e4);
+        }
+    }
+
+    @Test
+    void findsEveryPositionOfALargeBook() throws IOException {
+        List<PgnGame> games = PgnTest.randomGames(300, 5);
+        Path file = dir.resolve("grande.bin");
+        BookBuilder builder = new BookBuilder(12, 1);
+        for (PgnGame game : games) {
+            builder.add(new PgnGame(game.tags(), game.start(), game.moves(), "1/2-1/2"));
+        }
+        builder.write(file);
+
+        try (OpeningBook book = OpeningBook.open(file)) {
+            for (PgnGame game : games) {
+                Position pos = game.start();
+                for (int i = 0; i < 12 && i < game.moveCount(); i++) {
+                    int move = game.moves()[i];
+                    assertTrue(book.entries(pos).stream().anyMatch(e -> e.move == move));
+                    pos.makeMove(move);
+                }
+            }
+        }
+    }
+
+    @Test
+    void refusesBooksWithStandardPolyglotKeys() throws IOException {
+        assumeFalse(PolyglotKey.available());
+        Path file = dir.resolve("polyglot.bin");
+        ByteBuffer entry = ByteBuffer.allocate(OpeningBook.ENTRY_SIZE)
+                .putLong(OpeningBook.POLYGLOT_START_KEY).putShort((short) 0x31C).putShort((short) 1);
+        Files.write(file, entry.array());
+        IOException e = assertThrows(IOException.class, () -> OpeningBook.open(file));
+        assertTrue(e.getMessage().contains("Polyglot"));
+    }
+
+    @Test
+    void polyglotKeyMatchesReferencePositions() {
+        assumeTrue(PolyglotKey.available(), "sin " + PolyglotKey.RESOURCE);
+        Position pos = Position.startPosition();
+        assertEquals(0x463B96181691FC9CL, PolyglotKey.of(pos));
+        PositionTest.play(pos, "e2e4");
+        assertEquals(0x823C9B50FD114196L, PolyglotKey.of(pos));
+        PositionTest.play(pos, "d7d5", "e4e5", "f7f5");
+        assertEquals(0x22A48B5A8E47FF78L, PolyglotKey.of(pos));
+        PositionTest.play(pos, "e1e2", "e8f7");
+        assertEquals(0x00FDD303C946BDD9L, PolyglotKey.of(pos));
+    }
+
+    @Test
+    void polyglotKeyHashesPiecesRightsEnPassantAndTurn() throws IOException {
+        long[] random = new Random(7).longs(PolyglotKey.SIZE).toArray();
+        Position start = Position.startPosition();
+        Position pos = Position.startPosition();
+        PositionTest.play(pos, "e2e4");
+        // White pawns are kind 1 and white to move is entry 780
+        assertEquals(random[64 + 12] ^ random[64 + 28] ^ random[780],
+                PolyglotKey.of(start, random) ^ PolyglotKey.of(pos, random));
+
+        // No black pawn beside e4, so an e3 square is not hashed
+        Position withEp = new Position();
+        withEp.copyFrom(pos);
+        withEp.setEpSquare(Bitboards.square(4, 2));
+        assertEquals(PolyglotKey.of(pos, random), PolyglotKey.of(withEp, random));
+        PositionTest.play(pos, "d7d5", "e4e5", "f7f5");
+        Position noEp = Fen.parse("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq - 0 3");
+        assertEquals(random[772 + 5], PolyglotKey.of(pos, random) ^ PolyglotKey.of(noEp, random));
+
+        // Black king is kind 10; castling rights are 768 to 771 in KQkq order
+        Position kings = Fen.parse("4k3/8/8/8/8/8/8/R3K2R w KQ - 0 1");
+        Position moved = Fen.parse("5k2/8/8/8/8/8/8/R3K2R w K - 0 1");
+        assertEquals(random[640 + 60] ^ random[640 + 61] ^ random[769],
+                PolyglotKey.of(kings, random) ^ PolyglotKey.of(moved, random));
+
+        assertThrows(IOException.class, () -> PolyglotKey.parse("0x9D39247E33776D41"));
+    }
+
+    @Test
+    void castlingUsesKingTakesRook() {
+        Position pos = Fen.parse("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        assertEquals(0x107, OpeningBook.encode(San.parse(pos, "O-O")));
+        assertEquals(0x100, OpeningBook.encode(San.parse(pos, "O-O-O")));
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.daniel;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Reference counts from https://www.chessprogramming.org/Perft_Results
+class PerftTest {
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+    private static final String POSITION_3 = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1";
+    private static final String POSITION_4 = "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1";
+    private static final String POSITION_4_MIRRORED = "r2q1rk1/pP1p2pp/Q4n2/bbp1p3/Np6/1B3NBn/pPPP1PPP/R3K2R b KQ - 0 1";
+    private static final String POSITION_5 = "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8";
+    private static final String POSITION_6 = "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10";
+
+    @Test
+    void startPosition() {
+        Position pos = Fen.parse(Fen.START);
+        assertEquals(20, MoveGen.perft(pos, 1));
+        assertEquals(400, MoveGen.perft(pos, 2));
+        assertEquals(8902, MoveGen.perft(pos, 3));
+        assertEquals(197281, MoveGen.perft(pos, 4));
+        assertEquals(4865609, MoveGen.perft(pos, 5));
+    }
+
+    @Test
+    void kiwipete() {
+        Position pos = Fen.parse(KIWIPETE);
+        assertEquals(48, MoveGen.perft(pos, 1));
+        assertEquals(2039, MoveGen.perft(pos, 2));
+        assertEquals(97862, MoveGen.perft(pos, 3));
+        assertEquals(4085603, MoveGen.perft(pos, 4));
+    }
+
+    @Test
+    void position3() {
+        Position pos = Fen.parse(POSITION_3);
+        assertEquals(14, MoveGen.perft(pos, 1));
+        assertEquals(2812, MoveGen.perft(pos, 3));
+        assertEquals(674624, MoveGen.perft(pos, 5));
+    }
+
+    @Test
+    void position4() {
+        assertEquals(422333, MoveGen.perft(Fen.parse(POSITION_4), 4));
+        assertEquals(422333, MoveGen.perft(Fen.parse(POSITION_4_MIRRORED), 4));
+    }
+
+    @Test
+    void position5() {
+        assertEquals(2103487, MoveGen.perft(Fen.parse(POSITION_5), 4));
+    }
+
+    @Test
+    void position6() {
+        assertEquals(3894594, MoveGen.perft(Fen.parse(POSITION_6), 4));
+    }
+
+    @Test
+    void divideSumsToPerft() {
+        Position pos = Fen.parse(KIWIPETE);
+        Map<String, Long> divide = MoveGen.divide(pos, 3);
+        assertEquals(48, divide.size());
+        assertEquals(97862, divide.values().stream().mapToLong(Long::longValue).sum());
+        assertEquals(2039, MoveGen.perft(pos, 2));
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.daniel;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PgnTest {
+    @Test
+    void writesSan() {
+        Position pos = Fen.parse("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        assertEquals("O-O-O", San.toSan(pos, San.parse(pos, "O-O-O")));
+        assertEquals("Nxf7", San.toSan(pos, San.parse(pos, "Nxf7")));
+
+        Position rooks = Fen.parse("1k6/8/8/8/8/8/4K3/R6R w - - 0 1");
+        assertEquals("Rad1", San.toSan(rooks, San.parse(rooks, "Rad1")));
+        assertEquals("Rhd1", San.toSan(rooks, San.parse(rooks, "Rhd1")));
+
+        Position promotion = Fen.parse("4k3/1P6/8/8/8/8/8/4K3 w - - 0 1");
+        assertEquals("b8=Q+", San.toSan(promotion, San.parse(promotion, "b8Q")));
+
+        Position mate = Fen.parse("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        assertEquals("Ra8#", San.toSan(mate, San.parse(mate, "Ra8")));
+    }
+
+    @Test
+    void rejectsAmbiguousOrIllegalSan() {
+        Position rooks = Fen.parse("1k6/8/8/8/8/8/4K3/R6R w - - 0 1");
+        assertEquals(Moves.NONE, San.parse(rooks, "Rd1"));
+        assertEquals(Moves.NONE, San.parse(Position.startPosition(), "e5"));
+        assertEquals(Moves.NONE, San.parse(Position.startPosition(), "zz"));
+    }
+
+    @Test
+    void skipsCommentsVariationsAndNags() {
+        String text = "[Event \"Prueba\"]\n"
+                + "[Result \"1-0\"]\n\n"
+                + "1. e4 {apertura} e5 2. Nf3 (2. f4 exf4 (2... d5) 3. Nf3) Nc6 $1 3. Bb5!? a6\n"
+                + "; comentario de línea\n"
+                + "4. Ba4 Nf6 5. O-O 1-0\n";
+        PgnGame game = PgnReader.parse(text);
+
+        assertEquals("Prueba", game.tag("Event"));
+        assertEquals("1-0", game.result());
+        assertEquals(9, game.moveCount());
+        assertEquals("e1g1", Moves.toUci(game.moves()[8]));
+    }
+
+    @Test
+    void readsEnPassantAndPromotionFromFen() {
+        String text = "[FEN \"4k3/1P6/8/3pP3/8/8/8/4K3 w - d6 0 1\"]\n"
+                + "[SetUp \"1\"]\n\n"
+                + "1. exd6 e.p. Kf7 2. b8=Q *\n";
+        PgnGame game = PgnReader.parse(text);
+
+        assertEquals(3, game.moveCount());
+        assertEquals(Moves.EP_CAPTURE, Moves.flags(game.moves()[0]));
+        assertEquals(Position.QUEEN, Moves.promotionType(game.moves()[2]));
+        assertThrows(IllegalArgumentException.class, () -> PgnReader.parse("1. e4 e4 *\n"));
+    }
+
+    @Test
+    void roundTripsThroughWriter() throws IOException {
+        List<PgnGame> games = randomGames(20, 7);
+        String text = write(games);
+        List<PgnGame> read;
+        try (PgnReader reader = new PgnReader(new StringReader(text))) {
+            read = reader.stream().collect(Collectors.toList());
+        }
+
+        assertEquals(games.size(), read.size());
+        for (int i = 0; i < games.size(); i++) {
+            assertArrayEquals(games.get(i).moves(), read.get(i).moves());
+            assertEquals(games.get(i).tags(), read.get(i).tags());
+        }
+    }
+
+    @Test
+    void writesFenForSetUpPositions() throws IOException {
+        Position start = Fen.parse("4k3/1P6/8/8/8/8/8/4K3 b - - 0 30");
+        int[] moves = {San.parse(start, "Kd7")};
+        String text = write(List.of(new PgnGame(Map.of(), start, moves, "*")));
+
+        assertTrue(text.contains("[SetUp \"1\"]\n[FEN \"4k3/1P6/8/8/8/8/8/4K3 b - - 0 30\"]"), text);
+        assertTrue(text.contains("30... Kd7 *"), text);
+        assertArrayEquals(moves, PgnReader.parse(text).moves());
+    }
+
+    @Test
+    void parallelReaderKeepsFileOrder() throws IOException {
+        String text = write(randomGames(300, 11));
+        List<PgnGame> sequential;
+        List<PgnGame> parallel;
+        try (PgnReader reader = new PgnReader(new StringReader(text))) {
+            sequential = reader.stream().collect(Collectors.toList());
+        }
+        try (PgnReader reader = new PgnReader(new StringReader(text), 4)) {
+            parallel = reader.stream().collect(Collectors.toList());
+        }
+
+        assertEquals(300, parallel.size());
+        for (int i = 0; i < sequential.size(); i++) {
+            assertEquals(sequential.get(i).tag("Round"), parallel.get(i).tag("Round"));
+            assertArrayEquals(sequential.get(i).moves(), parallel.get(i).moves());
+        }
+    }
+
+    @Test
+    void skipsCorruptGameAndContinues() {
+        String pgn = "[Round \"1\"]\n\n1. e4 e5 1-0\n\n"
+                + "[Round \"2\"]\n\n1. e4 Ke7 Qh5 *\n\n"
+                + "[Round \"3\"]\n[FEN \"no es un fen\"]\n\n1. d4 *\n\n"
+                + "[Round \"4\"]\n\n1. d4 d5 1/2-1/2\n";
+        for (int threads : new int[]{1, 2}) {
+            List<String> skipped = new ArrayList<>();
+            try (PgnReader reader = new PgnReader(new StringReader(pgn), threads)) {
+                List<PgnGame> games = reader.onError(e -> skipped.add(e.getMessage())).stream()
+                        .collect(Collectors.toList());
+                assertEquals(2, games.size());
+                assertEquals("1", games.get(0).tag("Round"));
+                assertEquals("4", games.get(1).tag("Round"));
+                assertEquals(2, reader.errors());
+            }
+            assertTrue(skipped.get(0).contains("partida 2"), skipped.get(0));
+            assertTrue(skipped.get(1).contains("partida 3"), skipped.get(1));
+        }
+    }
+
+    static List<PgnGame> randomGames(int count, long seed) {
+        Random random = new Random(seed);
+        int[] buffer = new int[MoveGen.MAX_MOVES];
+        List<PgnGame> games = new ArrayList<>(count);
+        for (int g = 0; g < count; g++) {
+            Position pos = Position.startPosition();
+            int plies = 20 + random.nextInt(100);
+            int[] moves = new int[plies];
+            int played = 0;
+            while (played < plies) {
+                int n = MoveGen.generate(pos, buffer, 0);
+                if (n == 0) {
+                    break;
+                }
+                moves[played] = buffer[random.nextInt(n)];
+                pos.makeMove(moves[played++]);
+            }
+            Map<String, String> tags = new LinkedHashMap<>();
+            tags.put("Event", "Partida \"aleatoria\"");
+            tags.put("Round", String.valueOf(g + 1));
+            tags.put("Result", "*");
+            games.add(new PgnGame(tags, Position.startPosition(), Arrays.copyOf(moves, played), "*"));
+        }
+        return games;
+    }
+
+    private static String write(List<PgnGame> games) throws IOException {
+        StringWriter out = new StringWriter();
+        try (PgnWriter writer = new PgnWriter(out)) {
+            for (PgnGame game : games) {
+                writer.write(game);
+            }
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.daniel;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PositionTest {
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    @Test
+    void incrementalKeyMatchesRecomputedKey() {
+        Position pos = Fen.parse(KIWIPETE);
+        long rootKey = pos.key();
+        walk(pos, 3, new int[MoveGen.MAX_MOVES * 3], 0);
+        assertEquals(rootKey, pos.key());
+    }
+
+    @Test
+    void transpositionsShareKey() {
+        Position a = Fen.parse(Fen.START);
+        play(a, "g1f3", "g8f6", "b1c3");
+        Position b = Fen.parse(Fen.START);
+        play(b, "b1c3", "g8f6", "g1f3");
+        assertEquals(a.key(), b.key());
+    }
+
+    @Test
+    void detectsRepetition() {
+        Position pos = Fen.parse(Fen.START);
+        play(pos, "g1f3", "g8f6", "f3g1");
+        assertFalse(pos.isRepetition());
+        play(pos, "f6g8");
+        assertTrue(pos.isRepetition());
+    }
+
+    @Test
+    void fenRoundTrips() {
+        String[] fens = {
+                Fen.START,
+                KIWIPETE,
+                "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3",
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 b - - 17 42"
+        };
+        for (String fen : fens) {
+            assertEquals(fen, Fen.toFen(Fen.parse(fen)));
+        }
+        Position pos = Fen.parse(Fen.START);
+        play(pos, "e2e4", "c7c5", "g1f3");
+        assertEquals("rnbqkbnr/pp1ppppp/8/2p5/4P3/5N2/PPPP1PPP/RNBQKB1R b KQkq - 1 2", Fen.toFen(pos));
+    }
+
+    @Test
+    void rejectsMalformedFen() {
+        assertThrows(IllegalArgumentException.class, () -> Fen.parse("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1"));
+        assertThrows(IllegalArgumentException.class, () -> Fen.parse("rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1"));
+        assertThrows(IllegalArgumentException.class, () -> Fen.parse("8/8/8/8/8/8/8/4K3 w - - 0 1"));
+        // The side not to move is in check
+        assertThrows(IllegalArgumentException.class, () -> Fen.parse("4k3/8/8/8/8/8/8/4RK2 w - - 0 1"));
+    }
+
+    @Test
+    void dropsEnPassantSquaresNoPawnJustPassed() {
+        // Wrong rank for the side to move, and no black pawn behind e3
+        Position pos = Fen.parse("4k3/8/8/8/8/8/3P1P2/4K3 w - e3 0 1");
+        assertEquals(Position.NO_SQUARE, pos.epSquare());
+        assertEquals(Fen.parse("4k3/8/8/8/8/8/3P1P2/4K3 w - - 0 1").key(), pos.key());
+        // Right rank and a capturer, but no black pawn on d5
+        assertEquals(Position.NO_SQUARE, Fen.parse("4k3/8/8/4P3/8/8/8/4K3 w - d6 0 1").epSquare());
+        Position played = Fen.parse("4k3/3p4/8/4P3/8/8/8/4K3 b - - 0 1");
+        play(played, "d7d5");
+        Position parsed = Fen.parse("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 2");
+        assertEquals(Bitboards.square(3, 5), parsed.epSquare());
+        assertEquals(played.key(), parsed.key());
+    }
+
+    @Test
+    void checkInfoMatchesMadeMoves() {
+        String[] fens = {
+                KIWIPETE,
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                // Discovered checks, en passant along the rank and castling into check
+                "4k3/8/8/2KPp2r/8/8/8/8 w - e6 0 1",
+                "3k4/8/8/8/8/8/3B4/3RK2R w K - 0 1"
+        };
+        int[] buffer = new int[MoveGen.MAX_MOVES * 3];
+        for (String fen : fens) {
+            checkGivesCheck(Fen.parse(fen), 3, buffer, 0);
+        }
+    }
+
+    private static void checkGivesCheck(Position pos, int depth, int[] buffer, int offset) {
+        int king = pos.kingSquare(pos.sideToMove());
+        assertEquals(pos.attackersTo(king, pos.occupied()) & pos.colorPieces(pos.sideToMove() ^ 1), pos.checkers());
+        if (depth == 0) {
+            return;
+        }
+        int count = MoveGen.generate(pos, buffer, offset);
+        for (int i = offset; i < offset + count; i++) {
+            boolean expected = pos.givesCheck(buffer[i]);
+            pos.makeMove(buffer[i]);
+            assertEquals(expected, pos.checkers() != 0, Moves.toUci(buffer[i]));
+            checkGivesCheck(pos, depth - 1, buffer, offset + count);
+            pos.unmakeMove(buffer[i]);
+        }
+    }
+
+    private static void walk(Position pos, int depth, int[] buffer, int offset) {
+        assertEquals(pos.computeKey(), pos.key());
+        if (depth == 0) {
+            return;
+        }
+        int count = MoveGen.generate(pos, buffer, offset);
+        for (int i = offset; i < offset + count; i++) {
+            pos.makeMove(buffer[i]);
+            walk(pos, depth - 1, buffer, offset + count);
+            pos.unmakeMove(buffer[i]);
+        }
+    }
+
+    static void play(Position pos, String... uciMoves) {
+        int[] buffer = new int[MoveGen.MAX_MOVES];
+        for (String uci : uciMoves) {
+            int count = MoveGen.generate(pos, buffer, 0);
+            int move = Moves.NONE;
+            for (int i = 0; i < count; i++) {
+                if (Moves.toUci(buffer[i]).equals(uci)) {
+                    move = buffer[i];
+                }
+            }
+            assertTrue(move != Moves.NONE, uci);
+            pos.makeMove(move);
+        }
+    }
+}
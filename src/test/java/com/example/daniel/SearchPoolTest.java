@@ -0,0 +1,47 @@
+package com.example.daniel;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchPoolTest {
+    @Test
+    void helpersAgreeOnForcedMate() {
+        SearchPool pool = new SearchPool(new TranspositionTable(8), 4);
+        try {
+            // Back-rank mate in one
+            SearchResult result = pool.search(Fen.parse("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1"), SearchLimits.depth(6), null);
+            assertEquals("a1a8", Moves.toUci(result.bestMove));
+            assertEquals(Search.MATE - 1, result.score);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void stopsAllThreadsWithinTimeLimit() {
+        SearchPool pool = new SearchPool(new TranspositionTable(8), 3);
+        try {
+            Position pos = Fen.parse(Fen.START);
+            long start = System.nanoTime();
+            SearchResult result = pool.search(pos, SearchLimits.time(200), null);
+            long millis = (System.nanoTime() - start) / 1_000_000L;
+            assertTrue(millis < 1000, "took " + millis + " ms");
+            assertTrue(isLegal(pos, result.bestMove));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static boolean isLegal(Position pos, int move) {
+        int[] moves = new int[MoveGen.MAX_MOVES];
+        int count = MoveGen.generate(pos, moves, 0);
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
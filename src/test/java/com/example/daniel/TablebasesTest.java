@@ -0,0 +1,82 @@
+package com.example.daniel;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TablebasesTest {
+    @TempDir
+    static Path dir;
+
+    @BeforeAll
+    static void generate() throws IOException {
+        TablebaseGenerator generator = new TablebaseGenerator(dir, 2);
+        generator.generate("KQvK");
+        generator.generate("KRvK");
+    }
+
+    @Test
+    void matchesKnownDistances() throws IOException {
+        try (Tablebases tb = Tablebases.open(dir)) {
+            assertTrue(tb.contains("KvKQ"));
+            assertEquals(Search.MATE - 1, tb.probe(Fen.parse("7k/8/6K1/8/8/8/8/R7 w - - 0 1"), 0));
+            assertEquals(-Search.MATE + 2, tb.probe(Fen.parse("k7/8/1K6/8/8/8/8/7R b - - 0 1"), 0));
+            // Stalemate, and the rook hanging next to the lone king
+            assertEquals(0, tb.probe(Fen.parse("k7/2Q5/1K6/8/8/8/8/8 b - - 0 1"), 0));
+            assertEquals(0, tb.probe(Fen.parse("8/8/8/8/8/8/1r6/2K4k w - - 0 1"), 0));
+            // White always wins, and the longest KRK win is 16 moves
+            int longest = 0;
+            for (int sq = 0; sq < 64; sq++) {
+                Position pos = new Position();
+                pos.putPiece(Position.piece(Position.WHITE, Position.KING), Bitboards.square(4, 0));
+                pos.putPiece(Position.piece(Position.BLACK, Position.KING), Bitboards.square(3, 4));
+                if (sq == Bitboards.square(4, 0) || sq == Bitboards.square(3, 4)) {
+                    continue;
+                }
+                pos.putPiece(Position.piece(Position.WHITE, Position.ROOK), sq);
+                if (pos.isInCheck(Position.BLACK)) {
+                    continue;
+                }
+                int score = tb.probe(pos, 0);
+                assertTrue(score > 0, Fen.toFen(pos));
+                longest = Math.max(longest, Search.MATE - score);
+            }
+            assertTrue(longest <= 31, "dtm " + longest);
+        }
+    }
+
+    @Test
+    void colourFlippedPositionsShareTables() throws IOException {
+        try (Tablebases tb = Tablebases.open(dir)) {
+            Position white = Fen.parse("8/8/8/3k4/8/8/8/Q3K3 w - - 0 1");
+            Position black = Fen.parse("q3k3/8/8/8/3K4/8/8/8 b - - 0 1");
+            assertTrue(tb.probe(white, 0) > Search.MATE_BOUND);
+            assertEquals(tb.probe(white, 0), tb.probe(black, 0));
+        }
+    }
+
+    @Test
+    void searchPlaysTheShortestMate() throws IOException {
+        try (Tablebases tb = Tablebases.open(dir)) {
+            SearchPool pool = new SearchPool(new TranspositionTable(1), 1);
+            pool.setTablebases(tb);
+            Position pos = Fen.parse("8/8/8/3k4/8/8/8/R3K3 w - - 0 1");
+            int dtm = Search.MATE - tb.probe(pos, 0);
+            for (int ply = 0; ply < dtm; ply++) {
+                SearchResult result = pool.search(pos, SearchLimits.depth(2), null);
+                pos.makeMove(result.bestMove);
+                if (pos.sideToMove() == Position.BLACK) {
+                    assertEquals(-(Search.MATE - (dtm - ply - 1)), tb.probe(pos, 0), Fen.toFen(pos));
+                }
+            }
+            assertEquals(0, MoveGen.generate(pos, new int[MoveGen.MAX_MOVES], 0));
+            assertTrue(pos.isInCheck(pos.sideToMove()));
+        }
+    }
+}
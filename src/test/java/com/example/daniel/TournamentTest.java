@@ -0,0 +1,76 @@
+package com.example.daniel;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TournamentTest {
+    @Test
+    void eloFromScoreWithErrorBars() {
+        Tournament.Score score = new Tournament.Score();
+        for (int i = 0; i < 100; i++) {
+            score.add(i < 60 ? 1 : i < 80 ? 0.5 : 0);
+        }
+        assertEquals(0.7, score.score(), 1e-9);
+        assertEquals(147.2, score.elo(), 0.1);
+        assertTrue(score.eloError() > 20 && score.eloError() < 100, "error " + score.eloError());
+        assertEquals(0, Tournament.elo(0.5), 1e-9);
+    }
+
+    @Test
+    void sprtAcceptsTheHypothesisTheResultsSupport() {
+        Tournament.Sprt sprt = new Tournament.Sprt(0, 10, 0.05, 0.05);
+        Tournament.Score strong = new Tournament.Score();
+        Tournament.Score even = new Tournament.Score();
+        int decided = 0;
+        for (int i = 0; i < 2000 && sprt.decide(strong) == 0; i++) {
+            strong.add(i % 5 < 3 ? 1 : 0);
+            decided = i;
+        }
+        assertEquals(1, sprt.decide(strong));
+        assertTrue(decided < 1000, "decidido tras " + decided);
+        for (int i = 0; i < 20000 && sprt.decide(even) == 0; i++) {
+            even.add(i % 2);
+        }
+        assertEquals(-1, sprt.decide(even));
+    }
+
+    @Test
+    void playsPairedGamesAndStreamsThemAsPgn() throws IOException {
+        Tournament.Config first = Tournament.Config.parse("uno:nodes=300,hash=1", SearchLimits.depth(Search.MAX_PLY));
+        Tournament.Config second = Tournament.Config.parse("dos:depth=2,hash=1", SearchLimits.depth(Search.MAX_PLY));
+        assertEquals(300, first.limits.nodes);
+        assertEquals(2, second.limits.depth);
+        List<Position> openings = Tournament.randomOpenings(2, 6, 7);
+        StringWriter out = new StringWriter();
+        Tournament.Score score = new Tournament(first, second, 2, null, 60).run(openings, 4, new PgnWriter(out));
+
+        assertEquals(4, score.games());
+        List<PgnGame> games = new ArrayList<>();
+        for (String text : out.toString().split("\n\n(?=\\[Event)")) {
+            games.add(PgnReader.parse(text));
+        }
+        assertEquals(4, games.size());
+        for (PgnGame game : games) {
+            String round = game.tag("Round");
+            boolean firstIsWhite = round.endsWith(".1");
+            assertEquals(firstIsWhite ? "uno" : "dos", game.tag("White"), round);
+            assertTrue(game.moveCount() <= 60);
+            assertTrue(Map.of("1-0", 1, "0-1", 1, "1/2-1/2", 1).containsKey(game.result()), game.result());
+            assertEquals(game.result(), game.tag("Result"));
+        }
+    }
+
+    @Test
+    void adjudicatesDeadDraws() {
+        assertTrue(Tournament.insufficientMaterial(Fen.parse("8/8/4k3/8/8/3NK3/8/8 w - - 0 1")));
+        assertTrue(!Tournament.insufficientMaterial(Fen.parse("8/8/4k3/8/8/3RK3/8/8 w - - 0 1")));
+    }
+}
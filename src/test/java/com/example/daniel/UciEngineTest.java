@@ -0,0 +1,85 @@
+package com.example.daniel;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PipedReader;
+import java.io.PipedWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UciEngineTest {
+    @Test
+    void answersScriptedSession() throws IOException {
+        String script = "uci\n"
+                + "isready\n"
+                + "setoption name Hash value 2\n"
+                + "setoption name Threads value 2\n"
+                + "ucinewgame\n"
+                + "position fen 6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1\n"
+                + "go depth 4\n";
+        StringWriter out = new StringWriter();
+        new UciEngine(new BufferedReader(new StringReader(script)), out).run();
+
+        String text = out.toString();
+        assertTrue(text.contains("uciok\n") && text.contains("readyok\n"), text);
+        assertTrue(text.contains("score mate 1"), text);
+        assertTrue(text.endsWith("bestmove a1a8\n"), text);
+        assertTrue(!text.contains("info string"), text);
+    }
+
+    @Test
+    void movesAtOnceWithNoTimeLeftAndReportsFullPv() throws IOException {
+        String script = "position startpos\n"
+                + "go wtime 0 btime 60000\n"
+                + "go depth 5\n";
+        StringWriter out = new StringWriter();
+        long start = System.nanoTime();
+        new UciEngine(new BufferedReader(new StringReader(script)), out).run();
+        long millis = (System.nanoTime() - start) / 1_000_000L;
+
+        String text = out.toString();
+        assertTrue(millis < 2000, "took " + millis + " ms");
+        assertTrue(text.split("bestmove ").length == 3, text);
+        String last = text.substring(text.lastIndexOf("info depth 5"));
+        String pv = last.substring(last.indexOf(" pv ") + 4, last.indexOf('\n'));
+        assertTrue(pv.split(" ").length > 1, last);
+    }
+
+    @Test
+    void holdsInfiniteSearchUntilStop() throws Exception {
+        PipedWriter input = new PipedWriter();
+        BufferedReader reader = new BufferedReader(new PipedReader(input));
+        StringWriter out = new StringWriter();
+        Thread engine = new Thread(() -> {
+            try {
+                new UciEngine(reader, out).run();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        engine.start();
+
+        input.write("position startpos moves e2e4 e7e5\ngo infinite\n");
+        input.flush();
+        Thread.sleep(300);
+        synchronized (out) {
+            assertTrue(!out.toString().contains("bestmove"), out.toString());
+        }
+        long start = System.nanoTime();
+        input.write("stop\n");
+        input.flush();
+        input.write("position startpos\ngo ponder wtime 2000 btime 2000\nponderhit\nquit\n");
+        input.close();
+        engine.join(5000);
+        long millis = (System.nanoTime() - start) / 1_000_000L;
+
+        String text = out.toString();
+        assertTrue(!engine.isAlive(), text);
+        assertTrue(millis < 2000, "took " + millis + " ms");
+        assertTrue(text.split("bestmove ").length == 3, text);
+    }
+}